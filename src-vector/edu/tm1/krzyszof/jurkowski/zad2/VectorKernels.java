@@ -0,0 +1,117 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Wektorowe pętle trybu gęstego
+ * <p>
+ * Korzysta z inkubacyjnego modułu <code>jdk.incubator.vector</code>, więc leży w osobnym katalogu źródeł
+ * i jest kompilowana z opcją <code>--add-modules jdk.incubator.vector</code>.
+ * {@link DenseKernels} ładuje ją przez refleksję tylko wtedy, gdy moduł jest dostępny ({@link DenseKernels#VECTORIZED}).
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.1
+ * @see DenseKernels
+ * @since 2.20
+ */
+final class VectorKernels implements DenseKernels.Kernels {
+	/**
+	 * Preferowana szerokość wektora liczb zmiennoprzecinkowych
+	 *
+	 * @since 1.0
+	 */
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * Konstruktor wywoływany przez {@link DenseKernels} przez refleksję
+	 *
+	 * @since 1.1
+	 */
+	VectorKernels() {
+	}
+
+	/**
+	 * Wyszukuje najmniejszy klucz
+	 * <p>
+	 * Najpierw wyznaczane jest minimum po wszystkich pasach (NaN zastępowane nieskończonością),
+	 * a potem pierwsza pozycja, na której występuje.
+	 * </p>
+	 *
+	 * @param key Klucze (NaN - wierzchołek ustalony)
+	 * @return Indeks pierwszego najmniejszego skończonego klucza (-1, jeśli brak)
+	 * @see DenseKernels.Kernels#argmin(double[])
+	 * @since 1.0
+	 */
+	@Override
+	public int argmin(double @NotNull [] key) {
+		int n = key.length;
+		int bound = SPECIES.loopBound(n);
+		DoubleVector lanes = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+		int v = 0;
+		for (; v < bound; v += SPECIES.length()) {
+			DoubleVector k = DoubleVector.fromArray(SPECIES, key, v);
+			lanes = lanes.min(k.blend(Double.POSITIVE_INFINITY, k.test(VectorOperators.IS_NAN)));
+		}
+		double min = lanes.reduceLanes(VectorOperators.MIN);
+		for (; v < n; v++)
+			if (key[v] < min)
+				min = key[v];
+		if (min == Double.POSITIVE_INFINITY)
+			return -1;
+
+		for (v = 0; v < bound; v += SPECIES.length()) {
+			VectorMask<Double> found = DoubleVector.fromArray(SPECIES, key, v).compare(VectorOperators.EQ, min);
+			if (found.anyTrue())
+				return v + found.firstTrue();
+		}
+		for (; v < n; v++)
+			if (key[v] == min)
+				return v;
+		return -1;
+	}
+
+	/**
+	 * Relaksuje początek tablicy kluczy
+	 * <p>
+	 * Brak krawędzi (NaN) daje NaN, które nie jest mniejsze od żadnego klucza.
+	 * </p>
+	 *
+	 * @param key    Klucze (NaN - wierzchołek ustalony)
+	 * @param length Liczba relaksowanych kluczy
+	 * @param matrix Macierz wag
+	 * @param offset Komórka wagi dla pierwszego klucza
+	 * @param base   Składnik dodawany do wag
+	 * @param from   Poprzednicy zapisani jako liczby (<code>null</code>, jeśli niepotrzebni)
+	 * @param source Poprzednik ustawiany przy poprawie klucza
+	 * @see DenseKernels.Kernels#relax(double[], int, double[], int, double, double[], double)
+	 * @since 1.0
+	 */
+	@Override
+	public void relax(double @NotNull [] key, int length, double @NotNull [] matrix, int offset, double base, double[] from, double source) {
+		int bound = SPECIES.loopBound(length);
+		int v = 0;
+		for (; v < bound; v += SPECIES.length()) {
+			DoubleVector alt = DoubleVector.fromArray(SPECIES, matrix, offset + v).add(base);
+			DoubleVector k = DoubleVector.fromArray(SPECIES, key, v);
+			VectorMask<Double> better = alt.compare(VectorOperators.LT, k);
+			if (!better.anyTrue())
+				continue;
+			k.blend(alt, better).intoArray(key, v);
+			if (from != null)
+				DoubleVector.fromArray(SPECIES, from, v).blend(source, better).intoArray(from, v);
+		}
+		for (; v < length; v++) {
+			double alt = base + matrix[offset + v];
+			if (alt < key[v]) {
+				key[v] = alt;
+				if (from != null)
+					from[v] = source;
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package edu.tm1.krzyszof.jurkowski.zad1;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Zbiory rozłączne (union-find) bezpieczne dla wielu wątków
+ * <p>
+ * Wersja {@link DisjointSet} bez blokad: rodzice są zmieniani operacją compare-and-set.<br>
+ * Zamiast rangi korzeń o większym numerze jest zawsze podpinany pod korzeń o mniejszym,
+ * więc rodzic elementu nigdy nie ma większego numeru niż element i współbieżne łączenia nie tworzą cykli.
+ * Wyszukiwanie korzenia jest iteracyjne z połowieniem ścieżki.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.0
+ * @see DisjointSet
+ * @since 1.10
+ */
+public final class ConcurrentDisjointSet {
+	/**
+	 * Rodzice elementów (korzeń jest swoim rodzicem, rodzic ma numer nie większy od elementu)
+	 *
+	 * @since 1.0
+	 */
+	private final AtomicIntegerArray parent;
+
+	/**
+	 * Konstruktor
+	 * <p>
+	 * Każdy element tworzy osobny zbiór.
+	 * </p>
+	 *
+	 * @param n Liczba elementów
+	 * @throws IllegalArgumentException Liczba elementów jest ujemna
+	 * @since 1.0
+	 */
+	public ConcurrentDisjointSet(int n) {
+		if (n < 0)
+			throw new IllegalArgumentException("Size must not be negative");
+		parent = new AtomicIntegerArray(n);
+		for (int i = 0; i < n; i++)
+			parent.set(i, i);
+	}
+
+	/**
+	 * Wyszukuje reprezentanta zbioru
+	 * <p>
+	 * Wynik może być nieaktualny, jeżeli inny wątek w tym czasie łączy zbiór.
+	 * </p>
+	 *
+	 * @param x Element
+	 * @return Korzeń zbioru zawierającego element
+	 * @since 1.0
+	 */
+	public int find(int x) {
+		while (true) {
+			int p = parent.get(x);
+			if (p == x)
+				return x;
+			int g = parent.get(p);
+			if (g != p)
+				parent.compareAndSet(x, p, g);
+			x = p;
+		}
+	}
+
+	/**
+	 * Łączy zbiory zawierające dwa elementy
+	 *
+	 * @param a Pierwszy element
+	 * @param b Drugi element
+	 * @return Czy elementy były w różnych zbiorach (dokładnie jeden z wątków łączących te same zbiory dostaje <code>true</code>)
+	 * @since 1.0
+	 */
+	public boolean union(int a, int b) {
+		while (true) {
+			a = find(a);
+			b = find(b);
+			if (a == b)
+				return false;
+			if (a < b) {
+				int t = a;
+				a = b;
+				b = t;
+			}
+			if (parent.compareAndSet(a, a, b))
+				return true;
+		}
+	}
+
+	/**
+	 * Sprawdza, czy dwa elementy są w tym samym zbiorze
+	 *
+	 * @param a Pierwszy element
+	 * @param b Drugi element
+	 * @return Czy elementy są w tym samym zbiorze
+	 * @since 1.0
+	 */
+	public boolean connected(int a, int b) {
+		while (true) {
+			a = find(a);
+			b = find(b);
+			if (a == b)
+				return true;
+			if (parent.get(a) == a)
+				return false;
+		}
+	}
+
+	/**
+	 * Zwraca liczbę elementów
+	 *
+	 * @return Liczba elementów
+	 * @since 1.0
+	 */
+	public int size() {
+		return parent.length();
+	}
+}
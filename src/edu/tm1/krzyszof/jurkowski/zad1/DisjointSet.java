@@ -0,0 +1,135 @@
+package edu.tm1.krzyszof.jurkowski.zad1;
+
+/**
+ * Zbiory rozłączne (union-find)
+ * <p>
+ * Elementy są numerowane <code>0..n-1</code> (np. indeksami wierzchołków {@link Graph.Adjacency}).<br>
+ * Rodzice są przechowywani w tablicy prymitywnej, zbiory są łączone według rangi,
+ * a wyszukiwanie korzenia jest iteracyjne z połowieniem ścieżki,
+ * więc nawet bardzo długie łańcuchy nie przepełniają stosu.
+ * Zamortyzowany koszt operacji to O(α(n)).
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.0
+ * @since 1.10
+ */
+public final class DisjointSet {
+	/**
+	 * Rodzice elementów (korzeń jest swoim rodzicem)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] parent;
+	/**
+	 * Rangi korzeni (górne ograniczenie wysokości drzewa, nie przekracza log₂ n)
+	 *
+	 * @since 1.0
+	 */
+	private final byte[] rank;
+	/**
+	 * Liczba zbiorów
+	 *
+	 * @see #count() getter
+	 * @since 1.0
+	 */
+	private int count;
+
+	/**
+	 * Konstruktor
+	 * <p>
+	 * Każdy element tworzy osobny zbiór.
+	 * </p>
+	 *
+	 * @param n Liczba elementów
+	 * @throws IllegalArgumentException Liczba elementów jest ujemna
+	 * @since 1.0
+	 */
+	public DisjointSet(int n) {
+		if (n < 0)
+			throw new IllegalArgumentException("Size must not be negative");
+		parent = new int[n];
+		rank = new byte[n];
+		for (int i = 0; i < n; i++)
+			parent[i] = i;
+		count = n;
+	}
+
+	/**
+	 * Wyszukuje reprezentanta zbioru
+	 * <p>
+	 * Po drodze każdy odwiedzony element jest podpinany do swojego dziadka (połowienie ścieżki).
+	 * </p>
+	 *
+	 * @param x Element
+	 * @return Korzeń zbioru zawierającego element
+	 * @since 1.0
+	 */
+	public int find(int x) {
+		while (parent[x] != x) {
+			parent[x] = parent[parent[x]];
+			x = parent[x];
+		}
+		return x;
+	}
+
+	/**
+	 * Łączy zbiory zawierające dwa elementy
+	 * <p>
+	 * Korzeń o niższej randze jest podpinany pod korzeń o wyższej.
+	 * </p>
+	 *
+	 * @param a Pierwszy element
+	 * @param b Drugi element
+	 * @return Czy elementy były w różnych zbiorach
+	 * @since 1.0
+	 */
+	public boolean union(int a, int b) {
+		int ra = find(a), rb = find(b);
+		if (ra == rb)
+			return false;
+		if (rank[ra] < rank[rb]) {
+			int t = ra;
+			ra = rb;
+			rb = t;
+		}
+		parent[rb] = ra;
+		if (rank[ra] == rank[rb])
+			rank[ra]++;
+		count--;
+		return true;
+	}
+
+	/**
+	 * Sprawdza, czy dwa elementy są w tym samym zbiorze
+	 *
+	 * @param a Pierwszy element
+	 * @param b Drugi element
+	 * @return Czy elementy są w tym samym zbiorze
+	 * @since 1.0
+	 */
+	public boolean connected(int a, int b) {
+		return find(a) == find(b);
+	}
+
+	/**
+	 * Zwraca liczbę elementów
+	 *
+	 * @return Liczba elementów
+	 * @since 1.0
+	 */
+	public int size() {
+		return parent.length;
+	}
+
+	/**
+	 * Zwraca liczbę zbiorów
+	 *
+	 * @return Liczba zbiorów
+	 * @see #count
+	 * @since 1.0
+	 */
+	public int count() {
+		return count;
+	}
+}
@@ -9,10 +9,13 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 /**
  * Graf nieskierowany z wagami
@@ -22,11 +25,29 @@ import java.util.regex.Pattern;
  * </p>
  *
  * @author Krzysztof Jurkowski
- * @version 1.5
+ * @version 1.14
  * @since zad1
  */
 @SuppressWarnings("unused")
 public class Graph {
+	/**
+	 * Najmniejszy stosunek liczby krawędzi do liczby par wierzchołków, przy którym tryb {@link STORAGE#AUTO} włącza macierz wag
+	 *
+	 * @since 1.9
+	 */
+	public static final double MATRIX_DENSITY = 0.25;
+	/**
+	 * Największa liczba identyfikatorów, dla której tryb {@link STORAGE#AUTO} włącza macierz wag (macierz 64 MiB)
+	 *
+	 * @since 1.9
+	 */
+	public static final int MATRIX_LIMIT = 4096;
+	/**
+	 * Największa liczba identyfikatorów macierzy wag trybu {@link STORAGE#MATRIX} (ograniczenie rozmiaru tablicy)
+	 *
+	 * @since 1.9
+	 */
+	private static final int MATRIX_ORDER = 65535;
 	/**
 	 * Wierzchołki grafu
 	 *
@@ -39,19 +60,90 @@ public class Graph {
 	 * @since 1.0
 	 */
 	protected final Edges edges;
+	/**
+	 * Licznik modyfikacji grafu
+	 * <p>
+	 * Zwiększany przy każdej zmianie wierzchołków, krawędzi lub wag.<br>
+	 * Pozwala wykryć nieaktualne dane wyliczone wcześniej (np. tablice punktów orientacyjnych).<br>
+	 * Zmiana współrzędnych wierzchołków go nie zwiększa - nie wpływa na odległości w grafie.
+	 * </p>
+	 *
+	 * @see #getRevision() getter
+	 * @since 1.6
+	 */
+	private long revision;
+	/**
+	 * Zbuforowana tablicowa reprezentacja sąsiedztwa
+	 *
+	 * @see #adjacency()
+	 * @since 1.6
+	 */
+	private Adjacency adjacency;
+	/**
+	 * Czy zbuforowana reprezentacja sąsiedztwa została udostępniona jako migawka
+	 * <p>
+	 * Udostępnionej reprezentacji nie wolno zmieniać w miejscu.
+	 * </p>
+	 *
+	 * @see #snapshot()
+	 * @since 1.7
+	 */
+	private boolean shared;
+	/**
+	 * Sposób przechowywania krawędzi
+	 *
+	 * @see #getStorage() getter
+	 * @since 1.9
+	 */
+	private final STORAGE storage;
+	/**
+	 * Macierz wag krawędzi indeksowana identyfikatorami wierzchołków (<code>null</code>, jeśli nieużywana)
+	 * <p>
+	 * Przechowywany jest tylko trójkąt górny z przekątną: para <code>a &lt;= b</code> leży w komórce {@link #cell(int, int)}.<br>
+	 * Brak krawędzi oznacza NaN. Przekątna oznacza istnienie wierzchołka (0 - istnieje, NaN - brak),
+	 * pętle własne są przechowywane tylko na liście krawędzi.
+	 * </p>
+	 *
+	 * @see STORAGE
+	 * @since 1.9
+	 */
+	private double[] matrix;
+	/**
+	 * Liczba identyfikatorów objętych macierzą wag (<code>0..order-1</code>)
+	 *
+	 * @since 1.9
+	 */
+	private int order;
 
 	/**
 	 * Konstruktor klasy Graph
 	 * <p>
 	 * Tworzy nowy graf nieskierowany z wagami.<br>
 	 * Inicjalizuje wewnętrzne struktury danych.
+	 * Macierz wag jest włączana automatycznie ({@link STORAGE#AUTO}).
 	 * </p>
 	 *
 	 * @since 1.0
 	 */
 	public Graph() {
+		this(STORAGE.AUTO);
+	}
+
+	/**
+	 * Konstruktor klasy Graph
+	 * <p>
+	 * Tworzy nowy graf nieskierowany z wagami z wybranym sposobem przechowywania krawędzi.
+	 * </p>
+	 *
+	 * @param storage Sposób przechowywania krawędzi
+	 * @since 1.9
+	 */
+	public Graph(@NotNull STORAGE storage) {
 		vertices = new Vertices();
 		edges = new Edges();
+		this.storage = storage;
+		if (storage == STORAGE.MATRIX)
+			matrix = new double[0];
 	}
 
 	/**
@@ -67,6 +159,9 @@ public class Graph {
 	public Graph(@NotNull Graph graph) {
 		vertices = new Vertices(graph.vertices);
 		edges = new Edges(graph.edges);
+		storage = graph.storage;
+		matrix = graph.matrix == null ? null : graph.matrix.clone();
+		order = graph.order;
 	}
 
 	/**
@@ -89,9 +184,10 @@ public class Graph {
 			}
 
 			class Match {
-				final Pattern yaml = Pattern.compile("(?<key>\\w): (?<value>.+)");
+				final Pattern yaml = Pattern.compile("(?<key>\\w+): (?<value>.+)");
 				final Pattern vertex = Pattern.compile("(?<id>\\d+)\\(\"(?<name>.*)\"\\)");
-				final Pattern edge = Pattern.compile("(?<v1>\\d+) ---\\|(?<weight>\\d+\\.?\\d*)\\| (?<v2>\\d+)");
+				final Pattern edge = Pattern.compile("(?<v1>\\d+) (?:---|===)\\|(?<weight>\\d+\\.?\\d*(?:E-?\\d+)?)\\| (?<v2>\\d+)");
+				final Pattern coordinates = Pattern.compile("%% xy (?<id>\\d+) (?<x>\\S+) (?<y>\\S+)");
 
 				void yaml(String line) {
 					Matcher m = yaml.matcher(line);
@@ -126,7 +222,19 @@ public class Graph {
 					}
 					Integer id = Integer.parseInt(m.group("id"));
 					System.out.printf("\tVertex: %d(%s)\n", id, m.group("name"));
-					graph.vertices.vertices.add(graph.vertices.new Vertex(id, m.group("name")));
+					graph.vertices.add(graph.vertices.new Vertex(id, m.group("name")));
+				}
+
+				void coordinates(String line) {
+					Matcher m = coordinates.matcher(line);
+					if (!m.matches())
+						return;
+					Integer id = Integer.parseInt(m.group("id"));
+					if (!graph.vertices.exists(id)) {
+						System.err.printf("[ERR]Coordinates of unknown vertex: %s\n", line);
+						return;
+					}
+					graph.vertices.setCoordinates(id, Double.parseDouble(m.group("x")), Double.parseDouble(m.group("y")));
 				}
 
 				void edge(String line) {
@@ -149,6 +257,7 @@ public class Graph {
 
 			System.out.println("Reading graph...\n");
 			while ((line = reader.readLine()) != null) {
+				line = line.strip();
 				switch (stage) {
 					case start -> {
 						if (line.startsWith("%% "))
@@ -181,20 +290,29 @@ public class Graph {
 						System.err.printf("[ERR]Unknown line: %s\n", line);
 					}
 					case vertices -> {
-						if (line.startsWith("%% "))
+						if (line.isEmpty())
 							break;
+						if (line.startsWith("%% ")) {
+							match.coordinates(line);
+							break;
+						}
 
 						if (line.matches(match.edge.pattern())) {
 							stage = Stage.edges;
 							System.out.println("Vertices read!\n\nReading edges...");
-							continue;
+							match.edge(line);
+							break;
 						}
 
 						match.vertex(line);
 					}
 					case edges -> {
-						if (line.startsWith("%% "))
+						if (line.isEmpty() || line.equals("}"))
 							break;
+						if (line.startsWith("%% ")) {
+							match.coordinates(line);
+							break;
+						}
 
 						if (line.matches(match.vertex.pattern())) {
 							System.err.println("[WARN]Vertex found in edges section");
@@ -470,8 +588,370 @@ public class Graph {
 		edges.edit(v1, v2, weight);
 	}
 
+	/**
+	 * Ustawia współrzędne wierzchołka.
+	 *
+	 * @param id Identyfikator wierzchołka
+	 * @param x  Współrzędna x
+	 * @param y  Współrzędna y
+	 * @see Vertices#setCoordinates(Integer, Double, Double)
+	 * @since 1.6
+	 */
+	public void setVertexCoordinates(@NotNull Integer id, @NotNull Double x, @NotNull Double y) {
+		vertices.setCoordinates(id, x, y);
+	}
+
+	/**
+	 * Sprawdza, czy wierzchołek ma współrzędne.
+	 *
+	 * @param id Identyfikator wierzchołka
+	 * @return Czy wierzchołek ma współrzędne
+	 * @see Vertices#hasCoordinates(Integer)
+	 * @since 1.6
+	 */
+	public boolean hasVertexCoordinates(@NotNull Integer id) {
+		return vertices.hasCoordinates(id);
+	}
+
+	/**
+	 * Zwraca współrzędną x wierzchołka.
+	 *
+	 * @param id Identyfikator wierzchołka
+	 * @return Współrzędna x lub null, jeśli wierzchołek nie ma współrzędnych
+	 * @see Vertices#getX(Integer)
+	 * @since 1.6
+	 */
+	public Double getVertexX(@NotNull Integer id) {
+		return vertices.getX(id);
+	}
+
+	/**
+	 * Zwraca współrzędną y wierzchołka.
+	 *
+	 * @param id Identyfikator wierzchołka
+	 * @return Współrzędna y lub null, jeśli wierzchołek nie ma współrzędnych
+	 * @see Vertices#getY(Integer)
+	 * @since 1.6
+	 */
+	public Double getVertexY(@NotNull Integer id) {
+		return vertices.getY(id);
+	}
+
+	/**
+	 * Zwraca licznik modyfikacji grafu.
+	 *
+	 * @return Licznik modyfikacji
+	 * @see #revision
+	 * @since 1.6
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Zwraca tablicową reprezentację sąsiedztwa grafu.
+	 * <p>
+	 * Reprezentacja jest budowana leniwie i buforowana do następnej zmiany struktury grafu.<br>
+	 * Zmiana wagi krawędzi aktualizuje bufor w miejscu, bez przebudowy (chyba że został udostępniony przez {@link #snapshot()}).
+	 * </p>
+	 *
+	 * @return Reprezentacja sąsiedztwa
+	 * @see Adjacency
+	 * @since 1.6
+	 */
+	protected @NotNull Adjacency adjacency() {
+		if (adjacency == null) {
+			adjacency = new Adjacency(vertices, edges);
+			shared = false;
+		}
+		return adjacency;
+	}
+
+	/**
+	 * Zwraca niezmienną migawkę reprezentacji sąsiedztwa grafu.
+	 * <p>
+	 * Migawka jest współdzielona z buforem, dopóki graf się nie zmieni;
+	 * po udostępnieniu zmiana wagi krawędzi odrzuca bufor zamiast aktualizować go w miejscu,
+	 * więc migawka może być bezpiecznie czytana przez inne wątki.
+	 * </p>
+	 *
+	 * @return Reprezentacja sąsiedztwa, która nie będzie już zmieniana
+	 * @see #adjacency()
+	 * @since 1.7
+	 */
+	protected @NotNull Adjacency snapshot() {
+		Adjacency snapshot = adjacency();
+		shared = true;
+		return snapshot;
+	}
+
+	/**
+	 * Odnotowuje modyfikację grafu.
+	 *
+	 * @param structural Czy zmieniła się struktura grafu (wierzchołki lub krawędzie)
+	 * @since 1.6
+	 */
+	private void modified(boolean structural) {
+		revision++;
+		if (structural) {
+			adjacency = null;
+			if (storage == STORAGE.AUTO)
+				balance();
+		}
+	}
+
+	/**
+	 * Odnotowuje zmianę współrzędnych wierzchołka.
+	 * <p>
+	 * Nie zmienia licznika modyfikacji: punkty orientacyjne i hierarchia skrótów pozostają aktualne,
+	 * a zbuforowana reprezentacja sąsiedztwa jest poprawiana w miejscu (chyba że została udostępniona przez {@link #snapshot()}).
+	 * </p>
+	 *
+	 * @param id Identyfikator wierzchołka
+	 * @param x  Współrzędna x
+	 * @param y  Współrzędna y
+	 * @since 1.14
+	 */
+	private void relocated(@NotNull Integer id, double x, double y) {
+		if (adjacency == null)
+			return;
+		if (shared)
+			adjacency = null;
+		else
+			adjacency.setCoordinates(adjacency.index(id), x, y);
+	}
+
+	/**
+	 * Zwraca identyfikatory wierzchołków.
+	 *
+	 * @return Identyfikatory w kolejności dodania wierzchołków (kolejność tablic zwracanych przez graf)
+	 * @see Vertices#getIds()
+	 * @since 1.10
+	 */
+	public int @NotNull [] getVertexIds() {
+		return vertices.ids.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Wyznacza spójne składowe grafu.
+	 *
+	 * @return Numery składowych wierzchołków
+	 * @see #getComponents(ForkJoinPool)
+	 * @since 1.10
+	 */
+	public int @NotNull [] getComponents() {
+		return getComponents(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Wyznacza spójne składowe grafu w podanej puli wątków.
+	 * <p>
+	 * Krawędzie są równolegle łączone we współbieżnych zbiorach rozłącznych,
+	 * a następnie każdy wierzchołek równolegle odczytuje korzeń swojego zbioru.<br>
+	 * Składowe są numerowane <code>0..C-1</code> w kolejności pierwszych wierzchołków,
+	 * więc wynik nie zależy od liczby wątków.
+	 * </p>
+	 *
+	 * @param pool Pula wątków
+	 * @return Numery składowych wierzchołków w kolejności {@link #getVertexIds()}
+	 * @see ConcurrentDisjointSet
+	 * @since 1.10
+	 */
+	public int @NotNull [] getComponents(@NotNull ForkJoinPool pool) {
+		Adjacency adjacency = adjacency();
+		int n = adjacency.size();
+		ConcurrentDisjointSet sets = new ConcurrentDisjointSet(n);
+		int[] component = new int[n];
+		pool.submit(() -> {
+			IntStream.range(0, adjacency.edgeCount()).parallel().forEach(e -> sets.union(adjacency.edgeU(e), adjacency.edgeV(e)));
+			IntStream.range(0, n).parallel().forEach(v -> component[v] = sets.find(v));
+		}).join();
+		int[] number = new int[n];
+		int count = 0;
+		for (int v = 0; v < n; v++)
+			if (component[v] == v)
+				number[v] = count++;
+		pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> component[v] = number[component[v]])).join();
+		return component;
+	}
+
+	/**
+	 * Zwraca sposób przechowywania krawędzi.
+	 *
+	 * @return Sposób przechowywania krawędzi
+	 * @see #storage
+	 * @since 1.9
+	 */
+	public @NotNull STORAGE getStorage() {
+		return storage;
+	}
+
+	/**
+	 * Sprawdza, czy krawędzie są aktualnie przechowywane także w macierzy wag.
+	 *
+	 * @return Czy macierz wag jest używana
+	 * @see #matrix
+	 * @since 1.9
+	 */
+	public boolean hasMatrix() {
+		return matrix != null;
+	}
+
+	/**
+	 * Zwraca macierz wag do odczytu przez algorytmy trybu gęstego.
+	 *
+	 * @return Macierz wag w układzie {@link #cell(int, int)} (nie wolno jej zmieniać; <code>null</code>, jeśli nieużywana)
+	 * @see #matrix
+	 * @since 1.13
+	 */
+	protected double[] matrix() {
+		return matrix;
+	}
+
+	/**
+	 * Zwraca liczbę identyfikatorów objętych macierzą wag.
+	 *
+	 * @return Liczba identyfikatorów (<code>0..order-1</code>; 0, jeśli macierz nie jest używana)
+	 * @see #order
+	 * @since 1.13
+	 */
+	protected int order() {
+		return order;
+	}
+
+	/**
+	 * Zwraca indeks komórki macierzy wag.
+	 *
+	 * @param a Identyfikator pierwszego wierzchołka
+	 * @param b Identyfikator drugiego wierzchołka
+	 * @return Indeks komórki <code>b(b+1)/2 + a</code> dla <code>a &lt;= b</code> (kolejne wiersze są dopisywane na końcu)
+	 * @since 1.9
+	 */
+	private static int cell(int a, int b) {
+		return a <= b ? (int) ((long) b * (b + 1) / 2 + a) : (int) ((long) a * (a + 1) / 2 + b);
+	}
+
+	/**
+	 * Sprawdza w macierzy wag, czy wierzchołek istnieje.
+	 *
+	 * @param id Identyfikator wierzchołka
+	 * @return Czy wierzchołek istnieje
+	 * @since 1.9
+	 */
+	private boolean placed(int id) {
+		return id >= 0 && id < order && matrix[cell(id, id)] == 0.0;
+	}
+
+	/**
+	 * Odczytuje wagę krawędzi z macierzy wag.
+	 *
+	 * @param v1 Identyfikator pierwszego wierzchołka
+	 * @param v2 Identyfikator drugiego wierzchołka
+	 * @return Waga krawędzi (NaN, jeśli krawędź nie istnieje)
+	 * @since 1.9
+	 */
+	private double weight(int v1, int v2) {
+		return v1 >= 0 && v2 >= 0 && v1 < order && v2 < order ? matrix[cell(v1, v2)] : Double.NaN;
+	}
+
+	/**
+	 * Zapisuje komórkę macierzy wag, jeśli jest używana.
+	 *
+	 * @param v1     Identyfikator pierwszego wierzchołka
+	 * @param v2     Identyfikator drugiego wierzchołka
+	 * @param weight Waga krawędzi (NaN - brak krawędzi; na przekątnej 0 - wierzchołek istnieje)
+	 * @since 1.9
+	 */
+	private void store(int v1, int v2, double weight) {
+		if (matrix == null)
+			return;
+		if (Math.max(v1, v2) >= order && (Double.isNaN(weight) || !reserve(Math.max(v1, v2))))
+			return;
+		matrix[cell(v1, v2)] = weight;
+	}
+
+	/**
+	 * Powiększa macierz wag tak, by obejmowała podany identyfikator.
+	 * <p>
+	 * Liczba objętych identyfikatorów rośnie co najmniej dwukrotnie, więc kolejne wierzchołki nie kopiują macierzy za każdym razem.<br>
+	 * Jeżeli identyfikator nie mieści się w macierzy,
+	 * tryb {@link STORAGE#AUTO} wraca do samej listy krawędzi, a tryb {@link STORAGE#MATRIX} zgłasza wyjątek.
+	 * </p>
+	 *
+	 * @param id Identyfikator wierzchołka
+	 * @return Czy macierz obejmuje identyfikator
+	 * @throws IllegalStateException Identyfikator nie mieści się w macierzy trybu {@link STORAGE#MATRIX}
+	 * @since 1.9
+	 */
+	private boolean reserve(int id) {
+		int limit = storage == STORAGE.MATRIX ? MATRIX_ORDER : MATRIX_LIMIT;
+		if (id < 0 || id >= limit) {
+			if (storage == STORAGE.MATRIX)
+				throw new IllegalStateException(String.format("Vertex id %d does not fit in the adjacency matrix", id));
+			matrix = null;
+			order = 0;
+			return false;
+		}
+		int length = matrix.length;
+		order = (int) Math.min(limit, Math.max(id + 1, 2L * order));
+		matrix = Arrays.copyOf(matrix, cell(0, order));
+		Arrays.fill(matrix, length, matrix.length, Double.NaN);
+		return true;
+	}
+
+	/**
+	 * Włącza lub wyłącza macierz wag w trybie {@link STORAGE#AUTO}.
+	 * <p>
+	 * Macierz jest budowana, gdy liczba krawędzi osiągnie {@link #MATRIX_DENSITY} liczby par wierzchołków,
+	 * a odrzucana, gdy spadnie poniżej połowy tego progu, więc graf na granicy nie przełącza się przy każdej zmianie.
+	 * </p>
+	 *
+	 * @since 1.9
+	 */
+	private void balance() {
+		long n = vertices.ids.size();
+		double pairs = n * (n - 1) / 2.0;
+		int count = edges.edges.size();
+		if (matrix == null && n > 1 && count >= MATRIX_DENSITY * pairs)
+			build();
+		else if (matrix != null && count < MATRIX_DENSITY / 2 * pairs) {
+			matrix = null;
+			order = 0;
+		}
+	}
+
+	/**
+	 * Buduje macierz wag z list wierzchołków i krawędzi.
+	 * <p>
+	 * Przy krawędziach równoległych zapisywana jest pierwsza z listy, tak jak w odczycie z listy.
+	 * </p>
+	 *
+	 * @since 1.9
+	 */
+	private void build() {
+		int max = -1;
+		for (Integer id: vertices.ids) {
+			if (id < 0 || id >= MATRIX_LIMIT)
+				return;
+			max = Math.max(max, id);
+		}
+		order = max + 1;
+		matrix = new double[cell(0, order)];
+		Arrays.fill(matrix, Double.NaN);
+		for (Integer id: vertices.ids)
+			matrix[cell(id, id)] = 0.0;
+		for (Edges.Edge e: edges.edges) {
+			int c = cell(e.v1, e.v2);
+			if (!e.v1.equals(e.v2) && Double.isNaN(matrix[c]))
+				matrix[c] = e.weight;
+		}
+	}
+
 	/**
 	 * Zapis grafu do pliku
+	 * <p>
+	 * Współrzędne wierzchołków są dopisywane jako komentarze ({@link #coordinates()}).
+	 * </p>
 	 *
 	 * @param name nazwa pliku
 	 * @throws IOException błąd zapisu
@@ -487,11 +967,30 @@ public class Graph {
 					zad: 1
 					---
 					%s
-					""", name, mermaid(MERMAID.GRAPH));
+					%s""", name, mermaid(MERMAID.GRAPH), coordinates());
 			writer.write(s);
 		}
 	}
 
+	/**
+	 * Zwraca współrzędne wierzchołków w postaci komentarzy Mermaid
+	 * <p>
+	 * Jedna linia <code>%% xy id x y</code> na każdy wierzchołek ze współrzędnymi.
+	 * Wartości są zapisywane dokładnie, więc wyszukiwanie A* po wczytaniu grafu korzysta z tej samej geometrii.
+	 * </p>
+	 *
+	 * @return Linie ze współrzędnymi (pusty tekst, jeśli żaden wierzchołek ich nie ma)
+	 * @see #save(String)
+	 * @since 1.12
+	 */
+	protected @NotNull String coordinates() {
+		StringBuilder sb = new StringBuilder();
+		for (Vertices.Vertex v: vertices.getVertices())
+			if (v.hasCoordinates())
+				sb.append("\t%% xy ").append(v.getId()).append(' ').append(v.getX()).append(' ').append(v.getY()).append('\n');
+		return sb.toString();
+	}
+
 	/**
 	 * Tryby dla funkcji {@link #mermaid(MERMAID)}
 	 *
@@ -503,11 +1002,34 @@ public class Graph {
 		VERTICES, EDGES, GRAPH
 	}
 
+	/**
+	 * Sposoby przechowywania krawędzi dla konstruktora {@link #Graph(STORAGE)}
+	 * <p>
+	 * Lista krawędzi jest przechowywana zawsze (wyznacza kolejność krawędzi i zapis Mermaid).<br>
+	 * Macierz wag jest przechowywana obok niej: {@link #existsEdge(Integer, Integer)}, {@link #getEdgeWeight(Integer, Integer)}
+	 * i {@link #existsVertex(Integer)} stają się wtedy pojedynczym odczytem tablicy zamiast przeglądania listy.
+	 * Macierz zajmuje O(V²) pamięci względem największego identyfikatora wierzchołka.
+	 * </p>
+	 * <ul>
+	 *     <li>{@link #LIST} - tylko lista krawędzi</li>
+	 *     <li>{@link #MATRIX} - lista krawędzi i macierz wag</li>
+	 *     <li>{@link #AUTO} - macierz wag włączana, gdy graf jest gęsty (co najmniej {@link #MATRIX_DENSITY} par wierzchołków połączonych,
+	 *     najwyżej {@link #MATRIX_LIMIT} identyfikatorów)</li>
+	 * </ul>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @since 1.9
+	 */
+	public enum STORAGE {
+		LIST, MATRIX, AUTO
+	}
+
 	/**
 	 * Klasa wewnętrzna reprezentująca wierzchołki grafu.
 	 *
 	 * @author Krzysztof Jurkowski
-	 * @version 1.4
+	 * @version 1.7
 	 * @since 1.0
 	 */
 	protected class Vertices {
@@ -542,15 +1064,20 @@ public class Graph {
 		/**
 		 * Konstruktor klasy Vertices
 		 * <p>
-		 * Kopiuje wierzchołki z innego obiektu Vertices.
+		 * Kopiuje wierzchołki z innego obiektu Vertices.<br>
+		 * Wierzchołki są kopiowane głęboko, więc zmiany w kopii nie wpływają na oryginał.
 		 * </p>
 		 *
 		 * @param vertices obiekt {@link Vertices} do skopiowania
+		 * @see Vertex#Vertex(Vertex)
 		 * @since 1.2
 		 */
 		public Vertices(@NotNull Vertices vertices) {
 			this.ids = new ArrayList<>(vertices.ids);
-			this.vertices = new ArrayList<>(vertices.vertices);
+			this.vertices = new ArrayList<>(vertices.vertices.size());
+			for (Vertex v: vertices.vertices) {
+				this.vertices.add(new Vertex(v));
+			}
 		}
 
 		/**
@@ -564,6 +1091,8 @@ public class Graph {
 			Integer id = ids.isEmpty() ? 1 : ids.getLast() + 1;
 			vertices.add(new Vertex(id));
 			ids.add(id);
+			mark(id, true);
+			modified();
 			return id;
 		}
 
@@ -595,6 +1124,8 @@ public class Graph {
 			Integer id = ids.isEmpty() ? 1 : ids.getLast() + 1;
 			vertices.add(new Vertex(id, name));
 			ids.add(id);
+			mark(id, true);
+			modified();
 			return id;
 		}
 
@@ -628,6 +1159,21 @@ public class Graph {
 			edges.removeAll(id);
 			ids.removeIf(i -> i.equals(id));
 			vertices.removeIf(v -> v.equals(id));
+			mark(id, false);
+			modified();
+		}
+
+		/**
+		 * Dodaje gotowy wierzchołek (np. wczytany z pliku).
+		 *
+		 * @param vertex Wierzchołek utworzony dla tej listy
+		 * @since 1.6
+		 */
+		public void add(@NotNull Vertex vertex) {
+			vertices.add(vertex);
+			ids.add(vertex.getId());
+			mark(vertex.getId(), true);
+			modified();
 		}
 
 		/**
@@ -669,6 +1215,8 @@ public class Graph {
 		 * @since 1.0
 		 */
 		public boolean exists(@NotNull Integer id) {
+			if (this == Graph.this.vertices && matrix != null)
+				return placed(id);
 			for (Integer i: ids) {
 				if (i.equals(id)) {
 					return true;
@@ -724,34 +1272,130 @@ public class Graph {
 		}
 
 		/**
-		 * Klasa wewnętrzna reprezentująca wierzchołek grafu.
+		 * Ustawia współrzędne wierzchołka.
+		 * <p>
+		 * Nie zwiększa licznika modyfikacji grafu ({@link Graph#getRevision()}).
+		 * </p>
 		 *
-		 * @author Krzysztof Jurkowski
-		 * @version 1.3
-		 * @since 1.0
+		 * @param id Identyfikator wierzchołka
+		 * @param x  Współrzędna x
+		 * @param y  Współrzędna y
+		 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+		 * @since 1.5
 		 */
-		public class Vertex {
-			/**
-			 * Identyfikator wierzchołka
-			 *
-			 * @see #getId() getter
-			 * @since 1.0
-			 */
-			private final @NotNull Integer id;
-			/**
-			 * Nazwa wierzchołka
-			 *
-			 * @see #getName() getter
-			 * @see #setName(String)  setter
-			 * @since 1.0
-			 */
-			protected String name;
+		public void setCoordinates(@NotNull Integer id, @NotNull Double x, @NotNull Double y) {
+			vertices.stream().filter(v -> v.equals(id)).findFirst().orElseThrow(() -> new NoSuchElementException(String.format("No vertex found with id %d", id))).setCoordinates(x, y);
+			if (this == Graph.this.vertices)
+				relocated(id, x, y);
+		}
 
-			/**
-			 * Konstruktor nienazwanego wierzchołka
-			 * <p>
-			 * Tworzy nowy wierzchołek o podanym id.<br>
-			 * Nazwa wierzchołka jest równa id.
+		/**
+		 * Sprawdza, czy wierzchołek ma współrzędne.
+		 *
+		 * @param id Identyfikator wierzchołka
+		 * @return Czy wierzchołek ma współrzędne
+		 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+		 * @since 1.5
+		 */
+		public boolean hasCoordinates(@NotNull Integer id) {
+			return vertices.stream().filter(v -> v.equals(id)).findFirst().orElseThrow(() -> new NoSuchElementException(String.format("No vertex found with id %d", id))).hasCoordinates();
+		}
+
+		/**
+		 * Zwraca współrzędną x wierzchołka.
+		 *
+		 * @param id Identyfikator wierzchołka
+		 * @return Współrzędna x lub null
+		 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+		 * @since 1.5
+		 */
+		public Double getX(@NotNull Integer id) {
+			return vertices.stream().filter(v -> v.equals(id)).findFirst().orElseThrow(() -> new NoSuchElementException(String.format("No vertex found with id %d", id))).getX();
+		}
+
+		/**
+		 * Zwraca współrzędną y wierzchołka.
+		 *
+		 * @param id Identyfikator wierzchołka
+		 * @return Współrzędna y lub null
+		 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+		 * @since 1.5
+		 */
+		public Double getY(@NotNull Integer id) {
+			return vertices.stream().filter(v -> v.equals(id)).findFirst().orElseThrow(() -> new NoSuchElementException(String.format("No vertex found with id %d", id))).getY();
+		}
+
+		/**
+		 * Odnotowuje modyfikację wierzchołków grafu.
+		 * <p>
+		 * Dotyczy tylko wierzchołków samego grafu, a nie pomocniczych kopii.
+		 * </p>
+		 *
+		 * @since 1.5
+		 */
+		private void modified() {
+			if (this == Graph.this.vertices)
+				Graph.this.modified(true);
+		}
+
+		/**
+		 * Odnotowuje istnienie wierzchołka w macierzy wag grafu.
+		 *
+		 * @param id      Identyfikator wierzchołka
+		 * @param present Czy wierzchołek istnieje
+		 * @see Graph#matrix
+		 * @since 1.6
+		 */
+		private void mark(@NotNull Integer id, boolean present) {
+			if (this == Graph.this.vertices)
+				store(id, id, present ? 0.0 : Double.NaN);
+		}
+
+		/**
+		 * Klasa wewnętrzna reprezentująca wierzchołek grafu.
+		 *
+		 * @author Krzysztof Jurkowski
+		 * @version 1.4
+		 * @since 1.0
+		 */
+		public class Vertex {
+			/**
+			 * Identyfikator wierzchołka
+			 *
+			 * @see #getId() getter
+			 * @since 1.0
+			 */
+			private final @NotNull Integer id;
+			/**
+			 * Nazwa wierzchołka
+			 *
+			 * @see #getName() getter
+			 * @see #setName(String)  setter
+			 * @since 1.0
+			 */
+			protected String name;
+			/**
+			 * Współrzędna x wierzchołka (null, jeśli wierzchołek nie ma współrzędnych)
+			 *
+			 * @see #getX() getter
+			 * @see #setCoordinates(Double, Double) setter
+			 * @since 1.4
+			 */
+			protected Double x;
+			/**
+			 * Współrzędna y wierzchołka (null, jeśli wierzchołek nie ma współrzędnych)
+			 *
+			 * @see #getY() getter
+			 * @see #setCoordinates(Double, Double) setter
+			 * @since 1.4
+			 */
+			protected Double y;
+
+			/**
+			 * Konstruktor nienazwanego wierzchołka
+			 * <p>
+			 * Tworzy nowy wierzchołek o podanym id.<br>
+			 * Nazwa wierzchołka jest równa id.
 			 * </p>
 			 *
 			 * @param id Identyfikator wierzchołka
@@ -783,6 +1427,22 @@ public class Graph {
 				this.name = name;
 			}
 
+			/**
+			 * Konstruktor kopiujący
+			 * <p>
+			 * Tworzy kopię wierzchołka z innego grafu (identyfikator, nazwa i współrzędne).
+			 * </p>
+			 *
+			 * @param vertex Wierzchołek do skopiowania
+			 * @since 1.4
+			 */
+			public Vertex(@NotNull Vertex vertex) {
+				this.id = vertex.id;
+				this.name = vertex.name;
+				this.x = vertex.x;
+				this.y = vertex.y;
+			}
+
 			/**
 			 * Zwraca nazwę wierzchołka.
 			 *
@@ -816,6 +1476,52 @@ public class Graph {
 				return id;
 			}
 
+			/**
+			 * Ustawia współrzędne wierzchołka.
+			 *
+			 * @param x Współrzędna x
+			 * @param y Współrzędna y
+			 * @see #x
+			 * @see #y
+			 * @since 1.4
+			 */
+			public void setCoordinates(@NotNull Double x, @NotNull Double y) {
+				this.x = x;
+				this.y = y;
+			}
+
+			/**
+			 * Sprawdza, czy wierzchołek ma współrzędne.
+			 *
+			 * @return Czy wierzchołek ma współrzędne
+			 * @since 1.4
+			 */
+			public boolean hasCoordinates() {
+				return x != null && y != null;
+			}
+
+			/**
+			 * Zwraca współrzędną x wierzchołka.
+			 *
+			 * @return Współrzędna x lub null
+			 * @see #x
+			 * @since 1.4
+			 */
+			public Double getX() {
+				return x;
+			}
+
+			/**
+			 * Zwraca współrzędną y wierzchołka.
+			 *
+			 * @return Współrzędna y lub null
+			 * @see #y
+			 * @since 1.4
+			 */
+			public Double getY() {
+				return y;
+			}
+
 			/**
 			 * Sprawdza, czy wierzchołek ma podany id.
 			 *
@@ -847,7 +1553,7 @@ public class Graph {
 	 * Klasa wewnętrzna reprezentująca krawędzie grafu.
 	 *
 	 * @author Krzysztof Jurkowski
-	 * @version 1.3
+	 * @version 1.5
 	 * @since 1.0
 	 */
 	protected class Edges {
@@ -874,15 +1580,19 @@ public class Graph {
 		/**
 		 * Konstruktor klasy Edges
 		 * <p>
-		 * Kopiuje krawędzie z innego obiektu Edges.
+		 * Kopiuje krawędzie z innego obiektu Edges.<br>
+		 * Krawędzie są kopiowane głęboko, więc zmiana wagi w kopii nie wpływa na oryginał.
 		 * </p>
 		 *
 		 * @param edges Krawędzie do skopiowania
-		 * @see #create(Integer, Integer, Double)
+		 * @see Edge#Edge(Edge)
 		 * @since 1.1
 		 */
 		public Edges(@NotNull Edges edges) {
-			this.edges = new ArrayList<>(edges.edges);
+			this.edges = new ArrayList<>(edges.edges.size());
+			for (Edge e: edges.edges) {
+				this.edges.add(new Edge(e));
+			}
 		}
 
 		/**
@@ -901,6 +1611,9 @@ public class Graph {
 			if (!vertices.exists(v1) || !vertices.exists(v2))
 				throw new NoSuchElementException(String.format("Vertices %d and %d must exist", v1, v2));
 			edges.add(new Edge(v1, v2, weight));
+			if (!v1.equals(v2))
+				mark(v1, v2, weight);
+			modified(true);
 		}
 
 		/**
@@ -934,6 +1647,11 @@ public class Graph {
 			if (!exists(v1, v2))
 				throw new NoSuchElementException(String.format("Edge between %d and %d does not exist", v1, v2));
 			edges.removeIf(e -> e.connects(v1, v2));
+			if (v1.equals(v2))
+				clear(v1);
+			else
+				mark(v1, v2, Double.NaN);
+			modified(true);
 		}
 
 		/**
@@ -947,6 +1665,8 @@ public class Graph {
 			if (!vertices.exists(id))
 				throw new NoSuchElementException(String.format("Vertex %d must exist", id));
 			edges.removeIf(e -> e.connects(id));
+			clear(id);
+			modified(true);
 		}
 
 		public void removeAll(@NotNull Integer @NotNull ... ids) {
@@ -985,6 +1705,8 @@ public class Graph {
 		public boolean exists(@NotNull Integer v1, @NotNull Integer v2) {
 			if (!vertices.exists(v1) || !vertices.exists(v2))
 				throw new NoSuchElementException(String.format("Vertices %d and %d must exist", v1, v2));
+			if (indexed(v1, v2))
+				return !Double.isNaN(weight(v1, v2));
 			return edges.stream().anyMatch(e -> e.connects(v1, v2));
 		}
 
@@ -1012,6 +1734,12 @@ public class Graph {
 		 * @since 1.0
 		 */
 		public @NotNull Double getWeight(@NotNull Integer v1, @NotNull Integer v2) {
+			if (indexed(v1, v2)) {
+				double weight = weight(v1, v2);
+				if (Double.isNaN(weight))
+					throw new NoSuchElementException(String.format("No edge found between %d and %d", v1, v2));
+				return weight;
+			}
 			return edges.stream().filter(e -> e.connects(v1, v2)).findFirst().orElseThrow(() -> new NoSuchElementException(String.format("No edge found between %d and %d", v1, v2))).getWeight();
 		}
 
@@ -1026,7 +1754,18 @@ public class Graph {
 		 * @since 1.2
 		 */
 		public void setWeight(@NotNull Integer v1, @NotNull Integer v2, @NotNull Double weight) {
-			edges.stream().filter(e -> e.connects(v1, v2)).findFirst().orElseThrow(() -> new NoSuchElementException(String.format("No edge found between %d and %d", v1, v2))).setWeight(weight);
+			int e = IntStream.range(0, edges.size()).filter(i -> edges.get(i).connects(v1, v2)).findFirst().orElseThrow(() -> new NoSuchElementException(String.format("No edge found between %d and %d", v1, v2)));
+			Edge edge = edges.get(e);
+			edge.setWeight(weight);
+			if (!edge.v1.equals(edge.v2))
+				mark(edge.v1, edge.v2, weight);
+			if (this == Graph.this.edges && adjacency != null) {
+				if (shared)
+					adjacency = null;
+				else
+					adjacency.setWeight(e, weight);
+			}
+			modified(false);
 		}
 
 		/**
@@ -1040,11 +1779,70 @@ public class Graph {
 			return edges;
 		}
 
+		/**
+		 * Odnotowuje modyfikację krawędzi grafu.
+		 * <p>
+		 * Dotyczy tylko krawędzi samego grafu, a nie pomocniczych kopii (np. wyników algorytmów).
+		 * </p>
+		 *
+		 * @param structural Czy zmieniła się struktura grafu
+		 * @since 1.4
+		 */
+		private void modified(boolean structural) {
+			if (this == Graph.this.edges)
+				Graph.this.modified(structural);
+		}
+
+		/**
+		 * Sprawdza, czy krawędź między wierzchołkami można odczytać z macierzy wag grafu.
+		 * <p>
+		 * Pętle własne są przechowywane tylko na liście krawędzi.
+		 * </p>
+		 *
+		 * @param v1 Identyfikator pierwszego wierzchołka
+		 * @param v2 Identyfikator drugiego wierzchołka
+		 * @return Czy macierz wag jest używana dla tej pary
+		 * @see Graph#matrix
+		 * @since 1.5
+		 */
+		private boolean indexed(@NotNull Integer v1, @NotNull Integer v2) {
+			return this == Graph.this.edges && matrix != null && !v1.equals(v2);
+		}
+
+		/**
+		 * Zapisuje wagę krawędzi w macierzy wag grafu.
+		 *
+		 * @param v1     Identyfikator pierwszego wierzchołka
+		 * @param v2     Identyfikator drugiego wierzchołka
+		 * @param weight Waga krawędzi (NaN - brak krawędzi)
+		 * @see Graph#matrix
+		 * @since 1.5
+		 */
+		private void mark(@NotNull Integer v1, @NotNull Integer v2, double weight) {
+			if (this == Graph.this.edges)
+				store(v1, v2, weight);
+		}
+
+		/**
+		 * Usuwa z macierzy wag grafu wszystkie krawędzie wierzchołka.
+		 *
+		 * @param id Identyfikator wierzchołka
+		 * @see Graph#matrix
+		 * @since 1.5
+		 */
+		private void clear(@NotNull Integer id) {
+			if (this != Graph.this.edges || matrix == null || id < 0 || id >= order)
+				return;
+			for (int v = 0; v < order; v++)
+				if (v != id)
+					matrix[cell(id, v)] = Double.NaN;
+		}
+
 		/**
 		 * Klasa wewnętrzna reprezentująca krawędź grafu.
 		 *
 		 * @author Krzysztof Jurkowski
-		 * @version 1.3
+		 * @version 1.5
 		 * @since 1.0
 		 */
 		public class Edge {
@@ -1091,6 +1889,21 @@ public class Graph {
 				this.weight = weight;
 			}
 
+			/**
+			 * Konstruktor kopiujący
+			 * <p>
+			 * Tworzy kopię krawędzi z innego grafu.
+			 * </p>
+			 *
+			 * @param edge Krawędź do skopiowania
+			 * @since 1.4
+			 */
+			public Edge(@NotNull Edge edge) {
+				this.v1 = edge.v1;
+				this.v2 = edge.v2;
+				this.weight = edge.weight;
+			}
+
 			/**
 			 * Zwraca wagę krawędzi.
 			 *
@@ -1161,17 +1974,440 @@ public class Graph {
 			 * Konwertuje krawędź na Mermaid.
 			 * <p>
 			 * Wykonuje konwersję krawędzi na format Mermaid.<br>
-			 * Format: id1 ---|waga| id2
+			 * Format: id1 ---|waga| id2<br>
+			 * Waga jest zapisywana dokładnie ({@link Double#toString(double)}), więc graf wczytany z pliku ma te same wagi.
 			 * </p>
 			 *
 			 * @return Krawędź w formacie Mermaid
 			 * @since 1.0
 			 */
 			public @NotNull String mermaid() {
-				return String.format("%d ---|%f| %d", getV1(), getWeight(), getV2());
+				return String.format("%d ---|%s| %d", getV1(), getWeight(), getV2());
 			}
 		}
 
 	}
 
+
+	/**
+	 * Tablicowa reprezentacja sąsiedztwa grafu
+	 * <p>
+	 * Migawka grafu w postaci list sąsiedztwa upakowanych w tablice prymitywne (CSR).<br>
+	 * Wierzchołki są numerowane indeksami <code>0..n-1</code> w kolejności {@link Vertices#getIds()},
+	 * a krawędzie indeksami <code>0..m-1</code> w kolejności {@link Edges#getEdges()}.<br>
+	 * Każda krawędź nieskierowana zajmuje dwa sloty sąsiedztwa (po jednym dla każdego końca).
+	 * </p>
+	 * <p>
+	 * Służy algorytmom jako szybka, pozbawiona opakowań struktura do przeglądania sąsiadów.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.5
+	 * @see #adjacency()
+	 * @since 1.6
+	 */
+	public static final class Adjacency {
+		/**
+		 * Identyfikatory wierzchołków według indeksu
+		 *
+		 * @since 1.0
+		 */
+		private final int[] ids;
+		/**
+		 * Indeksy wierzchołków według identyfikatora (-1, jeśli brak)
+		 *
+		 * @since 1.0
+		 */
+		private final int[] index;
+		/**
+		 * Początki list sąsiedztwa (rozmiar n+1)
+		 *
+		 * @since 1.0
+		 */
+		private final int[] offsets;
+		/**
+		 * Sąsiedzi w slotach sąsiedztwa
+		 *
+		 * @since 1.0
+		 */
+		private final int[] targets;
+		/**
+		 * Wagi krawędzi w slotach sąsiedztwa
+		 *
+		 * @since 1.0
+		 */
+		private final double[] weights;
+		/**
+		 * Indeksy krawędzi w slotach sąsiedztwa
+		 *
+		 * @since 1.0
+		 */
+		private final int[] slotEdges;
+		/**
+		 * Pierwsze końce krawędzi
+		 *
+		 * @since 1.0
+		 */
+		private final int[] edgeU;
+		/**
+		 * Drugie końce krawędzi
+		 *
+		 * @since 1.0
+		 */
+		private final int[] edgeV;
+		/**
+		 * Wagi krawędzi
+		 *
+		 * @since 1.0
+		 */
+		private final double[] edgeWeights;
+		/**
+		 * Współrzędne x wierzchołków (NaN, jeśli brak)
+		 *
+		 * @since 1.0
+		 */
+		private final double[] x;
+		/**
+		 * Współrzędne y wierzchołków (NaN, jeśli brak)
+		 *
+		 * @since 1.0
+		 */
+		private final double[] y;
+		/**
+		 * Liczba wierzchołków bez współrzędnych
+		 *
+		 * @see #hasCoordinates()
+		 * @since 1.5
+		 */
+		private int missing;
+
+		/**
+		 * Konstruktor migawki
+		 * <p>
+		 * Buduje reprezentację w czasie O(V+E).<br>
+		 * Pętle własne są pomijane w listach sąsiedztwa.
+		 * </p>
+		 *
+		 * @param vertices Wierzchołki grafu
+		 * @param edges    Krawędzie grafu
+		 * @throws NoSuchElementException Krawędź łączy nieistniejący wierzchołek
+		 * @since 1.0
+		 */
+		private Adjacency(@NotNull Vertices vertices, @NotNull Edges edges) {
+			List<Vertices.Vertex> vs = vertices.getVertices();
+			List<Edges.Edge> es = edges.getEdges();
+			int n = vs.size();
+			int m = es.size();
+
+			ids = new int[n];
+			x = new double[n];
+			y = new double[n];
+			int max = 0;
+			for (int i = 0; i < n; i++) {
+				Vertices.Vertex v = vs.get(i);
+				ids[i] = v.getId();
+				x[i] = v.hasCoordinates() ? v.getX() : Double.NaN;
+				y[i] = v.hasCoordinates() ? v.getY() : Double.NaN;
+				max = Math.max(max, ids[i]);
+			}
+			index = new int[max + 1];
+			Arrays.fill(index, -1);
+			for (int i = 0; i < n; i++)
+				index[ids[i]] = i;
+			missing = (int) IntStream.range(0, n).filter(i -> !hasCoordinates(i)).count();
+
+			edgeU = new int[m];
+			edgeV = new int[m];
+			edgeWeights = new double[m];
+			offsets = new int[n + 1];
+			for (int e = 0; e < m; e++) {
+				Edges.Edge edge = es.get(e);
+				edgeU[e] = index(edge.getV1());
+				edgeV[e] = index(edge.getV2());
+				edgeWeights[e] = edge.getWeight();
+				if (edgeU[e] != edgeV[e]) {
+					offsets[edgeU[e] + 1]++;
+					offsets[edgeV[e] + 1]++;
+				}
+			}
+			for (int i = 0; i < n; i++)
+				offsets[i + 1] += offsets[i];
+
+			targets = new int[offsets[n]];
+			weights = new double[offsets[n]];
+			slotEdges = new int[offsets[n]];
+			int[] next = Arrays.copyOf(offsets, n);
+			for (int e = 0; e < m; e++) {
+				int u = edgeU[e], v = edgeV[e];
+				if (u == v)
+					continue;
+				targets[next[u]] = v;
+				weights[next[u]] = edgeWeights[e];
+				slotEdges[next[u]++] = e;
+				targets[next[v]] = u;
+				weights[next[v]] = edgeWeights[e];
+				slotEdges[next[v]++] = e;
+			}
+		}
+
+		/**
+		 * Zwraca liczbę wierzchołków
+		 *
+		 * @return Liczba wierzchołków
+		 * @since 1.0
+		 */
+		public int size() {
+			return ids.length;
+		}
+
+		/**
+		 * Zwraca liczbę krawędzi
+		 *
+		 * @return Liczba krawędzi
+		 * @since 1.0
+		 */
+		public int edgeCount() {
+			return edgeU.length;
+		}
+
+		/**
+		 * Zwraca identyfikator wierzchołka o podanym indeksie
+		 *
+		 * @param i Indeks wierzchołka
+		 * @return Identyfikator wierzchołka
+		 * @since 1.0
+		 */
+		public int id(int i) {
+			return ids[i];
+		}
+
+		/**
+		 * Zwraca indeks wierzchołka o podanym identyfikatorze
+		 *
+		 * @param id Identyfikator wierzchołka
+		 * @return Indeks wierzchołka
+		 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+		 * @since 1.0
+		 */
+		public int index(int id) {
+			if (id < 0 || id >= index.length || index[id] < 0)
+				throw new NoSuchElementException(String.format("No vertex found with id %d", id));
+			return index[id];
+		}
+
+		/**
+		 * Zwraca pierwszy slot sąsiedztwa wierzchołka
+		 *
+		 * @param i Indeks wierzchołka
+		 * @return Pierwszy slot
+		 * @since 1.0
+		 */
+		public int begin(int i) {
+			return offsets[i];
+		}
+
+		/**
+		 * Zwraca slot za ostatnim slotem sąsiedztwa wierzchołka
+		 *
+		 * @param i Indeks wierzchołka
+		 * @return Slot za ostatnim
+		 * @since 1.0
+		 */
+		public int end(int i) {
+			return offsets[i + 1];
+		}
+
+		/**
+		 * Zwraca sąsiada w slocie
+		 *
+		 * @param slot Slot sąsiedztwa
+		 * @return Indeks sąsiada
+		 * @since 1.0
+		 */
+		public int target(int slot) {
+			return targets[slot];
+		}
+
+		/**
+		 * Zwraca wagę krawędzi w slocie
+		 *
+		 * @param slot Slot sąsiedztwa
+		 * @return Waga krawędzi
+		 * @since 1.0
+		 */
+		public double weight(int slot) {
+			return weights[slot];
+		}
+
+		/**
+		 * Zwraca indeks krawędzi w slocie
+		 *
+		 * @param slot Slot sąsiedztwa
+		 * @return Indeks krawędzi
+		 * @since 1.0
+		 */
+		public int edge(int slot) {
+			return slotEdges[slot];
+		}
+
+		/**
+		 * Zwraca pierwszy koniec krawędzi
+		 *
+		 * @param e Indeks krawędzi
+		 * @return Indeks wierzchołka
+		 * @since 1.0
+		 */
+		public int edgeU(int e) {
+			return edgeU[e];
+		}
+
+		/**
+		 * Zwraca drugi koniec krawędzi
+		 *
+		 * @param e Indeks krawędzi
+		 * @return Indeks wierzchołka
+		 * @since 1.0
+		 */
+		public int edgeV(int e) {
+			return edgeV[e];
+		}
+
+		/**
+		 * Zwraca wagę krawędzi
+		 *
+		 * @param e Indeks krawędzi
+		 * @return Waga krawędzi
+		 * @since 1.0
+		 */
+		public double edgeWeight(int e) {
+			return edgeWeights[e];
+		}
+
+		/**
+		 * Zwraca odcisk grafu
+		 * <p>
+		 * Skrót liczby wierzchołków i krawędzi, identyfikatorów wierzchołków oraz końców i wag krawędzi.
+		 * Nie zależy od kolejności wierzchołków i krawędzi ani od kierunku zapisu krawędzi.
+		 * Wagi są uwzględniane dokładnie, tak jak są zapisywane w pliku Mermaid, więc ten sam graf wczytany z pliku daje ten sam odcisk,
+		 * a graf o choćby nieznacznie innych wagach - inny.
+		 * Zapisywany razem z danymi wyliczonymi z grafu pozwala odrzucić plik, który nie pasuje do bieżącego grafu.
+		 * Czas O(V+E).
+		 * </p>
+		 *
+		 * @return Odcisk grafu
+		 * @since 1.2
+		 */
+		public long fingerprint() {
+			long vertices = 0, edges = 0;
+			for (int id: ids)
+				vertices += mix(0, id);
+			for (int e = 0; e < edgeU.length; e++) {
+				int u = Math.min(ids[edgeU[e]], ids[edgeV[e]]), v = Math.max(ids[edgeU[e]], ids[edgeV[e]]);
+				edges += mix(mix((long) u << 32 | v & 0xFFFFFFFFL, Double.doubleToLongBits(edgeWeights[e])), 0);
+			}
+			return mix(mix(mix(ids.length, edgeU.length), vertices), edges);
+		}
+
+		/**
+		 * Dołącza wartość do odcisku
+		 *
+		 * @param h     Dotychczasowy odcisk
+		 * @param value Wartość
+		 * @return Nowy odcisk
+		 * @see #fingerprint()
+		 * @since 1.2
+		 */
+		private static long mix(long h, long value) {
+			h = (h ^ value) * 0x9E3779B97F4A7C15L;
+			return h ^ h >>> 31;
+		}
+
+		/**
+		 * Sprawdza, czy wszystkie wierzchołki mają współrzędne
+		 * <p>
+		 * Tylko wtedy odległość euklidesowa może ograniczać odległość w grafie:
+		 * ścieżka przez wierzchołek bez współrzędnych nie podlega warunkowi na wagi krawędzi.
+		 * </p>
+		 *
+		 * @return Czy wszystkie wierzchołki mają współrzędne
+		 * @since 1.5
+		 */
+		public boolean hasCoordinates() {
+			return missing == 0;
+		}
+
+		/**
+		 * Sprawdza, czy wierzchołek ma współrzędne
+		 *
+		 * @param i Indeks wierzchołka
+		 * @return Czy wierzchołek ma współrzędne
+		 * @since 1.0
+		 */
+		public boolean hasCoordinates(int i) {
+			return !Double.isNaN(x[i]);
+		}
+
+		/**
+		 * Zwraca współrzędną x wierzchołka
+		 *
+		 * @param i Indeks wierzchołka
+		 * @return Współrzędna x (NaN, jeśli brak)
+		 * @since 1.0
+		 */
+		public double x(int i) {
+			return x[i];
+		}
+
+		/**
+		 * Zwraca współrzędną y wierzchołka
+		 *
+		 * @param i Indeks wierzchołka
+		 * @return Współrzędna y (NaN, jeśli brak)
+		 * @since 1.0
+		 */
+		public double y(int i) {
+			return y[i];
+		}
+
+		/**
+		 * Aktualizuje współrzędne wierzchołka w miejscu
+		 *
+		 * @param i Indeks wierzchołka
+		 * @param x Współrzędna x
+		 * @param y Współrzędna y
+		 * @since 1.5
+		 */
+		private void setCoordinates(int i, double x, double y) {
+			if (!hasCoordinates(i))
+				missing--;
+			this.x[i] = x;
+			this.y[i] = y;
+		}
+
+		/**
+		 * Aktualizuje wagę krawędzi w miejscu
+		 * <p>
+		 * Poprawia tylko sloty tej krawędzi, więc pozostałe krawędzie równoległe zachowują swoje wagi.
+		 * </p>
+		 *
+		 * @param e      Indeks krawędzi (pozycja na liście krawędzi grafu)
+		 * @param weight Nowa waga krawędzi
+		 * @since 1.0
+		 */
+		private void setWeight(int e, double weight) {
+			edgeWeights[e] = weight;
+			int u = edgeU[e], v = edgeV[e];
+			if (u == v)
+				return;
+			for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) {
+				if (slotEdges[slot] == e)
+					weights[slot] = weight;
+			}
+			for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+				if (slotEdges[slot] == e)
+					weights[slot] = weight;
+			}
+		}
+	}
+
 }
@@ -0,0 +1,228 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Najkrótsze ścieżki między wszystkimi parami wierzchołków (blokowy algorytm Floyda–Warshalla)
+ * <p>
+ * Odległości i następne wierzchołki ścieżek są przechowywane w macierzach prymitywnych V×V zapisanych wierszami.<br>
+ * Macierz jest dzielona na kafelki {@link #BLOCK}×{@link #BLOCK} mieszczące się w pamięci podręcznej.
+ * Dla każdego bloku pośredniego najpierw liczony jest kafelek na przekątnej,
+ * potem równolegle kafelki jego wiersza i kolumny, a na końcu równolegle wszystkie pozostałe kafelki.
+ * </p>
+ * <p>
+ * Czas O(V³), pamięć O(V²) — przeznaczony dla gęstych grafów o najwyżej kilku tysiącach wierzchołków,
+ * dla których wielokrotny algorytm Dijkstry jest wolniejszy.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.0
+ * @see Dijkstra#getAllPairs()
+ * @since 2.19
+ */
+public class AllPairsShortestPaths {
+	/**
+	 * Bok kafelka (64×64 liczb zmiennoprzecinkowych to 32 KiB)
+	 *
+	 * @since 1.0
+	 */
+	public static final int BLOCK = 64;
+	/**
+	 * Reprezentacja sąsiedztwa grafu
+	 *
+	 * @since 1.0
+	 */
+	private final Graph.Adjacency adjacency;
+	/**
+	 * Liczba wierzchołków
+	 *
+	 * @since 1.0
+	 */
+	private final int n;
+	/**
+	 * Odległości (wiersz <code>i</code> zaczyna się od <code>i * n</code>)
+	 *
+	 * @since 1.0
+	 */
+	private final double[] dist;
+	/**
+	 * Indeksy następnych wierzchołków ścieżek (-1, jeśli ścieżka nie istnieje)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] next;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param pool      Pula wątków
+	 * @throws IllegalArgumentException Graf jest zbyt duży na macierz odległości
+	 * @since 1.0
+	 */
+	public AllPairsShortestPaths(@NotNull Graph.Adjacency adjacency, @NotNull ForkJoinPool pool) {
+		this.adjacency = adjacency;
+		n = adjacency.size();
+		if ((long) n * n > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Graph too large for an all-pairs matrix");
+		dist = new double[n * n];
+		next = new int[n * n];
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		Arrays.fill(next, -1);
+		for (int u = 0; u < n; u++) {
+			dist[u * n + u] = 0.0;
+			next[u * n + u] = u;
+			for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+				int v = adjacency.target(slot);
+				if (adjacency.weight(slot) < dist[u * n + v]) {
+					dist[u * n + v] = adjacency.weight(slot);
+					next[u * n + v] = v;
+				}
+			}
+		}
+
+		int blocks = (n + BLOCK - 1) / BLOCK;
+		pool.submit(() -> {
+			for (int kb = 0; kb < blocks; kb++) {
+				int k = kb;
+				tile(k, k, k);
+				IntStream.range(0, 2 * blocks).parallel().forEach(x -> {
+					int b = x >> 1;
+					if (b == k)
+						return;
+					if ((x & 1) == 0)
+						tile(k, b, k);
+					else
+						tile(b, k, k);
+				});
+				IntStream.range(0, blocks * blocks).parallel().forEach(x -> {
+					int ib = x / blocks, jb = x % blocks;
+					if (ib != k && jb != k)
+						tile(ib, jb, k);
+				});
+			}
+		}).join();
+
+		boolean plateaus = false;
+		for (int e = 0; e < adjacency.edgeCount(); e++)
+			plateaus |= adjacency.edgeWeight(e) == 0.0;
+		if (plateaus)
+			pool.submit(() -> IntStream.range(0, n).parallel().forEach(this::hops)).join();
+	}
+
+	/**
+	 * Wyznacza następne wierzchołki ścieżek do celu przeszukiwaniem wszerz po krawędziach napiętych
+	 * <p>
+	 * Przy krawędziach o zerowej wadze następne wierzchołki z algorytmu Floyda–Warshalla mogą tworzyć cykl
+	 * (dwa wierzchołki wskazujące na siebie nawzajem).
+	 * Przeszukiwanie od celu wybiera następny wierzchołek bliższy celowi liczbą krawędzi, więc ścieżki są skończone.
+	 * </p>
+	 *
+	 * @param t Indeks wierzchołka docelowego
+	 * @since 1.0
+	 */
+	private void hops(int t) {
+		int[] queue = new int[n];
+		boolean[] visited = new boolean[n];
+		int head = 0, tail = 0;
+		queue[tail++] = t;
+		visited[t] = true;
+		while (head < tail) {
+			int u = queue[head++];
+			for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+				int v = adjacency.target(slot);
+				if (!visited[v] && adjacency.weight(slot) + dist[u * n + t] <= dist[v * n + t]) {
+					visited[v] = true;
+					next[v * n + t] = u;
+					queue[tail++] = v;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Relaksuje kafelek przez wierzchołki pośrednie bloku
+	 *
+	 * @param ib Blok wierszy
+	 * @param jb Blok kolumn
+	 * @param kb Blok wierzchołków pośrednich
+	 * @since 1.0
+	 */
+	private void tile(int ib, int jb, int kb) {
+		int i0 = ib * BLOCK, i1 = Math.min(n, i0 + BLOCK);
+		int j0 = jb * BLOCK, j1 = Math.min(n, j0 + BLOCK);
+		int k0 = kb * BLOCK, k1 = Math.min(n, k0 + BLOCK);
+		for (int k = k0; k < k1; k++) {
+			int kr = k * n;
+			for (int i = i0; i < i1; i++) {
+				int ir = i * n;
+				double dik = dist[ir + k];
+				if (dik == Double.POSITIVE_INFINITY)
+					continue;
+				int hop = next[ir + k];
+				for (int j = j0; j < j1; j++) {
+					double alt = dik + dist[kr + j];
+					if (alt < dist[ir + j]) {
+						dist[ir + j] = alt;
+						next[ir + j] = hop;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Zwraca koszt najkrótszej ścieżki
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param to   Identyfikator wierzchołka końcowego
+	 * @return Koszt ścieżki (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @since 1.0
+	 */
+	public double distance(@NotNull Integer from, @NotNull Integer to) {
+		return dist[adjacency.index(from) * n + adjacency.index(to)];
+	}
+
+	/**
+	 * Zwraca następny wierzchołek najkrótszej ścieżki
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param to   Identyfikator wierzchołka końcowego
+	 * @return Identyfikator następnego wierzchołka (<code>null</code>, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @since 1.0
+	 */
+	public Integer next(@NotNull Integer from, @NotNull Integer to) {
+		int hop = next[adjacency.index(from) * n + adjacency.index(to)];
+		return hop == -1 ? null : adjacency.id(hop);
+	}
+
+	/**
+	 * Zwraca najkrótszą ścieżkę
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param to   Identyfikator wierzchołka końcowego
+	 * @return Identyfikatory kolejnych wierzchołków ścieżki (pusta tablica, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @since 1.0
+	 */
+	public int @NotNull [] path(@NotNull Integer from, @NotNull Integer to) {
+		int u = adjacency.index(from), t = adjacency.index(to);
+		if (next[u * n + t] == -1)
+			return new int[0];
+		int length = 1;
+		for (int v = u; v != t; v = next[v * n + t])
+			length++;
+		int[] path = new int[length];
+		for (int v = u, i = 0; i < length; v = next[v * n + t], i++)
+			path[i] = adjacency.id(v);
+		return path;
+	}
+}
@@ -0,0 +1,285 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Algorytm Dijkstry z kolejką kubełkową dla wag całkowitych
+ * <p>
+ * Działa na wagach zamienionych na liczby całkowite bez porównywania elementów kopca:
+ * </p>
+ * <ul>
+ * <li>dla największej wagi C nie większej niż większa z liczb {@link #DIAL_WEIGHT} i E/V
+ * - kubełki Diala (C+1 kubełków w buforze cyklicznym), czas O(E + V·C), czyli O(E) przy takim C,</li>
+ * <li>dla większych wag - kopiec pozycyjny (radix heap) z 65 kubełkami, czas O(E + V log C).</li>
+ * </ul>
+ * <p>
+ * Sumy wag całkowitych są dokładne, więc odległości są identyczne z wynikiem {@link Dijkstra#distances(Graph.Adjacency, int)}.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.1
+ * @see #applicable(Graph.Adjacency)
+ * @since 2.9
+ */
+public class BucketDijkstra {
+	/**
+	 * Największa waga, dla której używane są kubełki Diala (ogranicza pamięć na kubełki)
+	 *
+	 * @since 1.0
+	 */
+	public static final long DIAL_LIMIT = 1 << 16;
+	/**
+	 * Największa waga, dla której kubełki Diala są używane niezależnie od gęstości grafu
+	 * <p>
+	 * Powyżej niej przegląd wszystkich C+1 kubełków dla każdej odległości kosztowałby więcej niż krawędzie grafu,
+	 * więc kubełki Diala są używane tylko dla C nie większego od E/V.
+	 * </p>
+	 *
+	 * @since 1.1
+	 */
+	public static final long DIAL_WEIGHT = 16;
+	/**
+	 * Największa odległość dokładnie reprezentowana przez <code>double</code>
+	 *
+	 * @since 1.0
+	 */
+	private static final long EXACT_LIMIT = 1L << 53;
+	/**
+	 * Reprezentacja sąsiedztwa grafu
+	 *
+	 * @since 1.0
+	 */
+	private final Graph.Adjacency adjacency;
+	/**
+	 * Wagi slotów sąsiedztwa jako liczby całkowite
+	 *
+	 * @since 1.0
+	 */
+	private final long[] weights;
+	/**
+	 * Największa waga
+	 *
+	 * @since 1.0
+	 */
+	private final long maxWeight;
+	/**
+	 * Czy używane są kubełki Diala (w przeciwnym razie kopiec pozycyjny)
+	 *
+	 * @see #DIAL_WEIGHT
+	 * @since 1.1
+	 */
+	private final boolean dial;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @throws IllegalArgumentException Wagi nie są nieujemnymi liczbami całkowitymi lub odległości mogą przekroczyć 2<sup>53</sup>
+	 * @see #applicable(Graph.Adjacency)
+	 * @since 1.0
+	 */
+	public BucketDijkstra(@NotNull Graph.Adjacency adjacency) {
+		long max = maxWeight(adjacency);
+		if (max < 0)
+			throw new IllegalArgumentException("Edge weights must be non-negative integers");
+		this.adjacency = adjacency;
+		this.maxWeight = max;
+		dial = max <= Math.min(DIAL_LIMIT, Math.max(DIAL_WEIGHT, adjacency.edgeCount() / Math.max(1, adjacency.size())));
+		weights = new long[adjacency.begin(adjacency.size())];
+		for (int slot = 0; slot < weights.length; slot++)
+			weights[slot] = (long) adjacency.weight(slot);
+	}
+
+	/**
+	 * Sprawdza, czy graf można przeszukać kolejką kubełkową
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @return Czy wszystkie wagi są nieujemnymi liczbami całkowitymi, a odległości mieszczą się w 2<sup>53</sup>
+	 * @since 1.0
+	 */
+	public static boolean applicable(@NotNull Graph.Adjacency adjacency) {
+		return maxWeight(adjacency) >= 0;
+	}
+
+	/**
+	 * Zwraca największą wagę całkowitą
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @return Największa waga (-1, jeśli któraś waga nie jest nieujemną liczbą całkowitą lub odległości mogą przekroczyć 2<sup>53</sup>)
+	 * @since 1.0
+	 */
+	private static long maxWeight(@NotNull Graph.Adjacency adjacency) {
+		long max = 0;
+		for (int e = 0; e < adjacency.edgeCount(); e++) {
+			double w = adjacency.edgeWeight(e);
+			if (!(w >= 0.0) || w != Math.rint(w) || w >= EXACT_LIMIT)
+				return -1;
+			max = Math.max(max, (long) w);
+		}
+		if (adjacency.size() > 1 && max > EXACT_LIMIT / (adjacency.size() - 1))
+			return -1;
+		return max;
+	}
+
+	/**
+	 * Odległości od wierzchołka do wszystkich wierzchołków grafu
+	 *
+	 * @param s Indeks wierzchołka źródłowego
+	 * @return Odległości według indeksu wierzchołka
+	 * @since 1.0
+	 */
+	public double @NotNull [] distances(int s) {
+		long[] dist = new long[adjacency.size()];
+		Arrays.fill(dist, Long.MAX_VALUE);
+		dist[s] = 0;
+		if (dial)
+			dial(dist, s);
+		else
+			radix(dist, s);
+		double[] result = new double[dist.length];
+		for (int v = 0; v < dist.length; v++)
+			result[v] = dist[v] == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : dist[v];
+		return result;
+	}
+
+	/**
+	 * Kubełki Diala
+	 * <p>
+	 * Kubełek <code>d mod (C+1)</code> przechowuje wierzchołki o odległości <code>d</code>;
+	 * wpisy nieaktualne (po zmniejszeniu odległości) są pomijane przy zdejmowaniu.
+	 * </p>
+	 *
+	 * @param dist Odległości
+	 * @param s    Indeks wierzchołka źródłowego
+	 * @since 1.0
+	 */
+	private void dial(long @NotNull [] dist, int s) {
+		int count = (int) maxWeight + 1;
+		int[][] buckets = new int[count][];
+		int[] sizes = new int[count];
+		push(buckets, sizes, 0, s);
+		long pending = 1;
+		for (long d = 0; pending > 0; d++) {
+			int b = (int) (d % count);
+			while (sizes[b] > 0) {
+				int u = buckets[b][--sizes[b]];
+				pending--;
+				if (dist[u] != d)
+					continue;
+				for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+					int v = adjacency.target(slot);
+					long alt = d + weights[slot];
+					if (alt < dist[v]) {
+						dist[v] = alt;
+						push(buckets, sizes, (int) (alt % count), v);
+						pending++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Dodaje wierzchołek do kubełka
+	 *
+	 * @param buckets Kubełki
+	 * @param sizes   Liczby wierzchołków w kubełkach
+	 * @param b       Numer kubełka
+	 * @param v       Indeks wierzchołka
+	 * @since 1.0
+	 */
+	private static void push(int @NotNull [] @NotNull [] buckets, int @NotNull [] sizes, int b, int v) {
+		if (buckets[b] == null)
+			buckets[b] = new int[4];
+		else if (sizes[b] == buckets[b].length)
+			buckets[b] = Arrays.copyOf(buckets[b], 2 * sizes[b]);
+		buckets[b][sizes[b]++] = v;
+	}
+
+	/**
+	 * Kopiec pozycyjny
+	 * <p>
+	 * Kubełek <code>i</code> przechowuje klucze, których najstarszy bit różny od ostatnio zdjętego klucza ma numer <code>i-1</code>.<br>
+	 * Każdy klucz przechodzi do niższych kubełków co najwyżej 64 razy.
+	 * </p>
+	 *
+	 * @param dist Odległości
+	 * @param s    Indeks wierzchołka źródłowego
+	 * @since 1.0
+	 */
+	private void radix(long @NotNull [] dist, int s) {
+		long[][] keys = new long[65][];
+		int[][] items = new int[65][];
+		int[] sizes = new int[65];
+		long last = 0;
+		long pending = 1;
+		insert(keys, items, sizes, 0, 0, s);
+		while (pending > 0) {
+			if (sizes[0] == 0) {
+				int i = 1;
+				while (sizes[i] == 0)
+					i++;
+				long min = Long.MAX_VALUE;
+				for (int j = 0; j < sizes[i]; j++)
+					min = Math.min(min, keys[i][j]);
+				last = min;
+				int size = sizes[i];
+				sizes[i] = 0;
+				for (int j = 0; j < size; j++)
+					insert(keys, items, sizes, bucket(keys[i][j], last), keys[i][j], items[i][j]);
+			}
+			long d = keys[0][--sizes[0]];
+			int u = items[0][sizes[0]];
+			pending--;
+			if (dist[u] != d)
+				continue;
+			for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+				int v = adjacency.target(slot);
+				long alt = d + weights[slot];
+				if (alt < dist[v]) {
+					dist[v] = alt;
+					insert(keys, items, sizes, bucket(alt, last), alt, v);
+					pending++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Numer kubełka kopca pozycyjnego
+	 *
+	 * @param key  Klucz
+	 * @param last Ostatnio zdjęty klucz
+	 * @return Numer kubełka
+	 * @since 1.0
+	 */
+	private static int bucket(long key, long last) {
+		return 64 - Long.numberOfLeadingZeros(key ^ last);
+	}
+
+	/**
+	 * Dodaje wpis do kubełka kopca pozycyjnego
+	 *
+	 * @param keys  Klucze w kubełkach
+	 * @param items Wierzchołki w kubełkach
+	 * @param sizes Liczby wpisów w kubełkach
+	 * @param b     Numer kubełka
+	 * @param key   Klucz
+	 * @param v     Indeks wierzchołka
+	 * @since 1.0
+	 */
+	private static void insert(long @NotNull [] @NotNull [] keys, int @NotNull [] @NotNull [] items, int @NotNull [] sizes, int b, long key, int v) {
+		if (keys[b] == null) {
+			keys[b] = new long[4];
+			items[b] = new int[4];
+		} else if (sizes[b] == keys[b].length) {
+			keys[b] = Arrays.copyOf(keys[b], 2 * sizes[b]);
+			items[b] = Arrays.copyOf(items[b], 2 * sizes[b]);
+		}
+		keys[b][sizes[b]] = key;
+		items[b][sizes[b]++] = v;
+	}
+}
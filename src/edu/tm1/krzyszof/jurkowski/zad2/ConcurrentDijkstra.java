@@ -0,0 +1,285 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Współbieżne zapytania o najkrótsze ścieżki
+ * <p>
+ * Oddziela graf od stanu zapytań: zapytania nie mają wierzchołka źródłowego ani wyniku zapisanego w obiekcie,
+ * więc wiele wątków może je wykonywać jednocześnie bez blokad.<br>
+ * Zapytania czytają ostatnią opublikowaną, niezmienną migawkę grafu
+ * (reprezentację sąsiedztwa z aktualnymi punktami orientacyjnymi i hierarchią skrótów).
+ * </p>
+ * <p>
+ * Zmiany są wykonywane na prywatnej kopii grafu przez {@link #update(Consumer)},
+ * pojedynczo, a nowa migawka jest publikowana po zakończeniu zmiany.
+ * Zapytanie rozpoczęte przed publikacją kończy się na poprzedniej migawce.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.0
+ * @see Dijkstra
+ * @since 2.18
+ */
+public class ConcurrentDijkstra {
+	/**
+	 * Prywatna kopia grafu zmieniana przez {@link #update(Consumer)}
+	 *
+	 * @since 1.0
+	 */
+	private final Dijkstra graph;
+	/**
+	 * Ostatnia opublikowana migawka
+	 *
+	 * @since 1.0
+	 */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Konstruktor
+	 * <p>
+	 * Kopiuje graf, więc późniejsze zmiany podanego obiektu nie wpływają na zapytania.
+	 * </p>
+	 *
+	 * @param graph Graf
+	 * @since 1.0
+	 */
+	public ConcurrentDijkstra(@NotNull Graph graph) {
+		this.graph = new Dijkstra(graph);
+		publish();
+	}
+
+	/**
+	 * Wykonuje zmianę grafu i publikuje nową migawkę
+	 * <p>
+	 * Zmiany są wykonywane pojedynczo; zapytania w tym czasie korzystają z poprzedniej migawki.<br>
+	 * Migawka jest publikowana także wtedy, gdy zmiana zakończy się wyjątkiem,
+	 * więc zapytania widzą tę część zmiany, która została wykonana.<br>
+	 * W ramach zmiany można też wyliczyć punkty orientacyjne lub hierarchię skrótów,
+	 * które trafią do migawki.
+	 * </p>
+	 *
+	 * @param mutation Zmiana grafu (nie może przechowywać odwołania do grafu)
+	 * @since 1.0
+	 */
+	public void update(@NotNull Consumer<? super Dijkstra> mutation) {
+		synchronized (graph) {
+			try {
+				mutation.accept(graph);
+			} finally {
+				publish();
+			}
+		}
+	}
+
+	/**
+	 * Publikuje migawkę bieżącego stanu grafu
+	 *
+	 * @since 1.0
+	 */
+	private void publish() {
+		snapshot = new Snapshot(graph.getSnapshot(), graph.getLandmarks(), graph.getHierarchy(), graph.getRevision());
+	}
+
+	/**
+	 * Zwraca licznik modyfikacji opublikowanej migawki
+	 *
+	 * @return Licznik modyfikacji grafu w chwili publikacji
+	 * @see Graph#getRevision()
+	 * @since 1.0
+	 */
+	public long getRevision() {
+		return snapshot.revision;
+	}
+
+	/**
+	 * Zwraca koszt najkrótszej ścieżki między dwoma wierzchołkami
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param to   Identyfikator wierzchołka końcowego
+	 * @return Koszt ścieżki (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @see Dijkstra#getDistance(Integer, Integer)
+	 * @since 1.0
+	 */
+	public double getDistance(@NotNull Integer from, @NotNull Integer to) {
+		return getDistance(from, to, Dijkstra.SEARCH.DIJKSTRA);
+	}
+
+	/**
+	 * Zwraca koszt najkrótszej ścieżki między dwoma wierzchołkami wybraną metodą
+	 *
+	 * @param from   Identyfikator wierzchołka początkowego
+	 * @param to     Identyfikator wierzchołka końcowego
+	 * @param search Metoda wyszukiwania
+	 * @return Koszt ścieżki (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalStateException  Migawka nie zawiera punktów orientacyjnych lub hierarchii skrótów wymaganych przez metodę
+	 * @see Dijkstra#getDistance(Integer, Integer, Dijkstra.SEARCH)
+	 * @since 1.0
+	 */
+	public double getDistance(@NotNull Integer from, @NotNull Integer to, Dijkstra.@NotNull SEARCH search) {
+		Snapshot current = snapshot;
+		int s = current.adjacency.index(from);
+		int t = current.adjacency.index(to);
+		if (search == Dijkstra.SEARCH.ALT && current.landmarks == null)
+			throw new IllegalStateException("Landmarks not published, calculate them in update() first");
+		if (search == Dijkstra.SEARCH.CH) {
+			if (current.hierarchy == null)
+				throw new IllegalStateException("Contraction hierarchy not published, calculate it in update() first");
+			return current.hierarchy.distance(s, t);
+		}
+		return Dijkstra.search(current.adjacency, s, t, search, current.landmarks);
+	}
+
+	/**
+	 * Zwraca najkrótszą ścieżkę między dwoma wierzchołkami
+	 * <p>
+	 * Ścieżka jest taka sama jak {@link Dijkstra#getPath(Integer)} dla źródła <code>from</code>.
+	 * </p>
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param to   Identyfikator wierzchołka końcowego
+	 * @return Identyfikatory kolejnych wierzchołków ścieżki (pusta tablica, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @see ShortestPathTree#path(int)
+	 * @since 1.0
+	 */
+	public int @NotNull [] getPath(@NotNull Integer from, @NotNull Integer to) {
+		Graph.Adjacency adjacency = snapshot.adjacency;
+		int s = adjacency.index(from);
+		int[] path = new ShortestPathTree(adjacency, Dijkstra.distances(adjacency, s), s).path(adjacency.index(to));
+		for (int i = 0; i < path.length; i++)
+			path[i] = adjacency.id(path[i]);
+		return path;
+	}
+
+	/**
+	 * Zwraca k najkrótszych ścieżek prostych między dwoma wierzchołkami
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param to   Identyfikator wierzchołka końcowego
+	 * @param k    Największa liczba ścieżek
+	 * @return Ścieżki w kolejności rosnącego kosztu
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Liczba ścieżek nie jest dodatnia
+	 * @see Dijkstra#getShortestPaths(Integer, Integer, int)
+	 * @since 1.0
+	 */
+	public @NotNull KShortestPaths getShortestPaths(@NotNull Integer from, @NotNull Integer to, int k) {
+		Graph.Adjacency adjacency = snapshot.adjacency;
+		return new KShortestPaths(adjacency, adjacency.index(from), adjacency.index(to), k);
+	}
+
+	/**
+	 * Zwraca wierzchołki osiągalne kosztem nie większym od promienia
+	 *
+	 * @param from   Identyfikator wierzchołka początkowego
+	 * @param radius Największy koszt dojścia
+	 * @return Wierzchołki w kolejności rosnącego kosztu (łącznie z początkowym)
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Promień jest ujemny
+	 * @see Dijkstra#getVerticesWithin(Integer, double)
+	 * @since 1.0
+	 */
+	public @NotNull NearbyVertices getVerticesWithin(@NotNull Integer from, double radius) {
+		Graph.Adjacency adjacency = snapshot.adjacency;
+		return new NearbyVertices(adjacency, adjacency.index(from), radius, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Zwraca k wierzchołków najbliższych podanemu wierzchołkowi
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param k    Liczba wierzchołków (łącznie z początkowym)
+	 * @return Wierzchołki w kolejności rosnącego kosztu
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Liczba wierzchołków jest ujemna
+	 * @see Dijkstra#getNearestVertices(Integer, int)
+	 * @since 1.0
+	 */
+	public @NotNull NearbyVertices getNearestVertices(@NotNull Integer from, int k) {
+		Graph.Adjacency adjacency = snapshot.adjacency;
+		return new NearbyVertices(adjacency, adjacency.index(from), Double.POSITIVE_INFINITY, k);
+	}
+
+	/**
+	 * Zwraca koszty najkrótszych ścieżek dla wielu par wierzchołków
+	 *
+	 * @param from Identyfikatory wierzchołków początkowych
+	 * @param to   Identyfikatory wierzchołków końcowych
+	 * @param pool Pula wątków
+	 * @return Koszty w kolejności par (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Tablice mają różne długości
+	 * @see Dijkstra#getDistances(int[], int[], ForkJoinPool)
+	 * @since 1.0
+	 */
+	public double @NotNull [] getDistances(int @NotNull [] from, int @NotNull [] to, @NotNull ForkJoinPool pool) {
+		if (from.length != to.length)
+			throw new IllegalArgumentException("Sources and targets must have the same length");
+		Graph.Adjacency adjacency = snapshot.adjacency;
+		int[] sources = new int[from.length];
+		int[] targets = new int[to.length];
+		for (int i = 0; i < from.length; i++) {
+			sources[i] = adjacency.index(from[i]);
+			targets[i] = adjacency.index(to[i]);
+		}
+		return new ShortestPathBatch(adjacency).distances(sources, targets, pool);
+	}
+
+	/**
+	 * Niezmienna migawka grafu
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @since 1.0
+	 */
+	private static final class Snapshot {
+		/**
+		 * Reprezentacja sąsiedztwa grafu
+		 *
+		 * @since 1.0
+		 */
+		private final Graph.Adjacency adjacency;
+		/**
+		 * Punkty orientacyjne (<code>null</code>, jeśli brak)
+		 *
+		 * @since 1.0
+		 */
+		private final Landmarks landmarks;
+		/**
+		 * Hierarchia skrótów (<code>null</code>, jeśli brak)
+		 *
+		 * @since 1.0
+		 */
+		private final ContractionHierarchy hierarchy;
+		/**
+		 * Licznik modyfikacji grafu
+		 *
+		 * @since 1.0
+		 */
+		private final long revision;
+
+		/**
+		 * Konstruktor
+		 *
+		 * @param adjacency Reprezentacja sąsiedztwa grafu
+		 * @param landmarks Punkty orientacyjne
+		 * @param hierarchy Hierarchia skrótów
+		 * @param revision  Licznik modyfikacji grafu
+		 * @since 1.0
+		 */
+		private Snapshot(@NotNull Graph.Adjacency adjacency, Landmarks landmarks, ContractionHierarchy hierarchy, long revision) {
+			this.adjacency = adjacency;
+			this.landmarks = landmarks;
+			this.hierarchy = hierarchy;
+			this.revision = revision;
+		}
+	}
+}
@@ -0,0 +1,872 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Hierarchia skrótów (contraction hierarchies)
+ * <p>
+ * Wierzchołki są kolejno usuwane (kontraktowane) w porządku ważności,
+ * a najkrótsze ścieżki przechodzące przez usuwany wierzchołek są zastępowane skrótami.<br>
+ * Zapytanie to dwukierunkowe wyszukiwanie, które przechodzi tylko krawędziami w górę hierarchii,
+ * więc odwiedza niewielką część grafu.
+ * </p>
+ * <p>
+ * Kontrakcja odbywa się rundami: w każdej rundzie wybierany jest zbiór niezależny wierzchołków
+ * o lokalnie najmniejszym priorytecie, który jest kontraktowany równolegle.
+ * Wyszukiwania świadków omijają cały zbiór rundy, więc równoległa kontrakcja jest równoważna sekwencyjnej.<br>
+ * Priorytety sąsiadów skontraktowanych wierzchołków są aktualizowane leniwie:
+ * wierzchołek jest tylko oznaczany, a jego priorytet przeliczany dopiero wtedy, gdy kandyduje do kontrakcji.
+ * </p>
+ * <p>
+ * Wyszukiwania świadków są ograniczone liczbą ustalonych wierzchołków (malejącą ze stopniem)
+ * i liczbą krawędzi ścieżki, więc koszt kontrakcji wierzchołka nie rośnie kwadratowo z jego stopniem.
+ * Na grafach gęstych (od {@link Graph#MATRIX_DENSITY} par wierzchołków połączonych)
+ * skróty zamieniają graf roboczy w klikę, dlatego budowa hierarchii jest tam odrzucana.
+ * </p>
+ * <p>
+ * Gotowa hierarchia jest niezmienna, a zapytania mogą być wykonywane współbieżnie.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.2
+ * @see Dijkstra#calculateContractionHierarchy()
+ * @since 2.7
+ */
+public class ContractionHierarchy {
+	/**
+	 * Limit wierzchołków ustalonych przy kontrakcji jednego wierzchołka
+	 * <p>
+	 * Jest dzielony między wyszukiwania świadków z kolejnych sąsiadów;
+	 * po przekroczeniu limitu skrót jest dodawany zachowawczo.
+	 * </p>
+	 *
+	 * @since 1.0
+	 */
+	private static final int WITNESS_LIMIT = 500;
+	/**
+	 * Najmniejszy limit wierzchołków ustalonych w jednym wyszukiwaniu świadka
+	 *
+	 * @since 1.2
+	 */
+	private static final int WITNESS_MINIMUM = 20;
+	/**
+	 * Limit krawędzi ścieżki świadka
+	 *
+	 * @since 1.2
+	 */
+	private static final int WITNESS_HOPS = 5;
+	/**
+	 * Najmniejsza liczba wierzchołków, od której gęsty graf jest odrzucany
+	 *
+	 * @since 1.2
+	 */
+	private static final int DENSE_MINIMUM = 64;
+	/**
+	 * Poziomy wierzchołków w hierarchii (kolejność kontrakcji)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] rank;
+	/**
+	 * Początki list krawędzi w górę (rozmiar n+1)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] offsets;
+	/**
+	 * Końce krawędzi w górę
+	 *
+	 * @since 1.0
+	 */
+	private final int[] targets;
+	/**
+	 * Wagi krawędzi w górę
+	 *
+	 * @since 1.0
+	 */
+	private final double[] weights;
+	/**
+	 * Wierzchołki pośrednie skrótów (-1 dla krawędzi grafu)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] middles;
+	/**
+	 * Wersja grafu, dla której zbudowano hierarchię
+	 *
+	 * @see Graph#getRevision()
+	 * @since 1.0
+	 */
+	private final long revision;
+	/**
+	 * Przestrzenie robocze zapytań (po jednej na wątek)
+	 *
+	 * @since 1.0
+	 */
+	private final ThreadLocal<Query> queries = ThreadLocal.withInitial(Query::new);
+
+	/**
+	 * Konstruktor budujący hierarchię
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param revision  Wersja grafu
+	 * @throws IllegalStateException graf jest gęsty (od {@link Graph#MATRIX_DENSITY} par wierzchołków połączonych)
+	 * @since 1.0
+	 */
+	public ContractionHierarchy(@NotNull Graph.Adjacency adjacency, long revision) {
+		long size = adjacency.size();
+		if (size >= DENSE_MINIMUM && adjacency.edgeCount() >= Graph.MATRIX_DENSITY * size * (size - 1) / 2.0)
+			throw new IllegalStateException("Graph is too dense for a contraction hierarchy, use DIJKSTRA or ALT instead");
+		this.revision = revision;
+		Builder builder = new Builder(adjacency);
+		builder.contract();
+		this.rank = builder.rank;
+		int n = adjacency.size();
+		offsets = new int[n + 1];
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] = offsets[v] + builder.up[v].length / 2;
+		targets = new int[offsets[n]];
+		weights = new double[offsets[n]];
+		middles = new int[offsets[n]];
+		for (int v = 0; v < n; v++) {
+			int[] up = builder.up[v];
+			for (int i = 0; i < up.length / 2; i++) {
+				targets[offsets[v] + i] = up[2 * i];
+				middles[offsets[v] + i] = up[2 * i + 1];
+				weights[offsets[v] + i] = builder.upWeights[v][i];
+			}
+		}
+	}
+
+	/**
+	 * Konstruktor z wczytanych tablic
+	 *
+	 * @param rank     Poziomy wierzchołków
+	 * @param offsets  Początki list krawędzi w górę
+	 * @param targets  Końce krawędzi w górę
+	 * @param weights  Wagi krawędzi w górę
+	 * @param middles  Wierzchołki pośrednie skrótów
+	 * @param revision Wersja grafu
+	 * @since 1.0
+	 */
+	private ContractionHierarchy(int[] rank, int[] offsets, int[] targets, double[] weights, int[] middles, long revision) {
+		this.rank = rank;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+		this.middles = middles;
+		this.revision = revision;
+	}
+
+	/**
+	 * Zwraca koszt najkrótszej ścieżki
+	 *
+	 * @param s Indeks wierzchołka początkowego
+	 * @param t Indeks wierzchołka końcowego
+	 * @return Koszt ścieżki (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @since 1.0
+	 */
+	public double distance(int s, int t) {
+		return queries.get().run(s, t);
+	}
+
+	/**
+	 * Zwraca liczbę skrótów w hierarchii
+	 *
+	 * @return Liczba skrótów
+	 * @since 1.0
+	 */
+	public int shortcuts() {
+		int count = 0;
+		for (int middle: middles)
+			if (middle >= 0)
+				count++;
+		return count;
+	}
+
+	/**
+	 * Zwraca poziom wierzchołka w hierarchii
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Poziom wierzchołka
+	 * @since 1.0
+	 */
+	public int rank(int v) {
+		return rank[v];
+	}
+
+	/**
+	 * Zwraca wersję grafu, dla której zbudowano hierarchię
+	 *
+	 * @return Wersja grafu
+	 * @see #revision
+	 * @since 1.0
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Zapis hierarchii do pliku
+	 * <p>
+	 * Format: nagłówek YAML z odciskiem grafu ({@link Graph.Adjacency#fingerprint()}),
+	 * a następnie wiersz <code>id poziom: cel/waga/pośredni ...</code>
+	 * dla każdego wierzchołka (<code>-</code> oznacza krawędź grafu).
+	 * </p>
+	 *
+	 * @param file      ścieżka pliku
+	 * @param name      nazwa grafu
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @throws IOException błąd zapisu
+	 * @see #load(Path, Graph.Adjacency, long)
+	 * @since 1.0
+	 */
+	public void save(@NotNull Path file, @NotNull String name, @NotNull Graph.Adjacency adjacency) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_16)) {
+			writer.write(String.format("""
+					---
+					title: %s
+					zad: 2
+					fingerprint: %d
+					vertices: %d
+					shortcuts: %d
+					---
+					""", name, adjacency.fingerprint(), rank.length, shortcuts()));
+			StringBuilder sb = new StringBuilder();
+			for (int v = 0; v < rank.length; v++) {
+				sb.setLength(0);
+				sb.append(adjacency.id(v)).append(' ').append(rank[v]).append(':');
+				for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+					sb.append(' ').append(adjacency.id(targets[i])).append('/').append(weights[i]).append('/');
+					if (middles[i] < 0)
+						sb.append('-');
+					else
+						sb.append(adjacency.id(middles[i]));
+				}
+				writer.write(sb.append('\n').toString());
+			}
+		}
+	}
+
+	/**
+	 * Wczytuje hierarchię z pliku
+	 * <p>
+	 * Plik jest odrzucany, jeżeli jego odcisk grafu nie zgadza się z bieżącym grafem
+	 * (np. hierarchię zbudowano przed zmianą wag).
+	 * </p>
+	 *
+	 * @param file      ścieżka pliku
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param revision  Wersja grafu
+	 * @return Wczytana hierarchia
+	 * @throws IOException błąd odczytu lub plik nie pasuje do grafu
+	 * @see #save(Path, String, Graph.Adjacency)
+	 * @since 1.0
+	 */
+	public static @NotNull ContractionHierarchy load(@NotNull Path file, @NotNull Graph.Adjacency adjacency, long revision) throws IOException {
+		Pattern fingerprint = Pattern.compile("fingerprint: (?<value>-?\\d+)");
+		Pattern row = Pattern.compile("(?<id>\\d+) (?<rank>\\d+):(?<edges>( \\d+/\\S+/(\\d+|-))*)");
+		int n = adjacency.size();
+		int[] rank = new int[n];
+		String[][] edges = new String[n][];
+		int rows = 0;
+		boolean matching = false;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_16)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				Matcher m = fingerprint.matcher(line);
+				if (m.matches()) {
+					matching = Long.parseLong(m.group("value")) == adjacency.fingerprint();
+					if (!matching)
+						break;
+					continue;
+				}
+				m = row.matcher(line);
+				if (!m.matches())
+					continue;
+				int v = adjacency.index(Integer.parseInt(m.group("id")));
+				if (edges[v] == null)
+					rows++;
+				rank[v] = Integer.parseInt(m.group("rank"));
+				String list = m.group("edges").trim();
+				edges[v] = list.isEmpty() ? new String[0] : list.split(" ");
+			}
+		}
+		if (!matching || rows != n)
+			throw new IOException("Contraction hierarchy file does not match the graph");
+
+		int[] offsets = new int[n + 1];
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] = offsets[v] + edges[v].length;
+		int[] targets = new int[offsets[n]];
+		double[] weights = new double[offsets[n]];
+		int[] middles = new int[offsets[n]];
+		for (int v = 0; v < n; v++) {
+			for (int i = 0; i < edges[v].length; i++) {
+				String[] parts = edges[v][i].split("/");
+				targets[offsets[v] + i] = adjacency.index(Integer.parseInt(parts[0]));
+				weights[offsets[v] + i] = Double.parseDouble(parts[1]);
+				middles[offsets[v] + i] = parts[2].equals("-") ? -1 : adjacency.index(Integer.parseInt(parts[2]));
+			}
+		}
+		return new ContractionHierarchy(rank, offsets, targets, weights, middles, revision);
+	}
+
+	/**
+	 * Budowa hierarchii
+	 * <p>
+	 * Przechowuje zmienny graf roboczy w postaci list sąsiedztwa, z których usuwane są kontraktowane wierzchołki.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.1
+	 * @since 1.0
+	 */
+	private static class Builder {
+		/**
+		 * Liczba wierzchołków
+		 *
+		 * @since 1.0
+		 */
+		final int n;
+		/**
+		 * Sąsiedzi wierzchołków w grafie roboczym
+		 *
+		 * @since 1.0
+		 */
+		final int[][] neighbours;
+		/**
+		 * Wagi krawędzi w grafie roboczym
+		 *
+		 * @since 1.0
+		 */
+		final double[][] neighbourWeights;
+		/**
+		 * Wierzchołki pośrednie krawędzi w grafie roboczym (-1 dla krawędzi grafu)
+		 *
+		 * @since 1.0
+		 */
+		final int[][] neighbourMiddles;
+		/**
+		 * Stopnie wierzchołków w grafie roboczym
+		 *
+		 * @since 1.0
+		 */
+		final int[] degree;
+		/**
+		 * Liczba skontraktowanych sąsiadów
+		 *
+		 * @since 1.0
+		 */
+		final int[] deleted;
+		/**
+		 * Głębokość wierzchołka w hierarchii (najdłuższy łańcuch skontraktowanych sąsiadów)
+		 *
+		 * @since 1.0
+		 */
+		final int[] depth;
+		/**
+		 * Priorytety kontrakcji
+		 *
+		 * @since 1.0
+		 */
+		final int[] priority;
+		/**
+		 * Czy priorytet wymaga przeliczenia (sąsiad został skontraktowany)?
+		 *
+		 * @since 1.2
+		 */
+		final boolean[] dirty;
+		/**
+		 * Czy wierzchołek jest już skontraktowany?
+		 *
+		 * @since 1.0
+		 */
+		final boolean[] contracted;
+		/**
+		 * Czy wierzchołek jest kontraktowany w bieżącej rundzie?
+		 *
+		 * @since 1.0
+		 */
+		final boolean[] round;
+		/**
+		 * Poziomy wierzchołków
+		 *
+		 * @since 1.0
+		 */
+		final int[] rank;
+		/**
+		 * Krawędzie w górę (pary cel, pośredni)
+		 *
+		 * @since 1.0
+		 */
+		final int[][] up;
+		/**
+		 * Wagi krawędzi w górę
+		 *
+		 * @since 1.0
+		 */
+		final double[][] upWeights;
+		/**
+		 * Przestrzenie robocze wyszukiwań świadków
+		 *
+		 * @since 1.0
+		 */
+		final ThreadLocal<Witness> witnesses;
+
+		/**
+		 * Konstruktor grafu roboczego
+		 *
+		 * @param adjacency Reprezentacja sąsiedztwa grafu
+		 * @since 1.0
+		 */
+		Builder(@NotNull Graph.Adjacency adjacency) {
+			n = adjacency.size();
+			neighbours = new int[n][];
+			neighbourWeights = new double[n][];
+			neighbourMiddles = new int[n][];
+			degree = new int[n];
+			deleted = new int[n];
+			depth = new int[n];
+			priority = new int[n];
+			dirty = new boolean[n];
+			contracted = new boolean[n];
+			round = new boolean[n];
+			rank = new int[n];
+			up = new int[n][];
+			upWeights = new double[n][];
+			witnesses = ThreadLocal.withInitial(() -> new Witness(n));
+			for (int v = 0; v < n; v++) {
+				int d = adjacency.end(v) - adjacency.begin(v);
+				neighbours[v] = new int[Math.max(d, 1)];
+				neighbourWeights[v] = new double[Math.max(d, 1)];
+				neighbourMiddles[v] = new int[Math.max(d, 1)];
+				for (int slot = adjacency.begin(v); slot < adjacency.end(v); slot++)
+					add(v, adjacency.target(slot), adjacency.weight(slot), -1);
+			}
+		}
+
+		/**
+		 * Kontrakcja wszystkich wierzchołków
+		 *
+		 * @since 1.0
+		 */
+		void contract() {
+			IntStream.range(0, n).parallel().forEach(v -> priority[v] = priority(v));
+			int[] remaining = IntStream.range(0, n).toArray();
+			int order = 0;
+			while (remaining.length > 0) {
+				int[] candidates = Arrays.stream(remaining).parallel().filter(this::isLocalMinimum).toArray();
+				Arrays.stream(candidates).parallel().filter(v -> dirty[v]).forEach(v -> {
+					priority[v] = priority(v);
+					dirty[v] = false;
+				});
+				int[] selected = Arrays.stream(candidates).filter(this::isLocalMinimum).toArray();
+				for (int v: selected)
+					round[v] = true;
+
+				double[][] shortcuts = new double[selected.length][];
+				IntStream.range(0, selected.length).parallel().forEach(i -> shortcuts[i] = shortcuts(selected[i], false));
+
+				for (int i = 0; i < selected.length; i++) {
+					int v = selected[i];
+					rank[v] = order++;
+					contracted[v] = true;
+					up[v] = new int[2 * degree[v]];
+					upWeights[v] = new double[degree[v]];
+					for (int j = 0; j < degree[v]; j++) {
+						int x = neighbours[v][j];
+						up[v][2 * j] = x;
+						up[v][2 * j + 1] = neighbourMiddles[v][j];
+						upWeights[v][j] = neighbourWeights[v][j];
+						remove(x, v);
+						deleted[x]++;
+						depth[x] = Math.max(depth[x], depth[v] + 1);
+						dirty[x] = true;
+					}
+					double[] s = shortcuts[i];
+					for (int j = 0; j < s.length; j += 3) {
+						int a = (int) s[j], b = (int) s[j + 1];
+						relax(a, b, s[j + 2], v);
+						relax(b, a, s[j + 2], v);
+					}
+				}
+				for (int v: selected)
+					round[v] = false;
+
+				if (selected.length > 0)
+					remaining = Arrays.stream(remaining).filter(v -> !contracted[v]).toArray();
+			}
+		}
+
+		/**
+		 * Sprawdza, czy wierzchołek ma najmniejszy priorytet wśród sąsiadów
+		 *
+		 * @param v Indeks wierzchołka
+		 * @return Czy wierzchołek jest lokalnym minimum
+		 * @since 1.0
+		 */
+		boolean isLocalMinimum(int v) {
+			for (int j = 0; j < degree[v]; j++) {
+				int x = neighbours[v][j];
+				if (priority[x] < priority[v] || priority[x] == priority[v] && x < v)
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Priorytet kontrakcji
+		 * <p>
+		 * Podwojona różnica krawędzi (liczba skrótów minus stopień) powiększona o liczbę skontraktowanych sąsiadów
+		 * i głębokość wierzchołka, co równomiernie rozkłada kontrakcję po grafie.
+		 * </p>
+		 *
+		 * @param v Indeks wierzchołka
+		 * @return Priorytet
+		 * @since 1.0
+		 */
+		int priority(int v) {
+			return 2 * (shortcuts(v, true).length / 3 - degree[v]) + deleted[v] + depth[v];
+		}
+
+		/**
+		 * Wyznacza skróty potrzebne po kontrakcji wierzchołka
+		 *
+		 * @param v        Indeks wierzchołka
+		 * @param simulate Czy to symulacja (świadkowie omijają tylko <code>v</code>)
+		 * @return Trójki (początek, koniec, waga)
+		 * @since 1.0
+		 */
+		double @NotNull [] shortcuts(int v, boolean simulate) {
+			Witness witness = witnesses.get();
+			int settle = Math.max(WITNESS_MINIMUM, WITNESS_LIMIT / Math.max(degree[v], 1));
+			double[] result = new double[0];
+			int size = 0;
+			for (int i = 0; i < degree[v]; i++) {
+				int a = neighbours[v][i];
+				double limit = 0.0;
+				for (int j = i + 1; j < degree[v]; j++)
+					limit = Math.max(limit, neighbourWeights[v][i] + neighbourWeights[v][j]);
+				if (i + 1 < degree[v])
+					witness.run(this, a, v, limit, settle, simulate);
+				for (int j = i + 1; j < degree[v]; j++) {
+					double via = neighbourWeights[v][i] + neighbourWeights[v][j];
+					if (witness.distance(neighbours[v][j]) > via) {
+						if (size == result.length)
+							result = Arrays.copyOf(result, Math.max(3, 2 * result.length));
+						result[size++] = a;
+						result[size++] = neighbours[v][j];
+						result[size++] = via;
+					}
+				}
+			}
+			return Arrays.copyOf(result, size);
+		}
+
+		/**
+		 * Dodaje krawędź do grafu roboczego lub skraca istniejącą
+		 *
+		 * @param a      Indeks początku
+		 * @param b      Indeks końca
+		 * @param weight Waga
+		 * @param middle Wierzchołek pośredni
+		 * @since 1.0
+		 */
+		void relax(int a, int b, double weight, int middle) {
+			for (int j = 0; j < degree[a]; j++) {
+				if (neighbours[a][j] == b) {
+					if (weight < neighbourWeights[a][j]) {
+						neighbourWeights[a][j] = weight;
+						neighbourMiddles[a][j] = middle;
+					}
+					return;
+				}
+			}
+			add(a, b, weight, middle);
+		}
+
+		/**
+		 * Dodaje krawędź do grafu roboczego
+		 *
+		 * @param a      Indeks początku
+		 * @param b      Indeks końca
+		 * @param weight Waga
+		 * @param middle Wierzchołek pośredni
+		 * @since 1.0
+		 */
+		void add(int a, int b, double weight, int middle) {
+			if (degree[a] == neighbours[a].length) {
+				int capacity = 2 * neighbours[a].length;
+				neighbours[a] = Arrays.copyOf(neighbours[a], capacity);
+				neighbourWeights[a] = Arrays.copyOf(neighbourWeights[a], capacity);
+				neighbourMiddles[a] = Arrays.copyOf(neighbourMiddles[a], capacity);
+			}
+			neighbours[a][degree[a]] = b;
+			neighbourWeights[a][degree[a]] = weight;
+			neighbourMiddles[a][degree[a]++] = middle;
+		}
+
+		/**
+		 * Usuwa krawędź z grafu roboczego
+		 *
+		 * @param a Indeks początku
+		 * @param b Indeks końca
+		 * @since 1.0
+		 */
+		void remove(int a, int b) {
+			for (int j = 0; j < degree[a]; j++) {
+				if (neighbours[a][j] == b) {
+					int last = --degree[a];
+					neighbours[a][j] = neighbours[a][last];
+					neighbourWeights[a][j] = neighbourWeights[a][last];
+					neighbourMiddles[a][j] = neighbourMiddles[a][last];
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Wyszukiwanie świadka
+	 * <p>
+	 * Ograniczony algorytm Dijkstry w grafie roboczym omijający kontraktowane wierzchołki.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.1
+	 * @since 1.0
+	 */
+	private static class Witness {
+		/**
+		 * Odległości od początku wyszukiwania
+		 *
+		 * @since 1.0
+		 */
+		final double[] dist;
+		/**
+		 * Liczby krawędzi ścieżek od początku wyszukiwania
+		 *
+		 * @since 1.2
+		 */
+		final int[] hops;
+		/**
+		 * Wierzchołki z ustawioną odległością
+		 *
+		 * @since 1.0
+		 */
+		final int[] touched;
+		/**
+		 * Liczba wierzchołków z ustawioną odległością
+		 *
+		 * @since 1.0
+		 */
+		int count;
+
+		/**
+		 * Konstruktor przestrzeni roboczej
+		 *
+		 * @param n Liczba wierzchołków
+		 * @since 1.0
+		 */
+		Witness(int n) {
+			dist = new double[n];
+			hops = new int[n];
+			touched = new int[n];
+			Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		}
+
+		/**
+		 * Wykonuje wyszukiwanie
+		 *
+		 * @param builder  Graf roboczy
+		 * @param a        Indeks początku
+		 * @param v        Indeks kontraktowanego wierzchołka
+		 * @param limit    Największa interesująca odległość
+		 * @param settle   Limit ustalonych wierzchołków
+		 * @param simulate Czy omijać tylko <code>v</code> (a nie całą rundę)
+		 * @since 1.0
+		 */
+		void run(@NotNull Builder builder, int a, int v, double limit, int settle, boolean simulate) {
+			for (int i = 0; i < count; i++)
+				dist[touched[i]] = Double.POSITIVE_INFINITY;
+			count = 0;
+			PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(e -> e[0]));
+			dist[a] = 0.0;
+			hops[a] = 0;
+			touched[count++] = a;
+			queue.add(new double[]{0.0, a});
+			int settled = 0;
+			while (!queue.isEmpty() && settled < settle) {
+				double[] top = queue.poll();
+				int u = (int) top[1];
+				if (top[0] > dist[u])
+					continue;
+				if (top[0] > limit)
+					break;
+				settled++;
+				if (hops[u] == WITNESS_HOPS)
+					continue;
+				for (int j = 0; j < builder.degree[u]; j++) {
+					int x = builder.neighbours[u][j];
+					if (x == v || !simulate && builder.round[x])
+						continue;
+					double alt = dist[u] + builder.neighbourWeights[u][j];
+					if (alt < dist[x]) {
+						if (dist[x] == Double.POSITIVE_INFINITY)
+							touched[count++] = x;
+						dist[x] = alt;
+						hops[x] = hops[u] + 1;
+						queue.add(new double[]{alt, x});
+					}
+				}
+			}
+		}
+
+		/**
+		 * Zwraca odległość znalezioną w ostatnim wyszukiwaniu
+		 *
+		 * @param x Indeks wierzchołka
+		 * @return Odległość (nieskończoność, jeśli nie znaleziono)
+		 * @since 1.0
+		 */
+		double distance(int x) {
+			return dist[x];
+		}
+	}
+
+	/**
+	 * Przestrzeń robocza zapytania
+	 * <p>
+	 * Dwa wyszukiwania w górę hierarchii (z początku i z końca) z resetowaniem tylko odwiedzonych wierzchołków.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @since 1.0
+	 */
+	private class Query {
+		/**
+		 * Odległości w obu kierunkach
+		 *
+		 * @since 1.0
+		 */
+		final double[][] dist = new double[2][rank.length];
+		/**
+		 * Odwiedzone wierzchołki w obu kierunkach
+		 *
+		 * @since 1.0
+		 */
+		final int[][] touched = new int[2][rank.length];
+		/**
+		 * Liczby odwiedzonych wierzchołków w obu kierunkach
+		 *
+		 * @since 1.0
+		 */
+		final int[] count = new int[2];
+		/**
+		 * Kolejki priorytetowe w obu kierunkach
+		 *
+		 * @since 1.0
+		 */
+		final List<PriorityQueue<double[]>> queues = List.of(
+				new PriorityQueue<>(Comparator.comparingDouble((double[] e) -> e[0])),
+				new PriorityQueue<>(Comparator.comparingDouble((double[] e) -> e[0]))
+		);
+
+		/**
+		 * Konstruktor przestrzeni roboczej
+		 *
+		 * @since 1.0
+		 */
+		Query() {
+			Arrays.fill(dist[0], Double.POSITIVE_INFINITY);
+			Arrays.fill(dist[1], Double.POSITIVE_INFINITY);
+		}
+
+		/**
+		 * Wykonuje zapytanie
+		 *
+		 * @param s Indeks wierzchołka początkowego
+		 * @param t Indeks wierzchołka końcowego
+		 * @return Koszt ścieżki
+		 * @since 1.0
+		 */
+		double run(int s, int t) {
+			for (int side = 0; side < 2; side++) {
+				for (int i = 0; i < count[side]; i++)
+					dist[side][touched[side][i]] = Double.POSITIVE_INFINITY;
+				count[side] = 0;
+			}
+			List<PriorityQueue<double[]>> queue = queues;
+			queue.get(0).clear();
+			queue.get(1).clear();
+			dist[0][s] = 0.0;
+			touched[0][count[0]++] = s;
+			queue.get(0).add(new double[]{0.0, s});
+			dist[1][t] = 0.0;
+			touched[1][count[1]++] = t;
+			queue.get(1).add(new double[]{0.0, t});
+			double best = s == t ? 0.0 : Double.POSITIVE_INFINITY;
+
+			while (true) {
+				double min0 = queue.get(0).isEmpty() ? Double.POSITIVE_INFINITY : queue.get(0).peek()[0];
+				double min1 = queue.get(1).isEmpty() ? Double.POSITIVE_INFINITY : queue.get(1).peek()[0];
+				if (Math.min(min0, min1) >= best)
+					return best;
+				int side = min0 <= min1 ? 0 : 1;
+				double[] top = queue.get(side).poll();
+				int u = (int) top[1];
+				if (top[0] > dist[side][u])
+					continue;
+				best = Math.min(best, dist[side][u] + dist[1 - side][u]);
+				if (stalled(side, u))
+					continue;
+				for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+					int x = targets[i];
+					double alt = dist[side][u] + weights[i];
+					if (alt < dist[side][x]) {
+						if (dist[side][x] == Double.POSITIVE_INFINITY)
+							touched[side][count[side]++] = x;
+						dist[side][x] = alt;
+						queue.get(side).add(new double[]{alt, x});
+					}
+				}
+			}
+		}
+
+		/**
+		 * Sprawdza, czy wierzchołek można wstrzymać (stall-on-demand)
+		 * <p>
+		 * Jeśli do wierzchołka prowadzi krótsza ścieżka przez wyższego sąsiada,
+		 * to jego odległość nie jest najkrótsza i nie warto przeglądać jego krawędzi.
+		 * </p>
+		 *
+		 * @param side Kierunek wyszukiwania
+		 * @param u    Indeks wierzchołka
+		 * @return Czy wierzchołek jest wstrzymany
+		 * @since 1.0
+		 */
+		boolean stalled(int side, int u) {
+			for (int i = offsets[u]; i < offsets[u + 1]; i++)
+				if (dist[side][targets[i]] + weights[i] < dist[side][u])
+					return true;
+			return false;
+		}
+	}
+}
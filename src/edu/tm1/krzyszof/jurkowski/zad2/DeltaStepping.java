@@ -0,0 +1,252 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Równoległy algorytm delta-stepping
+ * <p>
+ * Wierzchołki są grupowane w kubełki o szerokości Δ według bieżącej odległości.
+ * Kubełki są przetwarzane po kolei, a wszystkie wierzchołki jednego kubełka relaksowane równolegle:
+ * najpierw lekkie krawędzie (waga &le; Δ), które mogą wrócić do tego samego kubełka,
+ * a po opróżnieniu kubełka jednorazowo ciężkie krawędzie.
+ * </p>
+ * <p>
+ * Odległości są aktualizowane atomowo (CAS na bitach liczby zmiennoprzecinkowej,
+ * które dla wartości nieujemnych zachowują porządek), więc wynik jest taki sam jak w algorytmie Dijkstry.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.0
+ * @see Dijkstra#calculateDeltaStepping(Double)
+ * @since 2.8
+ */
+public class DeltaStepping {
+	/**
+	 * Reprezentacja sąsiedztwa grafu
+	 *
+	 * @since 1.0
+	 */
+	private final Graph.Adjacency adjacency;
+	/**
+	 * Szerokość kubełka
+	 *
+	 * @since 1.0
+	 */
+	private final double delta;
+	/**
+	 * Sloty sąsiedztwa uporządkowane tak, że krawędzie lekkie poprzedzają ciężkie
+	 *
+	 * @since 1.0
+	 */
+	private final int[] slots;
+	/**
+	 * Koniec krawędzi lekkich każdego wierzchołka w {@link #slots}
+	 *
+	 * @since 1.0
+	 */
+	private final int[] lightEnd;
+	/**
+	 * Odległości (bity liczb zmiennoprzecinkowych)
+	 *
+	 * @since 1.0
+	 */
+	private final AtomicLongArray dist;
+
+	/**
+	 * Konstruktor
+	 * <p>
+	 * Dzieli krawędzie każdego wierzchołka na lekkie i ciężkie w czasie O(V+E).
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param delta     Szerokość kubełka
+	 * @throws IllegalArgumentException Szerokość kubełka nie jest dodatnia
+	 * @since 1.0
+	 */
+	public DeltaStepping(@NotNull Graph.Adjacency adjacency, double delta) {
+		if (!(delta > 0.0))
+			throw new IllegalArgumentException("Delta must be positive");
+		this.adjacency = adjacency;
+		this.delta = delta;
+		int n = adjacency.size();
+		slots = new int[adjacency.begin(n)];
+		lightEnd = new int[n];
+		for (int u = 0; u < n; u++) {
+			int light = adjacency.begin(u), heavy = adjacency.end(u) - 1;
+			for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+				if (adjacency.weight(slot) <= delta)
+					slots[light++] = slot;
+				else
+					slots[heavy--] = slot;
+			}
+			lightEnd[u] = light;
+		}
+		dist = new AtomicLongArray(n);
+	}
+
+	/**
+	 * Domyślna szerokość kubełka
+	 * <p>
+	 * Największa waga podzielona przez średni stopień wierzchołka.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @return Szerokość kubełka
+	 * @since 1.0
+	 */
+	public static double defaultDelta(@NotNull Graph.Adjacency adjacency) {
+		double max = 0.0;
+		for (int e = 0; e < adjacency.edgeCount(); e++)
+			max = Math.max(max, adjacency.edgeWeight(e));
+		if (max == 0.0 || adjacency.size() == 0)
+			return 1.0;
+		double degree = Math.max(1.0, (double) adjacency.begin(adjacency.size()) / adjacency.size());
+		return max / degree;
+	}
+
+	/**
+	 * Odległości od wierzchołka do wszystkich wierzchołków grafu
+	 *
+	 * @param s    Indeks wierzchołka źródłowego
+	 * @param pool Pula wątków wykonująca relaksacje
+	 * @return Odległości według indeksu wierzchołka
+	 * @since 1.0
+	 */
+	public double @NotNull [] distances(int s, @NotNull ForkJoinPool pool) {
+		int n = adjacency.size();
+		long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+		for (int v = 0; v < n; v++)
+			dist.set(v, infinity);
+		dist.set(s, Double.doubleToRawLongBits(0.0));
+
+		TreeMap<Long, int[]> buckets = new TreeMap<>();
+		long[] queued = new long[n];
+		Arrays.fill(queued, -1);
+		add(buckets, queued, s);
+
+		while (!buckets.isEmpty()) {
+			Map.Entry<Long, int[]> first = buckets.pollFirstEntry();
+			long bucket = first.getKey();
+			int[] frontier = current(first.getValue(), bucket, queued);
+			int[] settled = new int[Math.max(16, frontier.length)];
+			int count = 0;
+			while (frontier.length > 0) {
+				if (count + frontier.length > settled.length)
+					settled = Arrays.copyOf(settled, Math.max(2 * settled.length, count + frontier.length));
+				System.arraycopy(frontier, 0, settled, count, frontier.length);
+				count += frontier.length;
+				int[] updated = relax(frontier, true, pool);
+				for (int v: updated)
+					add(buckets, queued, v);
+				int[] again = buckets.remove(bucket);
+				frontier = again == null ? new int[0] : current(again, bucket, queued);
+			}
+			int[] updated = relax(Arrays.copyOf(settled, count), false, pool);
+			for (int v: updated)
+				add(buckets, queued, v);
+		}
+
+		double[] result = new double[n];
+		for (int v = 0; v < n; v++)
+			result[v] = Double.longBitsToDouble(dist.get(v));
+		return result;
+	}
+
+	/**
+	 * Równoległa relaksacja krawędzi
+	 *
+	 * @param frontier Relaksowane wierzchołki
+	 * @param light    Czy relaksować krawędzie lekkie (w przeciwnym razie ciężkie)
+	 * @param pool     Pula wątków
+	 * @return Wierzchołki, których odległość zmalała (z możliwymi powtórzeniami)
+	 * @since 1.0
+	 */
+	private int @NotNull [] relax(int @NotNull [] frontier, boolean light, @NotNull ForkJoinPool pool) {
+		return pool.submit(() -> IntStream.of(frontier).parallel().flatMap(u -> {
+			double du = Double.longBitsToDouble(dist.get(u));
+			int from = light ? adjacency.begin(u) : lightEnd[u];
+			int to = light ? lightEnd[u] : adjacency.end(u);
+			IntStream.Builder improved = IntStream.builder();
+			for (int i = from; i < to; i++) {
+				int slot = slots[i];
+				int v = adjacency.target(slot);
+				if (decrease(v, du + adjacency.weight(slot)))
+					improved.add(v);
+			}
+			return improved.build();
+		}).toArray()).join();
+	}
+
+	/**
+	 * Atomowe zmniejszenie odległości
+	 *
+	 * @param v     Indeks wierzchołka
+	 * @param value Nowa odległość
+	 * @return Czy odległość zmalała
+	 * @since 1.0
+	 */
+	private boolean decrease(int v, double value) {
+		long bits = Double.doubleToRawLongBits(value);
+		long current = dist.get(v);
+		while (bits < current) {
+			if (dist.compareAndSet(v, current, bits))
+				return true;
+			current = dist.get(v);
+		}
+		return false;
+	}
+
+	/**
+	 * Dodaje wierzchołek do kubełka odpowiadającego jego odległości
+	 *
+	 * @param buckets Kubełki
+	 * @param queued  Kubełek, w którym wierzchołek już czeka (-1, jeśli żaden)
+	 * @param v       Indeks wierzchołka
+	 * @since 1.0
+	 */
+	private void add(@NotNull TreeMap<Long, int[]> buckets, long @NotNull [] queued, int v) {
+		long bucket = (long) (Double.longBitsToDouble(dist.get(v)) / delta);
+		if (queued[v] == bucket)
+			return;
+		queued[v] = bucket;
+		int[] list = buckets.get(bucket);
+		if (list == null) {
+			list = new int[]{0, 0, 0, 0};
+			buckets.put(bucket, list);
+		} else if (list[0] + 1 == list.length) {
+			list = Arrays.copyOf(list, 2 * list.length);
+			buckets.put(bucket, list);
+		}
+		list[++list[0]] = v;
+	}
+
+	/**
+	 * Wybiera z kubełka wierzchołki, które nadal do niego należą
+	 *
+	 * @param list   Kubełek (pierwszy element to liczba wierzchołków)
+	 * @param bucket Numer kubełka
+	 * @param queued Kubełek, w którym wierzchołek czeka
+	 * @return Wierzchołki kubełka
+	 * @since 1.0
+	 */
+	private int @NotNull [] current(int @NotNull [] list, long bucket, long @NotNull [] queued) {
+		int[] result = new int[list[0]];
+		int size = 0;
+		for (int i = 1; i <= list[0]; i++) {
+			int v = list[i];
+			if (queued[v] == bucket) {
+				queued[v] = -1;
+				result[size++] = v;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+}
@@ -0,0 +1,204 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Pętle trybu gęstego algorytmów Dijkstry i Prima
+ * <p>
+ * Tryb gęsty przechowuje klucze wszystkich wierzchołków w tablicy indeksowanej identyfikatorami i w każdym kroku
+ * wyszukuje najmniejszy klucz oraz relaksuje wszystkie krawędzie wierzchołka odczytane z macierzy wag grafu
+ * ({@link Graph.STORAGE}) — O(V²) bez kolejki priorytetowej.<br>
+ * Wierzchołki już ustalone (i identyfikatory bez wierzchołka) mają klucz NaN, więc nie są ani wybierane, ani poprawiane.
+ * </p>
+ * <p>
+ * Macierz wag przechowuje trójkąt górny: wiersz <code>b</code> zaczyna się w komórce <code>b(b+1)/2</code>
+ * i zawiera wagi do wierzchołków <code>0..b</code>, a brak krawędzi oznacza NaN.
+ * Krawędzie do mniejszych identyfikatorów leżą więc obok siebie, a do większych - w kolejnych wierszach.
+ * </p>
+ * <p>
+ * Pętle po ciągłych fragmentach tablic mogą korzystać z instrukcji SIMD: klasa <code>VectorKernels</code>
+ * (katalog <code>src-vector</code>) jest ładowana, jeżeli została skompilowana, a maszyna wirtualna
+ * uruchomiona z modułem <code>jdk.incubator.vector</code> (<code>--add-modules jdk.incubator.vector</code>).
+ * W przeciwnym razie wykonywane są wersje skalarne. Obie wersje dają ten sam wynik.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.2
+ * @since 2.20
+ */
+public final class DenseKernels {
+	/**
+	 * Pętle na ciągłych fragmentach tablic
+	 *
+	 * @see #load()
+	 * @since 1.1
+	 */
+	private static final Kernels LOOPS = load();
+	/**
+	 * Czy dostępne są instrukcje wektorowe
+	 *
+	 * @since 1.0
+	 */
+	public static final boolean VECTORIZED = !(LOOPS instanceof Scalar);
+	/**
+	 * Największa liczba identyfikatorów, dla której tryb gęsty jest wybierany automatycznie
+	 * <p>
+	 * Powyżej niej przegląd krawędzi do większych identyfikatorów (co wiersz macierzy) przestaje mieścić się w pamięci podręcznej
+	 * i tryb gęsty przegrywa z kolejką priorytetową.
+	 * </p>
+	 *
+	 * @since 1.0
+	 */
+	public static final int DENSE_LIMIT = 768;
+
+	/**
+	 * Konstruktor prywatny (klasa narzędziowa)
+	 *
+	 * @since 1.0
+	 */
+	private DenseKernels() {
+	}
+
+	/**
+	 * Wybiera pętle wektorowe, jeżeli są dostępne
+	 *
+	 * @return Pętle wektorowe lub skalarne
+	 * @since 1.1
+	 */
+	private static @NotNull Kernels load() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				return Class.forName(DenseKernels.class.getPackageName() + ".VectorKernels")
+						.asSubclass(Kernels.class).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError ignored) {
+			}
+		}
+		return new Scalar();
+	}
+
+	/**
+	 * Sprawdza, czy tryb gęsty opłaca się dla grafu
+	 *
+	 * @param n     Liczba wierzchołków grafu
+	 * @param order Największy identyfikator wierzchołka + 1 (długość tablicy kluczy)
+	 * @param edges Liczba krawędzi grafu
+	 * @return Czy krawędzie łączą co najmniej połowę z <code>n(n-1)/2</code> par wierzchołków,
+	 * a tablica kluczy ma najwyżej {@link #DENSE_LIMIT} elementów
+	 * @since 1.2
+	 */
+	public static boolean applicable(int n, int order, int edges) {
+		return n > 1 && order <= DENSE_LIMIT && 4L * edges >= (long) n * (n - 1);
+	}
+
+	/**
+	 * Wyszukuje najmniejszy klucz
+	 *
+	 * @param key Klucze (NaN - wierzchołek ustalony)
+	 * @return Indeks pierwszego najmniejszego skończonego klucza (-1, jeśli brak)
+	 * @since 1.0
+	 */
+	public static int argmin(double @NotNull [] key) {
+		return LOOPS.argmin(key);
+	}
+
+	/**
+	 * Relaksuje krawędzie wierzchołka zapisane w macierzy wag
+	 * <p>
+	 * Dla każdego wierzchołka <code>v</code> połączonego z <code>u</code> krawędzią o wadze <code>w</code>:
+	 * jeżeli <code>base + w &lt; key[v]</code>, klucz jest zmniejszany, a <code>from[v]</code> ustawiany na <code>source</code>.<br>
+	 * Część wiersza <code>u</code> (wierzchołki o mniejszych identyfikatorach) jest ciągła i przeglądana pętlą {@link Kernels},
+	 * pozostałe wagi leżą w kolejnych wierszach.
+	 * </p>
+	 *
+	 * @param key    Klucze według identyfikatora (NaN - wierzchołek ustalony)
+	 * @param matrix Macierz wag grafu (trójkąt górny, NaN - brak krawędzi)
+	 * @param u      Identyfikator wierzchołka
+	 * @param base   Składnik dodawany do wag (koszt dojścia dla Dijkstry, 0 dla Prima)
+	 * @param from   Poprzednicy zapisani jako liczby (<code>null</code>, jeśli niepotrzebni)
+	 * @param source Poprzednik ustawiany przy poprawie klucza
+	 * @since 1.0
+	 */
+	public static void relax(double @NotNull [] key, double @NotNull [] matrix, int u, double base, double[] from, double source) {
+		int row = (int) ((long) u * (u + 1) / 2);
+		LOOPS.relax(key, u, matrix, row, base, from, source);
+		for (int v = u + 1, c = row + 2 * u + 1; v < key.length; c += v + 1, v++) {
+			double alt = base + matrix[c];
+			if (alt < key[v]) {
+				key[v] = alt;
+				if (from != null)
+					from[v] = source;
+			}
+		}
+	}
+
+	/**
+	 * Pętle trybu gęstego na ciągłych fragmentach tablic
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @see #load()
+	 * @since 1.1
+	 */
+	interface Kernels {
+		/**
+		 * Wyszukuje najmniejszy klucz
+		 *
+		 * @param key Klucze (NaN - wierzchołek ustalony)
+		 * @return Indeks pierwszego najmniejszego skończonego klucza (-1, jeśli brak)
+		 * @since 1.0
+		 */
+		int argmin(double @NotNull [] key);
+
+		/**
+		 * Relaksuje początek tablicy kluczy
+		 * <p>
+		 * Dla <code>v &lt; length</code>: jeżeli <code>base + matrix[offset + v] &lt; key[v]</code>,
+		 * klucz jest zmniejszany, a <code>from[v]</code> ustawiany na <code>source</code>.
+		 * </p>
+		 *
+		 * @param key    Klucze (NaN - wierzchołek ustalony)
+		 * @param length Liczba relaksowanych kluczy
+		 * @param matrix Macierz wag
+		 * @param offset Komórka wagi dla pierwszego klucza
+		 * @param base   Składnik dodawany do wag
+		 * @param from   Poprzednicy zapisani jako liczby (<code>null</code>, jeśli niepotrzebni)
+		 * @param source Poprzednik ustawiany przy poprawie klucza
+		 * @since 1.0
+		 */
+		void relax(double @NotNull [] key, int length, double @NotNull [] matrix, int offset, double base, double[] from, double source);
+	}
+
+	/**
+	 * Skalarne pętle trybu gęstego
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @since 1.1
+	 */
+	private static final class Scalar implements Kernels {
+		@Override
+		public int argmin(double @NotNull [] key) {
+			int best = -1;
+			double min = Double.POSITIVE_INFINITY;
+			for (int v = 0; v < key.length; v++)
+				if (key[v] < min) {
+					min = key[v];
+					best = v;
+				}
+			return best;
+		}
+
+		@Override
+		public void relax(double @NotNull [] key, int length, double @NotNull [] matrix, int offset, double base, double[] from, double source) {
+			for (int v = 0; v < length; v++) {
+				double alt = base + matrix[offset + v];
+				if (alt < key[v]) {
+					key[v] = alt;
+					if (from != null)
+						from[v] = source;
+				}
+			}
+		}
+	}
+}
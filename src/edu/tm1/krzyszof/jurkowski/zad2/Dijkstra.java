@@ -10,6 +10,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,7 +19,7 @@ import java.util.regex.Pattern;
  * Klasa implementująca algorytm Dijkstry
  *
  * @author Krzysztof Jurkowski
- * @version 2.5
+ * @version 2.28
  * @see Graph
  * @since zad2
  */
@@ -36,12 +38,33 @@ public class Dijkstra extends Graph {
 	 * @since 2.0
 	 */
 	private ResultVertices resultVertices;
+	/**
+	 * Drzewo najkrótszych ścieżek naprawiane po zmianach krawędzi
+	 *
+	 * @see ShortestPathTree
+	 * @since 2.10
+	 */
+	private ShortestPathTree tree;
 	/**
 	 * Czy został wykonany algorytm Dijkstry?
 	 *
 	 * @since 2.1
 	 */
 	private boolean calculated;
+	/**
+	 * Punkty orientacyjne dla wyszukiwania ALT
+	 *
+	 * @see #calculateLandmarks(int)
+	 * @since 2.6
+	 */
+	private Landmarks landmarks;
+	/**
+	 * Hierarchia skrótów dla wyszukiwania CH
+	 *
+	 * @see #calculateContractionHierarchy()
+	 * @since 2.7
+	 */
+	private ContractionHierarchy hierarchy;
 
 	/**
 	 * Konstruktor pusty
@@ -129,9 +152,10 @@ public class Dijkstra extends Graph {
 			}
 
 			class Match {
-				final Pattern yaml = Pattern.compile("(?<key>\\w): (?<value>.+)");
+				final Pattern yaml = Pattern.compile("(?<key>\\w+): (?<value>.+)");
 				final Pattern vertex = Pattern.compile("(?<id>\\d+)\\(\"(?<name>.*)\"\\)");
-				final Pattern edge = Pattern.compile("(?<v1>\\d+) ---\\|(?<weight>\\d+\\.?\\d*)\\| (?<v2>\\d+)");
+				final Pattern edge = Pattern.compile("(?<v1>\\d+) (?:---|===)\\|(?<weight>\\d+\\.?\\d*(?:E-?\\d+)?)\\| (?<v2>\\d+)");
+				final Pattern coordinates = Pattern.compile("%% xy (?<id>\\d+) (?<x>\\S+) (?<y>\\S+)");
 
 				void yaml(String line) {
 					Matcher m = yaml.matcher(line);
@@ -172,7 +196,19 @@ public class Dijkstra extends Graph {
 					}
 					Integer id = Integer.parseInt(m.group("id"));
 					System.out.printf("\tVertex: %d(%s)\n", id, m.group("name"));
-					dijkstra.vertices.vertices.add(dijkstra.vertices.new Vertex(id, m.group("name")));
+					dijkstra.vertices.add(dijkstra.vertices.new Vertex(id, m.group("name")));
+				}
+
+				void coordinates(String line) {
+					Matcher m = coordinates.matcher(line);
+					if (!m.matches())
+						return;
+					Integer id = Integer.parseInt(m.group("id"));
+					if (!dijkstra.vertices.exists(id)) {
+						System.err.printf("[ERR]Coordinates of unknown vertex: %s\n", line);
+						return;
+					}
+					dijkstra.vertices.setCoordinates(id, Double.parseDouble(m.group("x")), Double.parseDouble(m.group("y")));
 				}
 
 				void edge(String line) {
@@ -195,6 +231,7 @@ public class Dijkstra extends Graph {
 
 			System.out.println("Reading graph...\n");
 			while ((line = reader.readLine()) != null) {
+				line = line.strip();
 				switch (stage) {
 					case start -> {
 						if (line.startsWith("%% "))
@@ -227,20 +264,29 @@ public class Dijkstra extends Graph {
 						System.err.printf("[ERR]Unknown line: %s\n", line);
 					}
 					case vertices -> {
-						if (line.startsWith("%% "))
+						if (line.isEmpty())
+							break;
+						if (line.startsWith("%% ")) {
+							match.coordinates(line);
 							break;
+						}
 
 						if (line.matches(match.edge.pattern())) {
 							stage = Stage.edges;
 							System.out.println("Vertices read!\n\nReading edges...");
-							continue;
+							match.edge(line);
+							break;
 						}
 
 						match.vertex(line);
 					}
 					case edges -> {
-						if (line.startsWith("%% "))
+						if (line.isEmpty() || line.equals("}"))
+							break;
+						if (line.startsWith("%% ")) {
+							match.coordinates(line);
 							break;
+						}
 
 						if (line.matches(match.vertex.pattern())) {
 							System.err.println("[WARN]Vertex found in edges section");
@@ -256,13 +302,21 @@ public class Dijkstra extends Graph {
 			if (dijkstra.src != null)
 				dijkstra.calculateDijkstra();
 		}
+		dijkstra.loadAttachments(file);
 		return dijkstra;
 	}
 
 	/**
 	 * Wykonuje algorytm Dijkstry na grafie.
+	 * <p>
+	 * Działa na reprezentacji sąsiedztwa grafu z kolejką priorytetową w czasie O((V+E) log V).<br>
+	 * Dla nieujemnych wag całkowitych automatycznie wybiera kolejkę kubełkową ({@link BucketDijkstra}),
+	 * a dla grafów prawie pełnych przechowujących macierz wag - tryb gęsty ({@link #calculateDijkstraDense()}).
+	 * </p>
 	 *
 	 * @throws IllegalStateException Wierzchołek źródłowy nie jest ustawiony
+	 * @see ShortestPathTree
+	 * @see #isDense()
 	 * @since 2.0
 	 */
 	public void calculateDijkstra() {
@@ -272,33 +326,159 @@ public class Dijkstra extends Graph {
 			throw new IllegalStateException("Source vertex not set");
 		}
 
-		resultVertices = new ResultVertices(vertices, src);
+		Adjacency adjacency = adjacency();
+		int s = adjacency.index(src);
+		publish(adjacency, isDense() ? dense(adjacency, s) : distances(adjacency, s), s);
+	}
 
-		Set<Integer> Q = new HashSet<>(vertices.getIds());
+	/**
+	 * Wykonuje algorytm Dijkstry na grafie z wybraną kolejką priorytetową
+	 * <p>
+	 * Wynik jest taki sam jak w {@link #calculateDijkstra()}; wybór kolejki wpływa tylko na czas działania.
+	 * </p>
+	 *
+	 * @param queue Rodzaj kolejki priorytetowej
+	 * @throws IllegalStateException Wierzchołek źródłowy nie jest ustawiony
+	 * @see MinQueue.TYPE rodzaje kolejek
+	 * @since 2.14
+	 */
+	public void calculateDijkstra(MinQueue.@NotNull TYPE queue) {
+		if (calculated)
+			return;
+		if (src == null) {
+			throw new IllegalStateException("Source vertex not set");
+		}
 
-		while (!Q.isEmpty()) {
-			Integer u = null;
-			for (Integer id: Q) {
-				if (u == null || resultVertices.getCost(id) < resultVertices.getCost(u)) {
-					u = id;
-				}
-			}
-			Q.remove(u);
-
-			for (Integer v: Q) {
-				if (!edges.exists(u, v))
-					continue;
-				Double alt = resultVertices.getCost(u) + edges.getWeight(u, v);
-				if (alt < resultVertices.getCost(v)) {
-					resultVertices.setCost(v, alt);
-					resultVertices.setPrevious(v, u);
-				}
-			}
+		Adjacency adjacency = adjacency();
+		int s = adjacency.index(src);
+		publish(adjacency, distances(adjacency, s, queue), s);
+	}
+
+	/**
+	 * Wykonuje algorytm Dijkstry na grafie w trybie gęstym
+	 * <p>
+	 * Wynik jest taki sam jak w {@link #calculateDijkstra()}.
+	 * Zamiast kolejki priorytetowej używana jest macierz wag grafu i przegląd wszystkich kluczy,
+	 * z instrukcjami SIMD, jeżeli są dostępne; opłaca się dla grafów prawie pełnych.
+	 * </p>
+	 *
+	 * @throws IllegalStateException Wierzchołek źródłowy nie jest ustawiony lub graf nie przechowuje macierzy wag
+	 * @see Graph.STORAGE
+	 * @see DenseKernels
+	 * @since 2.20
+	 */
+	public void calculateDijkstraDense() {
+		if (calculated)
+			return;
+		if (src == null) {
+			throw new IllegalStateException("Source vertex not set");
 		}
 
+		Adjacency adjacency = adjacency();
+		int s = adjacency.index(src);
+		publish(adjacency, dense(adjacency, s), s);
+	}
+
+	/**
+	 * Wykonuje równoległy algorytm delta-stepping z domyślną szerokością kubełka
+	 *
+	 * @throws IllegalStateException Wierzchołek źródłowy nie jest ustawiony
+	 * @see #calculateDeltaStepping(Double, ForkJoinPool)
+	 * @see DeltaStepping#defaultDelta(Adjacency)
+	 * @since 2.8
+	 */
+	public void calculateDeltaStepping() {
+		calculateDeltaStepping(null, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Wykonuje równoległy algorytm delta-stepping we wspólnej puli wątków
+	 *
+	 * @param delta Szerokość kubełka (<code>null</code> - domyślna)
+	 * @throws IllegalStateException    Wierzchołek źródłowy nie jest ustawiony
+	 * @throws IllegalArgumentException Szerokość kubełka nie jest dodatnia
+	 * @see #calculateDeltaStepping(Double, ForkJoinPool)
+	 * @since 2.8
+	 */
+	public void calculateDeltaStepping(Double delta) {
+		calculateDeltaStepping(delta, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Wykonuje równoległy algorytm delta-stepping
+	 * <p>
+	 * Wynik (koszty i poprzednie wierzchołki) jest taki sam jak w {@link #calculateDijkstra()}.<br>
+	 * Mała szerokość kubełka zbliża algorytm do algorytmu Dijkstry,
+	 * duża - do algorytmu Bellmana-Forda z większą liczbą równoległych relaksacji.
+	 * </p>
+	 *
+	 * @param delta Szerokość kubełka (<code>null</code> - domyślna)
+	 * @param pool  Pula wątków
+	 * @throws IllegalStateException    Wierzchołek źródłowy nie jest ustawiony
+	 * @throws IllegalArgumentException Szerokość kubełka nie jest dodatnia
+	 * @see DeltaStepping
+	 * @since 2.8
+	 */
+	public void calculateDeltaStepping(Double delta, @NotNull ForkJoinPool pool) {
+		if (calculated)
+			return;
+		if (src == null) {
+			throw new IllegalStateException("Source vertex not set");
+		}
+
+		Adjacency adjacency = adjacency();
+		int s = adjacency.index(src);
+		DeltaStepping deltaStepping = new DeltaStepping(adjacency, delta == null ? DeltaStepping.defaultDelta(adjacency) : delta);
+		publish(adjacency, deltaStepping.distances(s, pool), s);
+	}
+
+	/**
+	 * Zapisuje wynik obliczeń jako {@link #resultVertices}
+	 * <p>
+	 * Jeżeli zbiór wierzchołków się nie zmienił, istniejące obiekty wyniku są aktualizowane w miejscu.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param cost      Koszty dojścia według indeksu wierzchołka
+	 * @param s         Indeks wierzchołka źródłowego
+	 * @since 2.8
+	 */
+	private void publish(@NotNull Adjacency adjacency, double @NotNull [] cost, int s) {
+		tree = new ShortestPathTree(adjacency, cost, s);
+		if (resultVertices == null || !resultVertices.refresh(adjacency, tree))
+			resultVertices = new ResultVertices(adjacency, tree);
 		calculated = true;
 	}
 
+	/**
+	 * Zwraca wynik w formacie mermaid dla grafu bez wierzchołka źródłowego
+	 * <p>
+	 * Wszystkie wierzchołki są nieosiągalne, jak w zapisie grafu bez źródła; obliczony wynik i źródło nie są zmieniane.
+	 * </p>
+	 *
+	 * @return Graf w formacie Mermaid
+	 * @see #save(String)
+	 * @since 2.21
+	 */
+	private @NotNull String unreachable() {
+		Adjacency adjacency = adjacency();
+		double[] cost = new double[adjacency.size()];
+		Arrays.fill(cost, Double.POSITIVE_INFINITY);
+		return String.format("graph\n%s", new ResultVertices(adjacency, new ShortestPathTree(adjacency, cost, -1)).mermaid());
+	}
+
+	/**
+	 * Przenosi naprawione fragmenty drzewa do {@link #resultVertices}
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param changed   Indeksy wierzchołków, których wynik mógł się zmienić
+	 * @since 2.10
+	 */
+	private void repaired(@NotNull Adjacency adjacency, int @NotNull [] changed) {
+		for (int v: changed)
+			resultVertices.update(v, tree.cost(v), tree.previous(v) == -1 ? null : adjacency.id(tree.previous(v)));
+	}
+
 	/**
 	 * Wykonuje algorytm Dijkstry na grafie.
 	 * <p>
@@ -315,6 +495,540 @@ public class Dijkstra extends Graph {
 		calculateDijkstra();
 	}
 
+	/**
+	 * Zwraca koszt najkrótszej ścieżki między dwoma wierzchołkami
+	 * <p>
+	 * Nie zmienia wierzchołka źródłowego ani wyniku {@link #calculateDijkstra()}.
+	 * </p>
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param to   Identyfikator wierzchołka końcowego
+	 * @return Koszt ścieżki (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @see #getDistance(Integer, Integer, SEARCH)
+	 * @since 2.6
+	 */
+	public @NotNull Double getDistance(@NotNull Integer from, @NotNull Integer to) {
+		return getDistance(from, to, SEARCH.DIJKSTRA);
+	}
+
+	/**
+	 * Zwraca koszt najkrótszej ścieżki między dwoma wierzchołkami wybraną metodą
+	 * <p>
+	 * Wyszukiwanie kończy się po osiągnięciu wierzchołka końcowego.<br>
+	 * Metody {@link SEARCH#A_STAR} i {@link SEARCH#ALT} kierują wyszukiwanie do celu dolnym ograniczeniem odległości,
+	 * dzięki czemu odwiedzają mniej wierzchołków.
+	 * </p>
+	 *
+	 * @param from   Identyfikator wierzchołka początkowego
+	 * @param to     Identyfikator wierzchołka końcowego
+	 * @param search Metoda wyszukiwania
+	 * @return Koszt ścieżki (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalStateException  Punkty orientacyjne lub hierarchia skrótów nie są wyliczone lub są nieaktualne
+	 * @see SEARCH metody wyszukiwania
+	 * @since 2.6
+	 */
+	public @NotNull Double getDistance(@NotNull Integer from, @NotNull Integer to, @NotNull SEARCH search) {
+		Adjacency adjacency = adjacency();
+		int s = adjacency.index(from);
+		int t = adjacency.index(to);
+		if (search == SEARCH.ALT && (landmarks == null || landmarks.getRevision() != getRevision()))
+			throw new IllegalStateException("Landmarks not calculated or outdated, use calculateLandmarks() first");
+		if (search == SEARCH.CH) {
+			if (hierarchy == null || hierarchy.getRevision() != getRevision())
+				throw new IllegalStateException("Contraction hierarchy not calculated or outdated, use calculateContractionHierarchy() first");
+			return hierarchy.distance(s, t);
+		}
+		return search(adjacency, s, t, search, landmarks);
+	}
+
+	/**
+	 * Zwraca wierzchołki osiągalne z podanego wierzchołka kosztem nie większym od promienia
+	 * <p>
+	 * Wyszukiwanie kończy się po przekroczeniu promienia.<br>
+	 * Nie zmienia wierzchołka źródłowego ani wyniku {@link #calculateDijkstra()}.
+	 * </p>
+	 *
+	 * @param from   Identyfikator wierzchołka początkowego
+	 * @param radius Największy koszt dojścia
+	 * @return Wierzchołki w kolejności rosnącego kosztu (łącznie z początkowym)
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Promień jest ujemny
+	 * @see NearbyVertices
+	 * @since 2.13
+	 */
+	public @NotNull NearbyVertices getVerticesWithin(@NotNull Integer from, double radius) {
+		Adjacency adjacency = adjacency();
+		return new NearbyVertices(adjacency, adjacency.index(from), radius, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Zwraca k wierzchołków najbliższych podanemu wierzchołkowi
+	 * <p>
+	 * Wyszukiwanie kończy się po ustaleniu k wierzchołków.<br>
+	 * Nie zmienia wierzchołka źródłowego ani wyniku {@link #calculateDijkstra()}.
+	 * </p>
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param k    Liczba wierzchołków (łącznie z początkowym)
+	 * @return Wierzchołki w kolejności rosnącego kosztu (mniej niż k, jeśli tyle nie jest osiągalnych)
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Liczba wierzchołków jest ujemna
+	 * @see NearbyVertices
+	 * @since 2.13
+	 */
+	public @NotNull NearbyVertices getNearestVertices(@NotNull Integer from, int k) {
+		Adjacency adjacency = adjacency();
+		return new NearbyVertices(adjacency, adjacency.index(from), Double.POSITIVE_INFINITY, k);
+	}
+
+	/**
+	 * Zwraca wierzchołki w kolejności ustalania przez algorytm Dijkstry
+	 * <p>
+	 * Obliczenia są wykonywane leniwie, w miarę pobierania kolejnych wierzchołków,
+	 * więc przerwanie przeglądania nie wymaga przejścia całego grafu.<br>
+	 * Nie zmienia wierzchołka źródłowego ani wyniku {@link #calculateDijkstra()}.
+	 * </p>
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @return Iterator wierzchołków z kosztem dojścia i poprzednikiem
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @see SettledVertices
+	 * @since 2.16
+	 */
+	public @NotNull SettledVertices getSettledVertices(@NotNull Integer from) {
+		Adjacency adjacency = adjacency();
+		return new SettledVertices(this, adjacency, adjacency.index(from));
+	}
+
+	/**
+	 * Zwraca koszty najkrótszych ścieżek dla wielu par wierzchołków
+	 * <p>
+	 * Wykonywane we wspólnej puli wątków.
+	 * </p>
+	 *
+	 * @param from Identyfikatory wierzchołków początkowych
+	 * @param to   Identyfikatory wierzchołków końcowych
+	 * @return Koszty ścieżek w kolejności par (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Tablice mają różne długości
+	 * @see #getDistances(int[], int[], ForkJoinPool)
+	 * @since 2.12
+	 */
+	public double @NotNull [] getDistances(int @NotNull [] from, int @NotNull [] to) {
+		return getDistances(from, to, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Zwraca koszty najkrótszych ścieżek dla wielu par wierzchołków
+	 * <p>
+	 * Pary o wspólnym wierzchołku początkowym są obsługiwane jednym wyszukiwaniem,
+	 * a grupy są rozdzielane między wątki puli.<br>
+	 * Nie zmienia wierzchołka źródłowego ani wyniku {@link #calculateDijkstra()};
+	 * graf nie może być modyfikowany w trakcie wywołania.
+	 * </p>
+	 *
+	 * @param from Identyfikatory wierzchołków początkowych
+	 * @param to   Identyfikatory wierzchołków końcowych
+	 * @param pool Pula wątków
+	 * @return Koszty ścieżek w kolejności par (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Tablice mają różne długości
+	 * @see ShortestPathBatch
+	 * @since 2.12
+	 */
+	public double @NotNull [] getDistances(int @NotNull [] from, int @NotNull [] to, @NotNull ForkJoinPool pool) {
+		if (from.length != to.length)
+			throw new IllegalArgumentException("Sources and targets must have the same length");
+		Adjacency adjacency = adjacency();
+		int[] sources = new int[from.length];
+		int[] targets = new int[to.length];
+		for (int i = 0; i < from.length; i++) {
+			sources[i] = adjacency.index(from[i]);
+			targets[i] = adjacency.index(to[i]);
+		}
+		return new ShortestPathBatch(adjacency).distances(sources, targets, pool);
+	}
+
+	/**
+	 * Zwraca najkrótsze ścieżki między wszystkimi parami wierzchołków
+	 * <p>
+	 * Wykonywane we wspólnej puli wątków.
+	 * </p>
+	 *
+	 * @return Macierze odległości i następnych wierzchołków
+	 * @throws IllegalArgumentException Graf jest zbyt duży na macierz odległości
+	 * @see #getAllPairs(ForkJoinPool)
+	 * @since 2.19
+	 */
+	public @NotNull AllPairsShortestPaths getAllPairs() {
+		return getAllPairs(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Zwraca najkrótsze ścieżki między wszystkimi parami wierzchołków
+	 * <p>
+	 * Blokowy algorytm Floyda–Warshalla z równoległym przetwarzaniem kafelków; opłaca się dla grafów gęstych.<br>
+	 * Nie zmienia wierzchołka źródłowego ani wyniku {@link #calculateDijkstra()}.
+	 * </p>
+	 *
+	 * @param pool Pula wątków
+	 * @return Macierze odległości i następnych wierzchołków
+	 * @throws IllegalArgumentException Graf jest zbyt duży na macierz odległości
+	 * @see AllPairsShortestPaths
+	 * @since 2.19
+	 */
+	public @NotNull AllPairsShortestPaths getAllPairs(@NotNull ForkJoinPool pool) {
+		return new AllPairsShortestPaths(adjacency(), pool);
+	}
+
+	/**
+	 * Wylicza punkty orientacyjne dla wyszukiwania {@link SEARCH#ALT}
+	 * <p>
+	 * Punkty są wybierane automatycznie, a tablice odległości liczone równolegle.<br>
+	 * Po każdej zmianie grafu punkty trzeba wyliczyć ponownie.
+	 * </p>
+	 *
+	 * @param count Liczba punktów orientacyjnych
+	 * @see Landmarks#select(Adjacency, int)
+	 * @since 2.6
+	 */
+	public void calculateLandmarks(int count) {
+		landmarks = new Landmarks(adjacency(), count, getRevision());
+	}
+
+	/**
+	 * Wylicza tablice dla podanych punktów orientacyjnych
+	 *
+	 * @param ids Identyfikatory punktów orientacyjnych
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @see #calculateLandmarks(int)
+	 * @since 2.6
+	 */
+	public void calculateLandmarks(@NotNull Integer @NotNull ... ids) {
+		Adjacency adjacency = adjacency();
+		int[] indices = new int[ids.length];
+		for (int i = 0; i < ids.length; i++)
+			indices[i] = adjacency.index(ids[i]);
+		landmarks = new Landmarks(adjacency, indices, getRevision());
+	}
+
+	/**
+	 * Wczytuje punkty orientacyjne z pliku
+	 *
+	 * @param file ścieżka pliku
+	 * @throws IOException błąd odczytu lub plik nie pasuje do grafu
+	 * @see Landmarks#load(Path, Adjacency, long)
+	 * @since 2.6
+	 */
+	public void loadLandmarks(@NotNull Path file) throws IOException {
+		landmarks = Landmarks.load(file, adjacency(), getRevision());
+	}
+
+	/**
+	 * Buduje hierarchię skrótów dla wyszukiwania {@link SEARCH#CH}
+	 * <p>
+	 * Kolejność i kontrakcja wierzchołków są wyznaczane równolegle.<br>
+	 * Po każdej zmianie grafu hierarchię trzeba zbudować ponownie.
+	 * </p>
+	 *
+	 * @throws IllegalStateException graf jest zbyt gęsty dla hierarchii skrótów
+	 * @see ContractionHierarchy
+	 * @since 2.7
+	 */
+	public void calculateContractionHierarchy() {
+		hierarchy = new ContractionHierarchy(adjacency(), getRevision());
+	}
+
+	/**
+	 * Wczytuje hierarchię skrótów z pliku
+	 *
+	 * @param file ścieżka pliku
+	 * @throws IOException błąd odczytu lub plik nie pasuje do grafu
+	 * @see ContractionHierarchy#load(Path, Adjacency, long)
+	 * @since 2.7
+	 */
+	public void loadContractionHierarchy(@NotNull Path file) throws IOException {
+		hierarchy = ContractionHierarchy.load(file, adjacency(), getRevision());
+	}
+
+	/**
+	 * Zwraca niezmienną migawkę reprezentacji sąsiedztwa do publikacji
+	 *
+	 * @return Reprezentacja sąsiedztwa, która nie będzie już zmieniana
+	 * @see Graph#snapshot()
+	 * @see ConcurrentDijkstra
+	 * @since 2.18
+	 */
+	@NotNull Adjacency getSnapshot() {
+		return snapshot();
+	}
+
+	/**
+	 * Zwraca punkty orientacyjne, jeżeli są aktualne
+	 *
+	 * @return Punkty orientacyjne (<code>null</code>, jeśli nie zostały wyliczone dla bieżącego grafu)
+	 * @see ConcurrentDijkstra
+	 * @since 2.18
+	 */
+	Landmarks getLandmarks() {
+		return landmarks != null && landmarks.getRevision() == getRevision() ? landmarks : null;
+	}
+
+	/**
+	 * Zwraca hierarchię skrótów, jeżeli jest aktualna
+	 *
+	 * @return Hierarchia skrótów (<code>null</code>, jeśli nie została zbudowana dla bieżącego grafu)
+	 * @see ConcurrentDijkstra
+	 * @since 2.18
+	 */
+	ContractionHierarchy getHierarchy() {
+		return hierarchy != null && hierarchy.getRevision() == getRevision() ? hierarchy : null;
+	}
+
+	/**
+	 * Zwraca ścieżkę pliku z hierarchią skrótów leżącego obok pliku grafu
+	 *
+	 * @param file ścieżka pliku grafu (<code>nazwa.graph.mmd</code>)
+	 * @return ścieżka pliku hierarchii (<code>nazwa.ch</code>)
+	 * @since 2.7
+	 */
+	private static @NotNull Path hierarchyFile(@NotNull Path file) {
+		return sibling(file, ".ch");
+	}
+
+	/**
+	 * Zwraca ścieżkę pliku z punktami orientacyjnymi leżącego obok pliku grafu
+	 *
+	 * @param file ścieżka pliku grafu (<code>nazwa.graph.mmd</code>)
+	 * @return ścieżka pliku punktów orientacyjnych (<code>nazwa.landmarks</code>)
+	 * @since 2.6
+	 */
+	private static @NotNull Path landmarksFile(@NotNull Path file) {
+		return sibling(file, ".landmarks");
+	}
+
+	/**
+	 * Zwraca ścieżkę pliku leżącego obok pliku grafu
+	 *
+	 * @param file      ścieżka pliku grafu (<code>nazwa.graph.mmd</code>)
+	 * @param extension rozszerzenie pliku
+	 * @return ścieżka pliku <code>nazwa.rozszerzenie</code>
+	 * @since 2.7
+	 */
+	private static @NotNull Path sibling(@NotNull Path file, @NotNull String extension) {
+		String name = file.getFileName().toString();
+		if (name.endsWith(".graph.mmd"))
+			name = name.substring(0, name.length() - ".graph.mmd".length());
+		return file.resolveSibling(name + extension);
+	}
+
+	/**
+	 * Wyszukiwanie najkrótszej ścieżki między dwoma wierzchołkami
+	 * <p>
+	 * Wariant A* z kolejką priorytetową i ponownym otwieraniem wierzchołków,
+	 * więc wystarcza heurystyka dopuszczalna (niekoniecznie spójna).<br>
+	 * Korzysta z tablic roboczych wątku, więc nie alokuje pamięci w pętli zapytań.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param s         Indeks wierzchołka początkowego
+	 * @param t         Indeks wierzchołka końcowego
+	 * @param search    Metoda wyszukiwania
+	 * @param landmarks Punkty orientacyjne (dla {@link SEARCH#ALT})
+	 * @return Koszt ścieżki
+	 * @see SearchWorkspace
+	 * @since 2.6
+	 */
+	static double search(@NotNull Adjacency adjacency, int s, int t, @NotNull SEARCH search, Landmarks landmarks) {
+		SearchWorkspace workspace = SearchWorkspace.acquire(adjacency.size());
+		try {
+			MinQueue queue = workspace.queue();
+			workspace.set(s, 0.0, -1);
+			workspace.setValue(s, heuristic(adjacency, s, t, search, landmarks));
+			queue.push(s, workspace.value(s));
+			while (!queue.isEmpty()) {
+				int u = queue.poll();
+				if (u == t)
+					break;
+				double du = workspace.distance(u);
+				for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+					int v = adjacency.target(slot);
+					double alt = du + adjacency.weight(slot);
+					if (alt < workspace.distance(v)) {
+						workspace.set(v, alt, u);
+						if (!workspace.hasValue(v))
+							workspace.setValue(v, heuristic(adjacency, v, t, search, landmarks));
+						if (workspace.value(v) != Double.POSITIVE_INFINITY)
+							queue.push(v, alt + workspace.value(v));
+					}
+				}
+			}
+			return workspace.distance(t);
+		} finally {
+			workspace.release();
+		}
+	}
+
+	/**
+	 * Dolne ograniczenie odległości do celu
+	 * <p>
+	 * Dla {@link SEARCH#A_STAR} jest to odległość euklidesowa (0, jeśli nie wszystkie wierzchołki grafu mają współrzędne),
+	 * dla {@link SEARCH#ALT} ograniczenie z nierówności trójkąta.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param v         Indeks wierzchołka
+	 * @param t         Indeks celu
+	 * @param search    Metoda wyszukiwania
+	 * @param landmarks Punkty orientacyjne (dla {@link SEARCH#ALT})
+	 * @return Dolne ograniczenie odległości
+	 * @since 2.6
+	 */
+	private static double heuristic(@NotNull Adjacency adjacency, int v, int t, @NotNull SEARCH search, Landmarks landmarks) {
+		return switch (search) {
+			case DIJKSTRA, CH ->
+					0.0;
+			case A_STAR ->
+					adjacency.hasCoordinates() ? Math.hypot(adjacency.x(v) - adjacency.x(t), adjacency.y(v) - adjacency.y(t)) : 0.0;
+			case ALT ->
+					landmarks.bound(v, t);
+		};
+	}
+
+	/**
+	 * Odległości od wierzchołka do wszystkich wierzchołków grafu
+	 * <p>
+	 * Gdy wszystkie wagi są nieujemnymi liczbami całkowitymi, używana jest kolejka kubełkowa,
+	 * w przeciwnym razie kolejka wybrana według gęstości grafu.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param s         Indeks wierzchołka źródłowego
+	 * @return Odległości według indeksu wierzchołka
+	 * @see BucketDijkstra
+	 * @see MinQueue.TYPE#AUTO
+	 * @since 2.6
+	 */
+	static double @NotNull [] distances(@NotNull Adjacency adjacency, int s) {
+		return engine(adjacency).apply(s);
+	}
+
+	/**
+	 * Wybiera sposób liczenia odległości od wierzchołka do wszystkich wierzchołków grafu
+	 * <p>
+	 * Wybór jak w {@link #distances(Adjacency, int)}, ale sprawdzenie wag (O(E)) i przygotowanie kolejki kubełkowej
+	 * wykonywane są raz, więc wynik opłaca się przy wielu wyszukiwaniach na tej samej reprezentacji sąsiedztwa.
+	 * Zwrócona funkcja może być wywoływana równolegle z wielu wątków.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu (nie może się zmieniać)
+	 * @return Funkcja zwracająca odległości według indeksu wierzchołka dla indeksu wierzchołka źródłowego
+	 * @see ShortestPathBatch
+	 * @since 2.26
+	 */
+	static @NotNull IntFunction<double[]> engine(@NotNull Adjacency adjacency) {
+		if (BucketDijkstra.applicable(adjacency))
+			return new BucketDijkstra(adjacency)::distances;
+		return s -> distances(adjacency, s, MinQueue.TYPE.AUTO);
+	}
+
+	/**
+	 * Sprawdza, czy opłaca się tryb gęsty
+	 *
+	 * @return Czy graf przechowuje macierz wag i jest prawie pełny
+	 * @see DenseKernels#applicable(int, int, int)
+	 * @since 2.27
+	 */
+	protected boolean isDense() {
+		List<Integer> ids = vertices.getIds();
+		return hasMatrix() && DenseKernels.applicable(ids.size(), ids.stream().mapToInt(Integer::intValue).max().orElse(-1) + 1, edges.getEdges().size());
+	}
+
+	/**
+	 * Klucze trybu gęstego
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @return Klucze według identyfikatora do największego z nich
+	 * (nieskończoność dla wierzchołków, NaN dla identyfikatorów bez wierzchołka)
+	 * @throws IllegalStateException Graf nie przechowuje macierzy wag
+	 * @since 2.27
+	 */
+	protected double @NotNull [] keys(@NotNull Adjacency adjacency) {
+		if (!hasMatrix())
+			throw new IllegalStateException("Adjacency matrix not used, see Graph.STORAGE");
+		int max = -1;
+		for (int i = 0; i < adjacency.size(); i++)
+			max = Math.max(max, adjacency.id(i));
+		double[] key = new double[max + 1];
+		Arrays.fill(key, Double.NaN);
+		for (int i = 0; i < adjacency.size(); i++)
+			key[adjacency.id(i)] = Double.POSITIVE_INFINITY;
+		return key;
+	}
+
+	/**
+	 * Odległości od wierzchołka do wszystkich wierzchołków grafu w trybie gęstym
+	 * <p>
+	 * Każdy krok wybiera wierzchołek o najmniejszym kluczu przeglądem całej tablicy
+	 * i relaksuje wszystkie jego krawędzie z macierzy wag grafu: O(V²), bez kolejki priorytetowej.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param s         Indeks wierzchołka źródłowego
+	 * @return Odległości według indeksu wierzchołka
+	 * @throws IllegalStateException Graf nie przechowuje macierzy wag
+	 * @see DenseKernels
+	 * @since 2.20
+	 */
+	private double @NotNull [] dense(@NotNull Adjacency adjacency, int s) {
+		double[] key = keys(adjacency);
+		double[] matrix = matrix();
+		double[] cost = new double[key.length];
+		Arrays.fill(cost, Double.POSITIVE_INFINITY);
+		key[adjacency.id(s)] = 0.0;
+		for (int u = DenseKernels.argmin(key); u != -1; u = DenseKernels.argmin(key)) {
+			cost[u] = key[u];
+			key[u] = Double.NaN;
+			DenseKernels.relax(key, matrix, u, cost[u], null, 0.0);
+		}
+		double[] dist = new double[adjacency.size()];
+		for (int i = 0; i < dist.length; i++)
+			dist[i] = cost[adjacency.id(i)];
+		return dist;
+	}
+
+	/**
+	 * Odległości od wierzchołka do wszystkich wierzchołków grafu liczone z wybraną kolejką priorytetową
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param s         Indeks wierzchołka źródłowego
+	 * @param type      Rodzaj kolejki
+	 * @return Odległości według indeksu wierzchołka
+	 * @since 2.14
+	 */
+	static double @NotNull [] distances(@NotNull Adjacency adjacency, int s, MinQueue.@NotNull TYPE type) {
+		double[] dist = new double[adjacency.size()];
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		MinQueue queue = type.create(adjacency.size(), adjacency.begin(adjacency.size()));
+		dist[s] = 0.0;
+		queue.push(s, 0.0);
+		while (!queue.isEmpty()) {
+			int u = queue.poll();
+			if (queue.key() > dist[u])
+				continue;
+			for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+				int v = adjacency.target(slot);
+				double alt = dist[u] + adjacency.weight(slot);
+				if (alt < dist[v]) {
+					dist[v] = alt;
+					queue.push(v, alt);
+				}
+			}
+		}
+		return dist;
+	}
+
 	/**
 	 * Konwertuje wynik algorytmu Dijkstry na graf w formacie Mermaid
 	 *
@@ -473,19 +1187,69 @@ public class Dijkstra extends Graph {
 		return resultVertices.getPrevious(id);
 	}
 
+	/**
+	 * Zwraca najkrótszą ścieżkę od wierzchołka źródłowego
+	 * <p>
+	 * Czas O(długość ścieżki), bez przechodzenia przez {@link #getVertexPrevious(Integer)}.
+	 * </p>
+	 *
+	 * @param id Identyfikator wierzchołka końcowego
+	 * @return Identyfikatory kolejnych wierzchołków ścieżki (pusta tablica, jeśli ścieżka nie istnieje)
+	 * @throws NoSuchElementException Wierzchołek o podanym id nie istnieje
+	 * @see #calculateDijkstra()
+	 * @see ShortestPathTree#path(int)
+	 * @since 2.11
+	 */
+	public int @NotNull [] getPath(@NotNull Integer id) {
+		if (!calculated)
+			calculateDijkstra();
+		Adjacency adjacency = adjacency();
+		int[] path = tree.path(adjacency.index(id));
+		for (int i = 0; i < path.length; i++)
+			path[i] = adjacency.id(path[i]);
+		return path;
+	}
+
+	/**
+	 * Zwraca k najkrótszych ścieżek prostych między dwoma wierzchołkami
+	 * <p>
+	 * Nie zmienia wierzchołka źródłowego ani wyniku {@link #calculateDijkstra()}.
+	 * </p>
+	 *
+	 * @param from Identyfikator wierzchołka początkowego
+	 * @param to   Identyfikator wierzchołka końcowego
+	 * @param k    Największa liczba ścieżek
+	 * @return Ścieżki uporządkowane rosnąco według kosztu
+	 * @throws NoSuchElementException   Wierzchołek o podanym id nie istnieje
+	 * @throws IllegalArgumentException Liczba ścieżek nie jest dodatnia
+	 * @see KShortestPaths
+	 * @since 2.11
+	 */
+	public @NotNull KShortestPaths getShortestPaths(@NotNull Integer from, @NotNull Integer to, int k) {
+		Adjacency adjacency = adjacency();
+		return new KShortestPaths(adjacency, adjacency.index(from), adjacency.index(to), k);
+	}
+
 	/**
 	 * Dodaje krawędź do grafu
+	 * <p>
+	 * Obliczony wynik jest naprawiany zamiast liczenia go od nowa.
+	 * </p>
 	 *
 	 * @param v1     Identyfikator wierzchołka 1
 	 * @param v2     Identyfikator wierzchołka 2
 	 * @param weight Waga krawędzi
 	 * @see Edges#create(Integer, Integer, Double)
+	 * @see ShortestPathTree#decrease(Adjacency, int, int, double)
 	 * @since 1.0
 	 */
 	@Override
 	public void addEdge(@NotNull Integer v1, @NotNull Integer v2, @NotNull Double weight) {
 		edges.create(v1, v2, weight);
-		calculated = false;
+		if (calculated) {
+			Adjacency adjacency = adjacency();
+			repaired(adjacency, tree.decrease(adjacency, adjacency.index(v1), adjacency.index(v2), weight));
+		}
 	}
 
 	/**
@@ -508,16 +1272,26 @@ public class Dijkstra extends Graph {
 
 	/**
 	 * Usuwa krawędź z grafu.
+	 * <p>
+	 * Obliczony wynik jest naprawiany zamiast liczenia go od nowa
+	 * (poza <code>v1 == v2</code>, gdy usuwane są wszystkie krawędzie wierzchołka).
+	 * </p>
 	 *
 	 * @param v1 Identyfikator pierwszego wierzchołka
 	 * @param v2 Identyfikator drugiego wierzchołka
 	 * @see Edges#remove(Integer, Integer)
+	 * @see ShortestPathTree#increase(Adjacency, int, int)
 	 * @since 1.0
 	 */
 	@Override
 	public void removeEdge(@NotNull Integer v1, @NotNull Integer v2) {
 		edges.remove(v1, v2);
-		calculated = false;
+		if (v1.equals(v2))
+			calculated = false;
+		else if (calculated) {
+			Adjacency adjacency = adjacency();
+			repaired(adjacency, tree.increase(adjacency, adjacency.index(v1), adjacency.index(v2)));
+		}
 	}
 
 	/**
@@ -554,7 +1328,7 @@ public class Dijkstra extends Graph {
 	 * @since 2.2
 	 */
 	public void setSource(@NotNull Integer source) {
-		if (vertices.exists(source))
+		if (!vertices.exists(source))
 			throw new NoSuchElementException(String.format("Vertex with id %d does not exist", source));
 		src = source;
 		calculated = false;
@@ -562,21 +1336,38 @@ public class Dijkstra extends Graph {
 
 	/**
 	 * Ustawia wagę krawędzi
+	 * <p>
+	 * Obliczony wynik jest naprawiany zamiast liczenia go od nowa
+	 * (poza <code>v1 == v2</code>, gdy zmieniana jest pierwsza krawędź wierzchołka).
+	 * </p>
 	 *
 	 * @param v1     Identyfikator pierwszego wierzchołka
 	 * @param v2     Identyfikator drugiego wierzchołka
 	 * @param weight Nowa waga krawędzi
 	 * @see Edges#setWeight(Integer, Integer, Double)
+	 * @see ShortestPathTree
 	 * @since 2.2
 	 */
 	@Override
 	public void setEdgeWeight(@NotNull Integer v1, @NotNull Integer v2, @NotNull Double weight) {
+		Double old = edges.getWeight(v1, v2);
 		edges.setWeight(v1, v2, weight);
-		calculated = false;
+		if (v1.equals(v2))
+			calculated = false;
+		else if (calculated) {
+			Adjacency adjacency = adjacency();
+			int a = adjacency.index(v1), b = adjacency.index(v2);
+			repaired(adjacency, weight < old ? tree.decrease(adjacency, a, b, weight) : tree.increase(adjacency, a, b));
+		}
 	}
 
 	/**
 	 * Zapis grafu do pliku
+	 * <p>
+	 * Aktualne tablice punktów orientacyjnych i hierarchia skrótów trafiają do plików obok grafu;
+	 * nieaktualne pliki z poprzedniego zapisu są usuwane.<br>
+	 * Współrzędne wierzchołków są dopisywane jako komentarze ({@link #coordinates()}).
+	 * </p>
 	 *
 	 * @param name nazwa pliku
 	 * @throws IOException błąd zapisu
@@ -586,9 +1377,8 @@ public class Dijkstra extends Graph {
 	@Override
 	public void save(@NotNull String name) throws IOException {
 		Path file = Path.of(name + ".graph.mmd");
+		String graph = src == null ? unreachable() : mermaid(Graph.MERMAID.GRAPH);
 		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_16)) {
-			if (src == null)
-				src = 0;
 			String s = String.format("""
 					---
 					title: %s
@@ -596,11 +1386,94 @@ public class Dijkstra extends Graph {
 					src: %d
 					---
 					%s
-					""", name, src, mermaid(Graph.MERMAID.GRAPH));
+					%s""", name, src == null ? 0 : src, graph, coordinates());
 			writer.write(s);
-			if (src == 0)
-				src = null;
 		}
+		saveAttachments(file, name);
+	}
+
+	/**
+	 * Zapisuje punkty orientacyjne i hierarchię skrótów do plików obok grafu
+	 * <p>
+	 * Zapisywane są tylko dane aktualne dla bieżącego grafu; nieaktualne pliki z poprzedniego zapisu są usuwane.
+	 * </p>
+	 *
+	 * @param file ścieżka pliku grafu (<code>nazwa.graph.mmd</code>)
+	 * @param name nazwa grafu
+	 * @throws IOException błąd zapisu
+	 * @see #loadAttachments(Path)
+	 * @since 2.25
+	 */
+	protected void saveAttachments(@NotNull Path file, @NotNull String name) throws IOException {
+		if (landmarks != null && landmarks.getRevision() == getRevision())
+			landmarks.save(landmarksFile(file), name, adjacency());
+		else
+			Files.deleteIfExists(landmarksFile(file));
+		if (hierarchy != null && hierarchy.getRevision() == getRevision())
+			hierarchy.save(hierarchyFile(file), name, adjacency());
+		else
+			Files.deleteIfExists(hierarchyFile(file));
+	}
+
+	/**
+	 * Wczytuje punkty orientacyjne i hierarchię skrótów z plików obok grafu
+	 * <p>
+	 * Brakujące pliki są pomijane, a nieaktualne lub uszkodzone — pomijane z ostrzeżeniem.
+	 * </p>
+	 *
+	 * @param file ścieżka pliku grafu (<code>nazwa.graph.mmd</code>)
+	 * @see #saveAttachments(Path, String)
+	 * @since 2.25
+	 */
+	protected void loadAttachments(@NotNull Path file) {
+		Path landmarks = landmarksFile(file);
+		if (Files.exists(landmarks)) {
+			System.out.println("Reading landmarks...");
+			try {
+				loadLandmarks(landmarks);
+				System.out.println("Landmarks read!");
+			} catch (IOException | NoSuchElementException e) {
+				System.err.printf("[WARN]Landmarks skipped: %s\n", e.getMessage());
+			}
+		}
+		Path hierarchy = hierarchyFile(file);
+		if (Files.exists(hierarchy)) {
+			System.out.println("Reading contraction hierarchy...");
+			try {
+				loadContractionHierarchy(hierarchy);
+				System.out.println("Contraction hierarchy read!");
+			} catch (IOException | NoSuchElementException e) {
+				System.err.printf("[WARN]Contraction hierarchy skipped: %s\n", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Metody wyszukiwania najkrótszej ścieżki między dwoma wierzchołkami
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.2
+	 * @see #getDistance(Integer, Integer, SEARCH)
+	 * @since 2.6
+	 */
+	public enum SEARCH {
+		/**
+		 * Algorytm Dijkstry zatrzymany po osiągnięciu celu
+		 */
+		DIJKSTRA,
+		/**
+		 * A* z odległością euklidesową między współrzędnymi wierzchołków (wymaga wag nie mniejszych od tej odległości;
+		 * jeżeli nie wszystkie wierzchołki mają współrzędne, działa jak {@link #DIJKSTRA})
+		 */
+		A_STAR,
+		/**
+		 * A* z punktami orientacyjnymi i nierównością trójkąta
+		 */
+		ALT,
+		/**
+		 * Dwukierunkowe wyszukiwanie w hierarchii skrótów
+		 */
+		CH
 	}
 
 	/**
@@ -640,7 +1513,7 @@ public class Dijkstra extends Graph {
 	 * </p>
 	 *
 	 * @author Krzysztof Jurkowski
-	 * @version 2.3
+	 * @version 2.7
 	 * @since 2.0
 	 */
 	private class ResultVertices extends Vertices {
@@ -685,6 +1558,68 @@ public class Dijkstra extends Graph {
 			}
 		}
 
+		/**
+		 * Konstruktor z wyniku obliczeń
+		 * <p>
+		 * Tworzy listę wierzchołków w kolejności indeksów reprezentacji sąsiedztwa w czasie O(V).
+		 * </p>
+		 *
+		 * @param adjacency Reprezentacja sąsiedztwa grafu
+		 * @param tree      Drzewo najkrótszych ścieżek
+		 * @since 2.8
+		 */
+		public ResultVertices(@NotNull Adjacency adjacency, @NotNull ShortestPathTree tree) {
+			ids = new ArrayList<>();
+			this.vertices = new ArrayList<>(adjacency.size());
+			List<Vertex> source = Dijkstra.this.vertices.getVertices();
+			for (int v = 0; v < adjacency.size(); v++)
+				vertices.add(new ResultVertex(adjacency.id(v), source.get(v).getName(), tree.cost(v), tree.previous(v) == -1 ? null : adjacency.id(tree.previous(v))));
+			for (int v = 0; v < adjacency.size(); v++)
+				ids.add(adjacency.id(v));
+		}
+
+		/**
+		 * Aktualizuje wszystkie wierzchołki wynikiem nowych obliczeń
+		 * <p>
+		 * Nie tworzy nowych obiektów; działa tylko wtedy, gdy wierzchołki mają te same identyfikatory
+		 * w tej samej kolejności co reprezentacja sąsiedztwa.
+		 * </p>
+		 *
+		 * @param adjacency Reprezentacja sąsiedztwa grafu
+		 * @param tree      Drzewo najkrótszych ścieżek
+		 * @return Czy wierzchołki zostały zaktualizowane
+		 * @see #ResultVertices(Adjacency, ShortestPathTree)
+		 * @since 2.15
+		 */
+		private boolean refresh(@NotNull Adjacency adjacency, @NotNull ShortestPathTree tree) {
+			if (vertices.size() != adjacency.size())
+				return false;
+			for (int v = 0; v < adjacency.size(); v++)
+				if (ids.get(v) != adjacency.id(v))
+					return false;
+			List<Vertex> source = Dijkstra.this.vertices.getVertices();
+			for (int v = 0; v < adjacency.size(); v++) {
+				vertices.get(v).setName(source.get(v).getName());
+				update(v, tree.cost(v), tree.previous(v) == -1 ? null : adjacency.id(tree.previous(v)));
+			}
+			return true;
+		}
+
+		/**
+		 * Aktualizuje wynik wierzchołka
+		 *
+		 * @param v        Indeks wierzchołka w reprezentacji sąsiedztwa
+		 * @param cost     Koszt dojścia do wierzchołka
+		 * @param previous Poprzedni wierzchołek
+		 * @see #ResultVertices(Adjacency, ShortestPathTree)
+		 * @since 2.10
+		 */
+		private void update(int v, double cost, Integer previous) {
+			ResultVertex vertex = vertices.get(v);
+			vertex.setCost(cost);
+			vertex.setPrevious(previous);
+		}
+
 		/**
 		 * Tworzy nowy nienazwany wierzchołek
 		 * <p>
@@ -903,6 +1838,9 @@ public class Dijkstra extends Graph {
 		 * Konwertuje graf na Mermaid.
 		 * <p>
 		 * Wykonuje konwersję wyników na format Mermaid.<br>
+		 * Krawędzie drzewa najkrótszych ścieżek są oznaczane w zbiorze bitów indeksowanym krawędziami
+		 * (przez sloty sąsiedztwa wierzchołka), a pozostałe krawędzie są wypisywane w jednym przejściu listy,
+		 * więc konwersja kosztuje O(V + E).
 		 * </p>
 		 *
 		 * @return Wierzchołki w formacie Mermaid
@@ -912,18 +1850,31 @@ public class Dijkstra extends Graph {
 		 */
 		@Override
 		public @NotNull String mermaid() {
-			StringBuilder vs = new StringBuilder();
-			StringBuilder es = new StringBuilder();
-			Edges edges = new Edges(Dijkstra.this.edges);
+			Adjacency adjacency = adjacency();
+			BitSet tree = new BitSet(adjacency.edgeCount());
+			StringBuilder vs = new StringBuilder(32 * vertices.size());
+			StringBuilder es = new StringBuilder(32 * adjacency.edgeCount());
 			for (ResultVertex v: vertices) {
 				vs.append("\t").append(v.mermaid()).append("\n");
 				if (v.getPrevious() != null) {
-					es.append(String.format("\t%d ===|%f| %d\n", v.getId(), Dijkstra.this.edges.getWeight(v.getId(), v.getPrevious()), v.getPrevious()));
-					edges.remove(v.getId(), v.getPrevious());
+					int u = adjacency.index(v.getId()), p = adjacency.index(v.getPrevious()), first = -1;
+					for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++)
+						if (adjacency.target(slot) == p) {
+							int e = adjacency.edge(slot);
+							tree.set(e);
+							if (first < 0 || e < first)
+								first = e;
+						}
+					if (first < 0)
+						throw new NoSuchElementException(String.format("No edge found between %d and %d", v.getId(), v.getPrevious()));
+					es.append(String.format("\t%d ===|%s| %d\n", v.getId(), adjacency.edgeWeight(first), v.getPrevious()));
 				}
 			}
-			es.append(edges.mermaid());
-			return String.format("%s%s", vs, es);
+			int e = 0;
+			for (Edges.Edge edge: Dijkstra.this.edges.getEdges())
+				if (!tree.get(e++))
+					es.append("\t").append(edge.mermaid()).append("\n");
+			return vs.append(es).toString();
 		}
 
 		/**
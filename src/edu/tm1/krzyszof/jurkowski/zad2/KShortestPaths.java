@@ -0,0 +1,308 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * K najkrótszych ścieżek prostych (algorytm Yena)
+ * <p>
+ * Kolejna ścieżka powstaje z poprzedniej: dla każdego wierzchołka odgałęzienia zachowywany jest prefiks ścieżki,
+ * a dalsza część jest szukana algorytmem Dijkstry z zablokowanymi wierzchołkami prefiksu
+ * i krawędziami, którymi odchodzą od niego już znalezione ścieżki.<br>
+ * Wyszukiwania dla różnych wierzchołków odgałęzienia są od siebie niezależne, więc są wykonywane równolegle,
+ * każde na tablicach roboczych swojego wątku ({@link SearchWorkspace}).
+ * </p>
+ * <p>
+ * Spośród kandydatów o równym koszcie wybierany jest najmniejszy leksykograficznie według indeksów wierzchołków,
+ * a każde wyszukiwanie odgałęzienia jest deterministyczne, więc wynik nie zależy od liczby wątków.<br>
+ * Nie oznacza to porządku leksykograficznego całego wyniku: pierwsza ścieżka pochodzi z drzewa wyszukiwania Dijkstry,
+ * a ścieżka równego kosztu odkryta jako odgałęzienie późniejszej ścieżki trafia za nią.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.2
+ * @see Dijkstra#getShortestPaths(Integer, Integer, int)
+ * @since 2.11
+ */
+public class KShortestPaths {
+	/**
+	 * Ścieżki jako identyfikatory wierzchołków
+	 *
+	 * @since 1.0
+	 */
+	private final int[][] paths;
+	/**
+	 * Koszty ścieżek
+	 *
+	 * @since 1.0
+	 */
+	private final double[] costs;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param s         Indeks wierzchołka początkowego
+	 * @param t         Indeks wierzchołka końcowego
+	 * @param k         Największa liczba ścieżek
+	 * @throws IllegalArgumentException Liczba ścieżek nie jest dodatnia
+	 * @since 1.0
+	 */
+	public KShortestPaths(@NotNull Graph.Adjacency adjacency, int s, int t, int k) {
+		if (k <= 0)
+			throw new IllegalArgumentException("Path count must be positive");
+		List<Candidate> found = new ArrayList<>();
+		PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+		Set<Candidate> seen = new HashSet<>();
+
+		Candidate first = spur(adjacency, new Candidate(new int[]{s}, new double[]{0.0}), 0, t, List.of());
+		if (first != null) {
+			found.add(first);
+			seen.add(first);
+		}
+		while (!found.isEmpty() && found.size() < k) {
+			Candidate previous = found.getLast();
+			List<Candidate> accepted = List.copyOf(found);
+			IntStream.range(0, previous.vertices.length - 1).parallel()
+					.mapToObj(i -> spur(adjacency, previous, i, t, accepted))
+					.filter(Objects::nonNull)
+					.toList()
+					.forEach(c -> {
+						if (seen.add(c))
+							candidates.add(c);
+					});
+			if (candidates.isEmpty())
+				break;
+			found.add(candidates.poll());
+		}
+
+		paths = new int[found.size()][];
+		costs = new double[found.size()];
+		for (int i = 0; i < found.size(); i++) {
+			int[] path = found.get(i).vertices;
+			paths[i] = new int[path.length];
+			for (int j = 0; j < path.length; j++)
+				paths[i][j] = adjacency.id(path[j]);
+			costs[i] = found.get(i).cost();
+		}
+	}
+
+	/**
+	 * Wyszukuje ścieżkę odgałęziającą się od prefiksu ścieżki
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param previous  Ścieżka, od której odgałęzia się nowa ścieżka
+	 * @param i         Pozycja wierzchołka odgałęzienia w ścieżce
+	 * @param t         Indeks wierzchołka końcowego
+	 * @param accepted  Znalezione dotąd ścieżki
+	 * @return Nowa ścieżka (<code>null</code>, jeśli nie istnieje)
+	 * @since 1.0
+	 */
+	private static Candidate spur(@NotNull Graph.Adjacency adjacency, @NotNull Candidate previous, int i, int t, @NotNull List<Candidate> accepted) {
+		int spur = previous.vertices[i];
+		Set<Integer> blockedEdges = new HashSet<>();
+		for (Candidate path: accepted)
+			if (path.vertices.length > i + 1 && Arrays.equals(path.vertices, 0, i + 1, previous.vertices, 0, i + 1))
+				blockedEdges.add(path.edges[i]);
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(adjacency.size());
+		try {
+			for (int j = 0; j < i; j++)
+				workspace.mark(previous.vertices[j]);
+			MinQueue queue = workspace.queue();
+			workspace.set(spur, previous.prefix[i], -1);
+			queue.push(spur, previous.prefix[i]);
+			while (!queue.isEmpty()) {
+				int u = queue.poll();
+				if (u == t)
+					break;
+				double du = queue.key();
+				for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+					int v = adjacency.target(slot);
+					if (workspace.marked(v) || blockedEdges.contains(adjacency.edge(slot)))
+						continue;
+					double alt = du + adjacency.weight(slot);
+					if (alt < workspace.distance(v)) {
+						workspace.set(v, alt, u);
+						queue.push(v, alt);
+					}
+				}
+			}
+			if (workspace.distance(t) == Double.POSITIVE_INFINITY)
+				return null;
+
+			int length = 0;
+			for (int v = t; v != spur; v = workspace.previous(v))
+				length++;
+			int[] vertices = Arrays.copyOf(previous.vertices, i + 1 + length);
+			int[] edges = Arrays.copyOf(previous.edges, i + length);
+			double[] prefix = Arrays.copyOf(previous.prefix, i + 1 + length);
+			for (int v = t, j = i + length; v != spur; v = workspace.previous(v), j--) {
+				vertices[j] = v;
+				edges[j - 1] = via(adjacency, workspace.previous(v), v, blockedEdges);
+				prefix[j] = workspace.distance(v);
+			}
+			return new Candidate(vertices, edges, prefix);
+		} finally {
+			workspace.release();
+		}
+	}
+
+	/**
+	 * Odtwarza krawędź drzewa wyszukiwania prowadzącą do wierzchołka
+	 * <p>
+	 * Spośród krawędzi równoległych wybierana jest pierwsza niezablokowana o najmniejszej wadze.
+	 * </p>
+	 *
+	 * @param adjacency    Reprezentacja sąsiedztwa grafu
+	 * @param u            Indeks poprzednika
+	 * @param v            Indeks wierzchołka
+	 * @param blockedEdges Zablokowane krawędzie
+	 * @return Indeks krawędzi
+	 * @since 1.1
+	 */
+	private static int via(@NotNull Graph.Adjacency adjacency, int u, int v, @NotNull Set<Integer> blockedEdges) {
+		int edge = -1;
+		double best = Double.POSITIVE_INFINITY;
+		for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++)
+			if (adjacency.target(slot) == v && !blockedEdges.contains(adjacency.edge(slot)) && adjacency.weight(slot) < best) {
+				best = adjacency.weight(slot);
+				edge = adjacency.edge(slot);
+			}
+		return edge;
+	}
+
+	/**
+	 * Zwraca liczbę znalezionych ścieżek
+	 *
+	 * @return Liczba ścieżek (mniejsza od żądanej, jeśli więcej ścieżek prostych nie istnieje)
+	 * @since 1.0
+	 */
+	public int count() {
+		return paths.length;
+	}
+
+	/**
+	 * Zwraca ścieżkę
+	 *
+	 * @param i Numer ścieżki (0 - najkrótsza)
+	 * @return Identyfikatory kolejnych wierzchołków ścieżki
+	 * @since 1.0
+	 */
+	public int @NotNull [] path(int i) {
+		return paths[i].clone();
+	}
+
+	/**
+	 * Zwraca koszt ścieżki
+	 *
+	 * @param i Numer ścieżki (0 - najkrótsza)
+	 * @return Koszt ścieżki
+	 * @since 1.0
+	 */
+	public double cost(int i) {
+		return costs[i];
+	}
+
+	/**
+	 * Ścieżka kandydująca
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @since 1.0
+	 */
+	private static class Candidate implements Comparable<Candidate> {
+		/**
+		 * Indeksy kolejnych wierzchołków
+		 *
+		 * @since 1.0
+		 */
+		private final int[] vertices;
+		/**
+		 * Indeksy kolejnych krawędzi
+		 *
+		 * @since 1.0
+		 */
+		private final int[] edges;
+		/**
+		 * Koszty dojścia do kolejnych wierzchołków
+		 *
+		 * @since 1.0
+		 */
+		private final double[] prefix;
+
+		/**
+		 * Konstruktor
+		 *
+		 * @param vertices Indeksy kolejnych wierzchołków
+		 * @param edges    Indeksy kolejnych krawędzi
+		 * @param prefix   Koszty dojścia do kolejnych wierzchołków
+		 * @since 1.0
+		 */
+		private Candidate(int @NotNull [] vertices, int @NotNull [] edges, double @NotNull [] prefix) {
+			this.vertices = vertices;
+			this.edges = edges;
+			this.prefix = prefix;
+		}
+
+		/**
+		 * Konstruktor ścieżki bez krawędzi
+		 *
+		 * @param vertices Indeksy kolejnych wierzchołków
+		 * @param prefix   Koszty dojścia do kolejnych wierzchołków
+		 * @since 1.0
+		 */
+		private Candidate(int @NotNull [] vertices, double @NotNull [] prefix) {
+			this(vertices, new int[0], prefix);
+		}
+
+		/**
+		 * Zwraca koszt ścieżki
+		 *
+		 * @return Koszt ścieżki
+		 * @since 1.0
+		 */
+		private double cost() {
+			return prefix[prefix.length - 1];
+		}
+
+		/**
+		 * Porównuje ścieżki według kosztu, a przy równym koszcie leksykograficznie
+		 *
+		 * @param other Druga ścieżka
+		 * @return Wynik porównania
+		 * @since 1.0
+		 */
+		@Override
+		public int compareTo(@NotNull Candidate other) {
+			int c = Double.compare(cost(), other.cost());
+			return c != 0 ? c : Arrays.compare(vertices, other.vertices);
+		}
+
+		/**
+		 * Porównuje ścieżki według wierzchołków
+		 *
+		 * @param o Obiekt do porównania
+		 * @return Czy ścieżki przechodzą przez te same wierzchołki
+		 * @since 1.0
+		 */
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Candidate other && Arrays.equals(vertices, other.vertices);
+		}
+
+		/**
+		 * Skrót ścieżki
+		 *
+		 * @return Skrót wierzchołków ścieżki
+		 * @since 1.0
+		 */
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(vertices);
+		}
+	}
+}
@@ -0,0 +1,347 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Punkty orientacyjne dla wyszukiwania ALT
+ * <p>
+ * Przechowuje odległości od wybranych wierzchołków (punktów orientacyjnych) do wszystkich wierzchołków grafu.<br>
+ * Z nierówności trójkąta wynika dolne ograniczenie <code>|d(L, t) - d(L, v)| &le; d(v, t)</code>,
+ * które kieruje wyszukiwanie A* do celu bez potrzeby znajomości geometrii grafu.
+ * </p>
+ * <p>
+ * Punkty są wybierane zachłannie jako najdalsze (w liczbie krawędzi) od już wybranych,
+ * a tablice odległości są liczone równolegle, po jednym przebiegu algorytmu Dijkstry na punkt.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.1
+ * @see Dijkstra#calculateLandmarks(int)
+ * @since 2.6
+ */
+public class Landmarks {
+	/**
+	 * Indeksy punktów orientacyjnych
+	 *
+	 * @since 1.0
+	 */
+	private final int[] landmarks;
+	/**
+	 * Odległości od punktów orientacyjnych (wiersz na punkt)
+	 *
+	 * @since 1.0
+	 */
+	private final double[] distances;
+	/**
+	 * Liczba wierzchołków grafu
+	 *
+	 * @since 1.0
+	 */
+	private final int size;
+	/**
+	 * Wersja grafu, dla której wyliczono tablice
+	 *
+	 * @see Graph#getRevision()
+	 * @since 1.0
+	 */
+	private final long revision;
+
+	/**
+	 * Konstruktor wybierający punkty orientacyjne
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param count     Liczba punktów orientacyjnych
+	 * @param revision  Wersja grafu
+	 * @throws IllegalArgumentException Liczba punktów jest ujemna
+	 * @see #select(Graph.Adjacency, int)
+	 * @since 1.0
+	 */
+	public Landmarks(@NotNull Graph.Adjacency adjacency, int count, long revision) {
+		this(adjacency, select(adjacency, count), revision);
+	}
+
+	/**
+	 * Konstruktor z podanymi punktami orientacyjnymi
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param landmarks Indeksy punktów orientacyjnych
+	 * @param revision  Wersja grafu
+	 * @since 1.0
+	 */
+	public Landmarks(@NotNull Graph.Adjacency adjacency, int @NotNull [] landmarks, long revision) {
+		this.landmarks = landmarks.clone();
+		this.size = adjacency.size();
+		this.revision = revision;
+		this.distances = new double[landmarks.length * size];
+		IntStream.range(0, landmarks.length).parallel().forEach(i -> {
+			double[] row = Dijkstra.distances(adjacency, this.landmarks[i]);
+			System.arraycopy(row, 0, distances, i * size, size);
+		});
+	}
+
+	/**
+	 * Konstruktor z wczytanych tablic
+	 *
+	 * @param landmarks Indeksy punktów orientacyjnych
+	 * @param distances Odległości od punktów orientacyjnych
+	 * @param size      Liczba wierzchołków grafu
+	 * @param revision  Wersja grafu
+	 * @since 1.0
+	 */
+	private Landmarks(int @NotNull [] landmarks, double @NotNull [] distances, int size, long revision) {
+		this.landmarks = landmarks;
+		this.distances = distances;
+		this.size = size;
+		this.revision = revision;
+	}
+
+	/**
+	 * Wybiera punkty orientacyjne
+	 * <p>
+	 * Pierwszy punkt to wierzchołek najdalszy od wierzchołka o indeksie 0,
+	 * każdy kolejny to wierzchołek najdalszy od wszystkich dotąd wybranych.<br>
+	 * Odległość jest mierzona liczbą krawędzi (BFS), więc wybór kosztuje O(k(V+E)).<br>
+	 * Wierzchołki nieosiągalne są traktowane jako najdalsze, dzięki czemu każda składowa spójności dostaje punkt.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param count     Liczba punktów orientacyjnych
+	 * @return Indeksy punktów orientacyjnych
+	 * @throws IllegalArgumentException Liczba punktów jest ujemna
+	 * @since 1.0
+	 */
+	public static int @NotNull [] select(@NotNull Graph.Adjacency adjacency, int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("Landmark count must not be negative");
+		int n = adjacency.size();
+		count = Math.min(count, n);
+		int[] selected = new int[count];
+		if (count == 0)
+			return selected;
+
+		int[] hops = new int[n];
+		Arrays.fill(hops, Integer.MAX_VALUE);
+		int[] bfs = new int[n];
+		int next = farthest(bfs(adjacency, 0, bfs));
+		for (int i = 0; i < count; i++) {
+			selected[i] = next;
+			if (i == count - 1)
+				break;
+			bfs(adjacency, next, bfs);
+			for (int v = 0; v < n; v++)
+				hops[v] = Math.min(hops[v], bfs[v]);
+			next = farthest(hops);
+		}
+		return selected;
+	}
+
+	/**
+	 * Przeszukiwanie wszerz
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param source    Indeks wierzchołka startowego
+	 * @param hops      Tablica na liczby krawędzi od wierzchołka startowego
+	 * @return Tablica <code>hops</code>
+	 * @since 1.0
+	 */
+	private static int @NotNull [] bfs(@NotNull Graph.Adjacency adjacency, int source, int @NotNull [] hops) {
+		Arrays.fill(hops, Integer.MAX_VALUE);
+		int[] queue = new int[adjacency.size()];
+		int head = 0, tail = 0;
+		hops[source] = 0;
+		queue[tail++] = source;
+		while (head < tail) {
+			int u = queue[head++];
+			for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+				int v = adjacency.target(slot);
+				if (hops[v] == Integer.MAX_VALUE) {
+					hops[v] = hops[u] + 1;
+					queue[tail++] = v;
+				}
+			}
+		}
+		return hops;
+	}
+
+	/**
+	 * Zwraca indeks największej wartości
+	 *
+	 * @param hops Liczby krawędzi
+	 * @return Indeks najdalszego wierzchołka
+	 * @since 1.0
+	 */
+	private static int farthest(int @NotNull [] hops) {
+		int far = 0;
+		for (int v = 1; v < hops.length; v++)
+			if (hops[v] > hops[far])
+				far = v;
+		return far;
+	}
+
+	/**
+	 * Dolne ograniczenie odległości
+	 *
+	 * @param v Indeks wierzchołka
+	 * @param t Indeks celu
+	 * @return Dolne ograniczenie odległości z <code>v</code> do <code>t</code>
+	 * (nieskończoność, jeśli <code>t</code> na pewno jest nieosiągalny)
+	 * @since 1.0
+	 */
+	public double bound(int v, int t) {
+		double best = 0.0;
+		for (int i = 0; i < landmarks.length; i++) {
+			double dv = distances[i * size + v];
+			double dt = distances[i * size + t];
+			if (dv == Double.POSITIVE_INFINITY && dt == Double.POSITIVE_INFINITY)
+				continue;
+			if (dv == Double.POSITIVE_INFINITY || dt == Double.POSITIVE_INFINITY)
+				return Double.POSITIVE_INFINITY;
+			best = Math.max(best, Math.abs(dt - dv));
+		}
+		return best;
+	}
+
+	/**
+	 * Zwraca liczbę punktów orientacyjnych
+	 *
+	 * @return Liczba punktów orientacyjnych
+	 * @since 1.0
+	 */
+	public int count() {
+		return landmarks.length;
+	}
+
+	/**
+	 * Zwraca indeks punktu orientacyjnego
+	 *
+	 * @param i Numer punktu
+	 * @return Indeks wierzchołka
+	 * @since 1.0
+	 */
+	public int landmark(int i) {
+		return landmarks[i];
+	}
+
+	/**
+	 * Zwraca wersję grafu, dla której wyliczono tablice
+	 *
+	 * @return Wersja grafu
+	 * @see #revision
+	 * @since 1.0
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Zapis tablic do pliku
+	 * <p>
+	 * Format: nagłówek YAML z listą punktów i odciskiem grafu ({@link Graph.Adjacency#fingerprint()}),
+	 * a następnie wiersz <code>id: d1 d2 ...</code> dla każdego wierzchołka.
+	 * </p>
+	 *
+	 * @param file      ścieżka pliku
+	 * @param name      nazwa grafu
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @throws IOException błąd zapisu
+	 * @see #load(Path, Graph.Adjacency, long)
+	 * @since 1.0
+	 */
+	public void save(@NotNull Path file, @NotNull String name, @NotNull Graph.Adjacency adjacency) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_16)) {
+			StringBuilder ids = new StringBuilder();
+			for (int l: landmarks)
+				ids.append(' ').append(adjacency.id(l));
+			writer.write(String.format("""
+					---
+					title: %s
+					zad: 2
+					fingerprint: %d
+					landmarks:%s
+					---
+					""", name, adjacency.fingerprint(), ids));
+			StringBuilder sb = new StringBuilder();
+			for (int v = 0; v < size; v++) {
+				sb.setLength(0);
+				sb.append(adjacency.id(v)).append(':');
+				for (int i = 0; i < landmarks.length; i++)
+					sb.append(' ').append(distances[i * size + v]);
+				writer.write(sb.append('\n').toString());
+			}
+		}
+	}
+
+	/**
+	 * Wczytuje tablice z pliku
+	 * <p>
+	 * Plik jest odrzucany, jeżeli jego odcisk grafu nie zgadza się z bieżącym grafem
+	 * (np. tablice wyliczono przed zmianą wag).
+	 * </p>
+	 *
+	 * @param file      ścieżka pliku
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param revision  Wersja grafu
+	 * @return Wczytane punkty orientacyjne
+	 * @throws IOException błąd odczytu lub plik nie pasuje do grafu
+	 * @see #save(Path, String, Graph.Adjacency)
+	 * @since 1.0
+	 */
+	public static @NotNull Landmarks load(@NotNull Path file, @NotNull Graph.Adjacency adjacency, long revision) throws IOException {
+		Pattern header = Pattern.compile("landmarks:(?<ids>( \\d+)*)");
+		Pattern fingerprint = Pattern.compile("fingerprint: (?<value>-?\\d+)");
+		Pattern row = Pattern.compile("(?<id>\\d+):(?<distances>( \\S+)*)");
+		int n = adjacency.size();
+		int[] landmarks = null;
+		double[] distances = null;
+		boolean[] read = new boolean[n];
+		int rows = 0;
+		boolean matching = false;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_16)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				Matcher m = fingerprint.matcher(line);
+				if (m.matches()) {
+					matching = Long.parseLong(m.group("value")) == adjacency.fingerprint();
+					if (!matching)
+						break;
+					continue;
+				}
+				m = header.matcher(line);
+				if (m.matches()) {
+					String ids = m.group("ids").trim();
+					landmarks = ids.isEmpty() ? new int[0] : Arrays.stream(ids.split(" ")).mapToInt(id -> adjacency.index(Integer.parseInt(id))).toArray();
+					distances = new double[landmarks.length * n];
+					continue;
+				}
+				m = row.matcher(line);
+				if (!m.matches() || landmarks == null)
+					continue;
+				int v = adjacency.index(Integer.parseInt(m.group("id")));
+				String[] values = m.group("distances").trim().split(" ");
+				if (values.length != landmarks.length || landmarks.length == 0 && !values[0].isEmpty())
+					throw new IOException(String.format("Landmark row for vertex %s has wrong length", m.group("id")));
+				for (int i = 0; i < landmarks.length; i++)
+					distances[i * n + v] = Double.parseDouble(values[i]);
+				if (!read[v]) {
+					read[v] = true;
+					rows++;
+				}
+			}
+		}
+		if (!matching || landmarks == null || rows != n)
+			throw new IOException("Landmarks file does not match the graph");
+		return new Landmarks(landmarks, distances, n, revision);
+	}
+}
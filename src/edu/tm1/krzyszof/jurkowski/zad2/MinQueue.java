@@ -0,0 +1,545 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Kolejka priorytetowa wierzchołków
+ * <p>
+ * Wspólny interfejs kolejek używanych przez algorytmy Dijkstry i Prima.
+ * Elementami są indeksy wierzchołków <code>0..n-1</code>, a kluczami liczby zmiennoprzecinkowe.
+ * </p>
+ * <p>
+ * Kolejki indeksowane zmniejszają klucz elementu w miejscu.
+ * Kolejka {@link TYPE#BINARY} dodaje kolejny wpis, więc po {@link #poll()} wywołujący porównuje
+ * {@link #key()} z aktualnym kluczem elementu i pomija wpisy nieaktualne.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.0
+ * @see TYPE rodzaje kolejek
+ * @since 2.14
+ */
+public interface MinQueue {
+	/**
+	 * Dodaje element lub zmniejsza jego klucz
+	 * <p>
+	 * Klucz większy od bieżącego klucza elementu jest ignorowany.
+	 * </p>
+	 *
+	 * @param item Indeks wierzchołka
+	 * @param key  Klucz
+	 * @since 1.0
+	 */
+	void push(int item, double key);
+
+	/**
+	 * Usuwa element o najmniejszym kluczu
+	 *
+	 * @return Indeks wierzchołka
+	 * @see #key()
+	 * @since 1.0
+	 */
+	int poll();
+
+	/**
+	 * Zwraca klucz ostatnio usuniętego elementu
+	 *
+	 * @return Klucz
+	 * @since 1.0
+	 */
+	double key();
+
+	/**
+	 * Sprawdza, czy kolejka jest pusta
+	 *
+	 * @return Czy kolejka jest pusta
+	 * @since 1.0
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Opróżnia kolejkę w czasie proporcjonalnym do liczby pozostałych elementów
+	 *
+	 * @since 1.0
+	 */
+	void clear();
+
+	/**
+	 * Rodzaje kolejek
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @see #create(int, int)
+	 * @since 1.0
+	 */
+	enum TYPE {
+		/**
+		 * Kopiec binarny bez zmniejszania klucza (z nieaktualnymi wpisami)
+		 */
+		BINARY,
+		/**
+		 * Indeksowany kopiec d-arny, d równe średniemu stopniowi wierzchołka (od 2 do 64)
+		 */
+		D_ARY,
+		/**
+		 * Indeksowany kopiec parujący
+		 */
+		PAIRING,
+		/**
+		 * Indeksowany kopiec 4-arny
+		 */
+		INDEXED_4_ARY,
+		/**
+		 * Wybór według gęstości grafu: {@link #INDEXED_4_ARY} dla grafów rzadkich, {@link #D_ARY} dla gęstych
+		 */
+		AUTO;
+
+		/**
+		 * Średni stopień, powyżej którego {@link #AUTO} wybiera {@link #D_ARY}
+		 *
+		 * @since 1.0
+		 */
+		public static final int DENSE_DEGREE = 16;
+
+		/**
+		 * Tworzy kolejkę
+		 *
+		 * @param n     Liczba wierzchołków
+		 * @param slots Liczba slotów sąsiedztwa (dwa na krawędź)
+		 * @return Pusta kolejka
+		 * @since 1.0
+		 */
+		public @NotNull MinQueue create(int n, int slots) {
+			int degree = slots / Math.max(1, n);
+			return switch (this) {
+				case BINARY ->
+						new BinaryHeap();
+				case D_ARY ->
+						new IndexedHeap(n, Math.clamp(degree, 2, 64));
+				case PAIRING ->
+						new PairingHeap(n);
+				case INDEXED_4_ARY ->
+						new IndexedHeap(n, 4);
+				case AUTO ->
+						(degree > DENSE_DEGREE ? D_ARY : INDEXED_4_ARY).create(n, slots);
+			};
+		}
+	}
+
+	/**
+	 * Kopiec binarny na tablicach prostych bez zmniejszania klucza
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @see TYPE#BINARY
+	 * @since 1.0
+	 */
+	final class BinaryHeap implements MinQueue {
+		/**
+		 * Elementy kopca
+		 *
+		 * @since 1.0
+		 */
+		private int[] items = new int[16];
+		/**
+		 * Klucze kopca
+		 *
+		 * @since 1.0
+		 */
+		private double[] keys = new double[16];
+		/**
+		 * Liczba wpisów
+		 *
+		 * @since 1.0
+		 */
+		private int size;
+		/**
+		 * Klucz ostatnio usuniętego elementu
+		 *
+		 * @since 1.0
+		 */
+		private double last;
+
+		@Override
+		public void push(int item, double key) {
+			if (size == items.length) {
+				items = Arrays.copyOf(items, 2 * size);
+				keys = Arrays.copyOf(keys, 2 * size);
+			}
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (keys[parent] <= key)
+					break;
+				items[i] = items[parent];
+				keys[i] = keys[parent];
+				i = parent;
+			}
+			items[i] = item;
+			keys[i] = key;
+		}
+
+		@Override
+		public int poll() {
+			int top = items[0];
+			last = keys[0];
+			int item = items[--size];
+			double key = keys[size];
+			int i = 0;
+			while (true) {
+				int c = 2 * i + 1;
+				if (c >= size)
+					break;
+				if (c + 1 < size && keys[c + 1] < keys[c])
+					c++;
+				if (keys[c] >= key)
+					break;
+				items[i] = items[c];
+				keys[i] = keys[c];
+				i = c;
+			}
+			items[i] = item;
+			keys[i] = key;
+			return top;
+		}
+
+		@Override
+		public double key() {
+			return last;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return size == 0;
+		}
+
+		@Override
+		public void clear() {
+			size = 0;
+		}
+	}
+
+	/**
+	 * Indeksowany kopiec d-arny na tablicach prostych
+	 * <p>
+	 * Pozycja każdego elementu w kopcu jest zapamiętana, więc zmniejszenie klucza przesuwa element w górę w miejscu.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @see TYPE#D_ARY
+	 * @see TYPE#INDEXED_4_ARY
+	 * @since 1.0
+	 */
+	final class IndexedHeap implements MinQueue {
+		/**
+		 * Liczba dzieci węzła
+		 *
+		 * @since 1.0
+		 */
+		private final int d;
+		/**
+		 * Elementy kopca
+		 *
+		 * @since 1.0
+		 */
+		private final int[] heap;
+		/**
+		 * Pozycje elementów w kopcu (-1, jeśli element nie jest w kopcu)
+		 *
+		 * @since 1.0
+		 */
+		private final int[] position;
+		/**
+		 * Klucze elementów
+		 *
+		 * @since 1.0
+		 */
+		private final double[] keys;
+		/**
+		 * Liczba elementów
+		 *
+		 * @since 1.0
+		 */
+		private int size;
+		/**
+		 * Klucz ostatnio usuniętego elementu
+		 *
+		 * @since 1.0
+		 */
+		private double last;
+
+		/**
+		 * Konstruktor
+		 *
+		 * @param n Liczba wierzchołków
+		 * @param d Liczba dzieci węzła
+		 * @throws IllegalArgumentException Liczba dzieci jest mniejsza od 2
+		 * @since 1.0
+		 */
+		public IndexedHeap(int n, int d) {
+			if (d < 2)
+				throw new IllegalArgumentException("Heap arity must be at least 2");
+			this.d = d;
+			heap = new int[n];
+			position = new int[n];
+			keys = new double[n];
+			Arrays.fill(position, -1);
+		}
+
+		@Override
+		public void push(int item, double key) {
+			int i = position[item];
+			if (i == -1)
+				i = size++;
+			else if (key >= keys[item])
+				return;
+			keys[item] = key;
+			while (i > 0) {
+				int parent = (i - 1) / d;
+				if (keys[heap[parent]] <= key)
+					break;
+				heap[i] = heap[parent];
+				position[heap[i]] = i;
+				i = parent;
+			}
+			heap[i] = item;
+			position[item] = i;
+		}
+
+		@Override
+		public int poll() {
+			int top = heap[0];
+			last = keys[top];
+			position[top] = -1;
+			int item = heap[--size];
+			if (size == 0)
+				return top;
+			double key = keys[item];
+			int i = 0;
+			while (true) {
+				int first = d * i + 1;
+				if (first >= size)
+					break;
+				int c = first;
+				for (int j = first + 1; j < Math.min(first + d, size); j++)
+					if (keys[heap[j]] < keys[heap[c]])
+						c = j;
+				if (keys[heap[c]] >= key)
+					break;
+				heap[i] = heap[c];
+				position[heap[i]] = i;
+				i = c;
+			}
+			heap[i] = item;
+			position[item] = i;
+			return top;
+		}
+
+		@Override
+		public double key() {
+			return last;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return size == 0;
+		}
+
+		@Override
+		public void clear() {
+			for (int i = 0; i < size; i++)
+				position[heap[i]] = -1;
+			size = 0;
+		}
+	}
+
+	/**
+	 * Indeksowany kopiec parujący na tablicach prostych
+	 * <p>
+	 * Zmniejszenie klucza odcina poddrzewo elementu i łączy je z korzeniem w czasie O(1),
+	 * usunięcie minimum łączy dzieci korzenia dwuprzebiegowo.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @see TYPE#PAIRING
+	 * @since 1.0
+	 */
+	final class PairingHeap implements MinQueue {
+		/**
+		 * Klucze elementów
+		 *
+		 * @since 1.0
+		 */
+		private final double[] keys;
+		/**
+		 * Pierwsze dziecko elementu (-1, jeśli brak)
+		 *
+		 * @since 1.0
+		 */
+		private final int[] child;
+		/**
+		 * Następne rodzeństwo elementu (-1, jeśli brak)
+		 *
+		 * @since 1.0
+		 */
+		private final int[] sibling;
+		/**
+		 * Poprzednie rodzeństwo lub rodzic elementu (-1 dla korzenia)
+		 *
+		 * @since 1.0
+		 */
+		private final int[] left;
+		/**
+		 * Czy element jest w kopcu
+		 *
+		 * @since 1.0
+		 */
+		private final boolean[] contained;
+		/**
+		 * Tablica pomocnicza do łączenia dzieci korzenia
+		 *
+		 * @since 1.0
+		 */
+		private final int[] pairs;
+		/**
+		 * Korzeń (-1, jeśli kopiec jest pusty)
+		 *
+		 * @since 1.0
+		 */
+		private int root = -1;
+		/**
+		 * Klucz ostatnio usuniętego elementu
+		 *
+		 * @since 1.0
+		 */
+		private double last;
+
+		/**
+		 * Konstruktor
+		 *
+		 * @param n Liczba wierzchołków
+		 * @since 1.0
+		 */
+		public PairingHeap(int n) {
+			keys = new double[n];
+			child = new int[n];
+			sibling = new int[n];
+			left = new int[n];
+			contained = new boolean[n];
+			pairs = new int[n];
+		}
+
+		@Override
+		public void push(int item, double key) {
+			if (contained[item]) {
+				if (key >= keys[item])
+					return;
+				keys[item] = key;
+				if (item == root)
+					return;
+				cut(item);
+			} else {
+				contained[item] = true;
+				keys[item] = key;
+				child[item] = -1;
+			}
+			sibling[item] = left[item] = -1;
+			root = meld(root, item);
+		}
+
+		@Override
+		public int poll() {
+			int top = root;
+			last = keys[top];
+			contained[top] = false;
+			int count = 0;
+			for (int c = child[top]; c != -1; ) {
+				int next = sibling[c];
+				sibling[c] = left[c] = -1;
+				pairs[count++] = c;
+				c = next;
+			}
+			int merged = 0;
+			for (int i = 0; i + 1 < count; i += 2)
+				pairs[merged++] = meld(pairs[i], pairs[i + 1]);
+			if (count % 2 == 1)
+				pairs[merged++] = pairs[count - 1];
+			root = -1;
+			for (int i = merged - 1; i >= 0; i--)
+				root = meld(pairs[i], root);
+			return top;
+		}
+
+		/**
+		 * Łączy dwa kopce
+		 *
+		 * @param a Korzeń pierwszego kopca (-1, jeśli pusty)
+		 * @param b Korzeń drugiego kopca (-1, jeśli pusty)
+		 * @return Korzeń połączonego kopca
+		 * @since 1.0
+		 */
+		private int meld(int a, int b) {
+			if (a == -1)
+				return b;
+			if (b == -1)
+				return a;
+			if (keys[b] < keys[a]) {
+				int t = a;
+				a = b;
+				b = t;
+			}
+			sibling[b] = child[a];
+			if (child[a] != -1)
+				left[child[a]] = b;
+			left[b] = a;
+			child[a] = b;
+			return a;
+		}
+
+		/**
+		 * Odcina poddrzewo elementu od rodzica
+		 *
+		 * @param item Element
+		 * @since 1.0
+		 */
+		private void cut(int item) {
+			int l = left[item];
+			if (child[l] == item)
+				child[l] = sibling[item];
+			else
+				sibling[l] = sibling[item];
+			if (sibling[item] != -1)
+				left[sibling[item]] = l;
+		}
+
+		@Override
+		public double key() {
+			return last;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return root == -1;
+		}
+
+		@Override
+		public void clear() {
+			if (root == -1)
+				return;
+			int[] stack = pairs;
+			int size = 0;
+			stack[size++] = root;
+			while (size > 0) {
+				int x = stack[--size];
+				contained[x] = false;
+				for (int c = child[x]; c != -1; c = sibling[c])
+					stack[size++] = c;
+			}
+			root = -1;
+		}
+	}
+}
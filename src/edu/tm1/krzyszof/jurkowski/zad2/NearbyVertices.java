@@ -0,0 +1,118 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Wierzchołki najbliższe źródłu
+ * <p>
+ * Wyszukiwanie Dijkstry zatrzymywane po przekroczeniu promienia lub po ustaleniu k wierzchołków.<br>
+ * Korzysta z tablic roboczych wątku czyszczonych znacznikami ({@link SearchWorkspace}),
+ * więc koszt zapytania zależy od liczby odwiedzonych wierzchołków, a nie od rozmiaru grafu.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.1
+ * @see Dijkstra#getVerticesWithin(Integer, double)
+ * @see Dijkstra#getNearestVertices(Integer, int)
+ * @since 2.13
+ */
+public class NearbyVertices {
+	/**
+	 * Identyfikatory wierzchołków w kolejności rosnącego kosztu
+	 *
+	 * @since 1.0
+	 */
+	private final int[] ids;
+	/**
+	 * Koszty dojścia do wierzchołków
+	 *
+	 * @since 1.0
+	 */
+	private final double[] costs;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param s         Indeks wierzchołka źródłowego
+	 * @param radius    Największy koszt dojścia
+	 * @param k         Największa liczba wierzchołków
+	 * @throws IllegalArgumentException Promień jest ujemny lub liczba wierzchołków jest ujemna
+	 * @since 1.0
+	 */
+	public NearbyVertices(@NotNull Graph.Adjacency adjacency, int s, double radius, int k) {
+		if (radius < 0.0 || Double.isNaN(radius))
+			throw new IllegalArgumentException("Radius must not be negative");
+		if (k < 0)
+			throw new IllegalArgumentException("Vertex count must not be negative");
+		int[] found = new int[Math.min(k, 16)];
+		double[] cost = new double[found.length];
+		int size = 0;
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(adjacency.size());
+		try {
+			MinQueue queue = workspace.queue();
+			if (k > 0) {
+				workspace.set(s, 0.0, -1);
+				queue.push(s, 0.0);
+			}
+			while (!queue.isEmpty()) {
+				int u = queue.poll();
+				double du = queue.key();
+				if (size == found.length) {
+					found = Arrays.copyOf(found, Math.min(k, 2 * size));
+					cost = Arrays.copyOf(cost, found.length);
+				}
+				found[size] = adjacency.id(u);
+				cost[size++] = du;
+				if (size == k)
+					break;
+				for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+					int v = adjacency.target(slot);
+					double alt = du + adjacency.weight(slot);
+					if (alt <= radius && alt < workspace.distance(v)) {
+						workspace.set(v, alt, u);
+						queue.push(v, alt);
+					}
+				}
+			}
+		} finally {
+			workspace.release();
+		}
+		ids = Arrays.copyOf(found, size);
+		costs = Arrays.copyOf(cost, size);
+	}
+
+	/**
+	 * Zwraca liczbę znalezionych wierzchołków
+	 *
+	 * @return Liczba wierzchołków
+	 * @since 1.0
+	 */
+	public int count() {
+		return ids.length;
+	}
+
+	/**
+	 * Zwraca identyfikatory znalezionych wierzchołków
+	 *
+	 * @return Identyfikatory w kolejności rosnącego kosztu (źródło jako pierwsze)
+	 * @since 1.0
+	 */
+	public int @NotNull [] ids() {
+		return ids.clone();
+	}
+
+	/**
+	 * Zwraca koszty dojścia do znalezionych wierzchołków
+	 *
+	 * @return Koszty w kolejności {@link #ids()}
+	 * @since 1.0
+	 */
+	public double @NotNull [] costs() {
+		return costs.clone();
+	}
+}
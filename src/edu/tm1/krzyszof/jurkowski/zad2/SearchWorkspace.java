@@ -0,0 +1,264 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Tablice robocze wyszukiwania wielokrotnego użytku
+ * <p>
+ * Każdy wątek ma własny zestaw tablic (odległości, poprzednicy, wartości pomocnicze, znaczniki) i kolejkę priorytetową.<br>
+ * Wpis jest ważny tylko wtedy, gdy jego znacznik jest równy bieżącej generacji,
+ * więc przygotowanie do kolejnego wyszukiwania kosztuje O(1) plus opróżnienie kolejki, a nie O(V).
+ * Po rozgrzaniu pętla zapytań nie alokuje pamięci na tablice robocze.
+ * </p>
+ * <p>
+ * Zestaw jest pobierany przez {@link #acquire(int)} i oddawany przez {@link #release()};
+ * zagnieżdżone pobranie w tym samym wątku dostaje nowy, tymczasowy zestaw.
+ * Wyszukiwanie, które może zostać porzucone bez oddania tablic (np. leniwe przeglądanie),
+ * tworzy własny zestaw przez {@link #allocate(int)}.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.1
+ * @since 2.15
+ */
+public final class SearchWorkspace {
+	/**
+	 * Zestawy tablic wątków
+	 *
+	 * @since 1.0
+	 */
+	private static final ThreadLocal<SearchWorkspace> workspaces = ThreadLocal.withInitial(SearchWorkspace::new);
+	/**
+	 * Odległości
+	 *
+	 * @since 1.0
+	 */
+	private double[] dist = new double[0];
+	/**
+	 * Wartości pomocnicze (np. heurystyka)
+	 *
+	 * @since 1.0
+	 */
+	private double[] value = new double[0];
+	/**
+	 * Poprzednicy
+	 *
+	 * @since 1.0
+	 */
+	private int[] prev = new int[0];
+	/**
+	 * Znaczniki odległości i poprzedników
+	 *
+	 * @since 1.0
+	 */
+	private int[] stamp = new int[0];
+	/**
+	 * Znaczniki oznaczeń
+	 *
+	 * @since 1.0
+	 */
+	private int[] mark = new int[0];
+	/**
+	 * Znaczniki wartości pomocniczych
+	 *
+	 * @since 1.0
+	 */
+	private int[] valueStamp = new int[0];
+	/**
+	 * Kolejka priorytetowa
+	 *
+	 * @since 1.0
+	 */
+	private MinQueue queue = new MinQueue.IndexedHeap(0, 4);
+	/**
+	 * Bieżąca generacja
+	 *
+	 * @since 1.0
+	 */
+	private int generation;
+	/**
+	 * Czy zestaw jest używany
+	 *
+	 * @since 1.0
+	 */
+	private boolean used;
+
+	/**
+	 * Pobiera zestaw tablic bieżącego wątku przygotowany do nowego wyszukiwania
+	 *
+	 * @param n Liczba wierzchołków
+	 * @return Zestaw tablic (trzeba go oddać przez {@link #release()})
+	 * @since 1.0
+	 */
+	public static @NotNull SearchWorkspace acquire(int n) {
+		SearchWorkspace workspace = workspaces.get();
+		if (workspace.used)
+			workspace = new SearchWorkspace();
+		workspace.used = true;
+		workspace.reset(n);
+		return workspace;
+	}
+
+	/**
+	 * Tworzy osobny zestaw tablic niezwiązany z wątkiem
+	 * <p>
+	 * Zestaw nie musi być oddawany - po zakończeniu wyszukiwania jest zwalniany razem z właścicielem.
+	 * </p>
+	 *
+	 * @param n Liczba wierzchołków
+	 * @return Zestaw tablic przygotowany do wyszukiwania
+	 * @since 1.1
+	 */
+	public static @NotNull SearchWorkspace allocate(int n) {
+		SearchWorkspace workspace = new SearchWorkspace();
+		workspace.used = true;
+		workspace.reset(n);
+		return workspace;
+	}
+
+	/**
+	 * Oddaje zestaw tablic
+	 *
+	 * @since 1.0
+	 */
+	public void release() {
+		used = false;
+	}
+
+	/**
+	 * Przygotowuje tablice do nowego wyszukiwania
+	 * <p>
+	 * Tablice są przydzielane od nowa tylko wtedy, gdy są za małe,
+	 * więc zapytania na przemian o grafy różnej wielkości korzystają z tablic największego z nich.
+	 * </p>
+	 *
+	 * @param n Liczba wierzchołków
+	 * @since 1.0
+	 */
+	private void reset(int n) {
+		if (dist.length < n) {
+			dist = new double[n];
+			value = new double[n];
+			prev = new int[n];
+			stamp = new int[n];
+			mark = new int[n];
+			valueStamp = new int[n];
+			queue = new MinQueue.IndexedHeap(n, 4);
+			generation = 0;
+		} else
+			queue.clear();
+		if (++generation == 0) {
+			Arrays.fill(stamp, 0);
+			Arrays.fill(mark, 0);
+			Arrays.fill(valueStamp, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Zwraca kolejkę priorytetową (indeksowany kopiec 4-arny)
+	 *
+	 * @return Pusta na początku wyszukiwania kolejka
+	 * @since 1.0
+	 */
+	public @NotNull MinQueue queue() {
+		return queue;
+	}
+
+	/**
+	 * Zwraca odległość wierzchołka
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Odległość (nieskończoność, jeśli nie była ustawiona)
+	 * @since 1.0
+	 */
+	public double distance(int v) {
+		return stamp[v] == generation ? dist[v] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Zwraca poprzednika wierzchołka
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Indeks poprzednika (-1, jeśli nie był ustawiony)
+	 * @since 1.0
+	 */
+	public int previous(int v) {
+		return stamp[v] == generation ? prev[v] : -1;
+	}
+
+	/**
+	 * Ustawia odległość i poprzednika wierzchołka
+	 *
+	 * @param v        Indeks wierzchołka
+	 * @param distance Odległość
+	 * @param previous Indeks poprzednika
+	 * @since 1.0
+	 */
+	public void set(int v, double distance, int previous) {
+		stamp[v] = generation;
+		dist[v] = distance;
+		prev[v] = previous;
+	}
+
+	/**
+	 * Sprawdza, czy wierzchołek ma wartość pomocniczą
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Czy wartość była ustawiona
+	 * @since 1.0
+	 */
+	public boolean hasValue(int v) {
+		return valueStamp[v] == generation;
+	}
+
+	/**
+	 * Zwraca wartość pomocniczą wierzchołka
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Wartość (ważna, jeśli {@link #hasValue(int)})
+	 * @since 1.0
+	 */
+	public double value(int v) {
+		return value[v];
+	}
+
+	/**
+	 * Ustawia wartość pomocniczą wierzchołka
+	 *
+	 * @param v     Indeks wierzchołka
+	 * @param value Wartość
+	 * @since 1.0
+	 */
+	public void setValue(int v, double value) {
+		valueStamp[v] = generation;
+		this.value[v] = value;
+	}
+
+	/**
+	 * Sprawdza, czy wierzchołek jest oznaczony
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Czy wierzchołek jest oznaczony
+	 * @since 1.0
+	 */
+	public boolean marked(int v) {
+		return mark[v] == generation;
+	}
+
+	/**
+	 * Oznacza wierzchołek
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Czy wierzchołek nie był wcześniej oznaczony
+	 * @since 1.0
+	 */
+	public boolean mark(int v) {
+		if (mark[v] == generation)
+			return false;
+		mark[v] = generation;
+		return true;
+	}
+}
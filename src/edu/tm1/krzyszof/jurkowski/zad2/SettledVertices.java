@@ -0,0 +1,235 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Leniwe przeglądanie wierzchołków w kolejności ustalania przez algorytm Dijkstry
+ * <p>
+ * Każde wywołanie {@link #next()} ustala jeden wierzchołek i relaksuje tylko jego krawędzie,
+ * więc przerwanie przeglądania po kilku wierzchołkach kosztuje tyle, ile zostało obejrzane.<br>
+ * Wierzchołki są zwracane w kolejności niemalejącego kosztu dojścia;
+ * przy ścieżkach równego kosztu poprzednikiem jest pierwszy znaleziony wierzchołek.
+ * </p>
+ * <p>
+ * Graf nie może się zmieniać w trakcie przeglądania;
+ * zmiana jest wykrywana przy następnym pobraniu ({@link ConcurrentModificationException}).
+ * </p>
+ * <p>
+ * Stan wyszukiwania jest trzymany we własnym zestawie tablic roboczych ({@link SearchWorkspace#allocate(int)}),
+ * niezwiązanym z tablicami wątku, więc przeglądanie przerwane bez zamknięcia
+ * (np. <code>stream().limit(k)</code>) nie blokuje ich innym wyszukiwaniom.
+ * Tablice są zwalniane po zwróceniu ostatniego wierzchołka albo przez {@link #close()}.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.2
+ * @see Dijkstra#getSettledVertices(Integer)
+ * @since 2.16
+ */
+public class SettledVertices implements Iterator<SettledVertices.Settled>, AutoCloseable {
+	/**
+	 * Przeglądany graf
+	 *
+	 * @since 1.0
+	 */
+	private final Graph graph;
+	/**
+	 * Licznik modyfikacji grafu w chwili rozpoczęcia
+	 *
+	 * @since 1.0
+	 */
+	private final long revision;
+	/**
+	 * Reprezentacja sąsiedztwa grafu
+	 *
+	 * @since 1.0
+	 */
+	private final Graph.Adjacency adjacency;
+	/**
+	 * Tablice robocze (koszty, poprzednicy, ustalone wierzchołki i kolejka; <code>null</code> po zakończeniu)
+	 *
+	 * @since 1.1
+	 */
+	private SearchWorkspace workspace;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param graph     Przeglądany graf
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param s         Indeks wierzchołka źródłowego
+	 * @since 1.0
+	 */
+	public SettledVertices(@NotNull Graph graph, @NotNull Graph.Adjacency adjacency, int s) {
+		this.graph = graph;
+		this.revision = graph.getRevision();
+		this.adjacency = adjacency;
+		workspace = SearchWorkspace.allocate(adjacency.size());
+		workspace.set(s, 0.0, -1);
+		workspace.queue().push(s, 0.0);
+	}
+
+	/**
+	 * Sprawdza, czy został jeszcze osiągalny wierzchołek
+	 *
+	 * @return Czy jest kolejny wierzchołek
+	 * @since 1.0
+	 */
+	@Override
+	public boolean hasNext() {
+		if (workspace != null && workspace.queue().isEmpty())
+			close();
+		return workspace != null;
+	}
+
+	/**
+	 * Ustala kolejny wierzchołek
+	 *
+	 * @return Wierzchołek z kosztem dojścia i poprzednikiem
+	 * @throws NoSuchElementException          Wszystkie osiągalne wierzchołki zostały już zwrócone
+	 * @throws ConcurrentModificationException Graf zmienił się w trakcie przeglądania
+	 * @since 1.0
+	 */
+	@Override
+	public @NotNull Settled next() {
+		if (graph.getRevision() != revision)
+			throw new ConcurrentModificationException("Graph modified during iteration");
+		if (!hasNext())
+			throw new NoSuchElementException("No more reachable vertices");
+		MinQueue queue = workspace.queue();
+		int u = queue.poll();
+		double du = queue.key();
+		workspace.mark(u);
+		for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+			int v = adjacency.target(slot);
+			if (workspace.marked(v))
+				continue;
+			double alt = du + adjacency.weight(slot);
+			if (workspace.previous(v) < 0 || alt < workspace.distance(v)) {
+				workspace.set(v, alt, u);
+				queue.push(v, alt);
+			}
+		}
+		int previous = workspace.previous(u);
+		return new Settled(adjacency.id(u), du, previous < 0 ? null : adjacency.id(previous));
+	}
+
+	/**
+	 * Kończy przeglądanie i zwalnia tablice robocze
+	 * <p>
+	 * Kolejne wywołania nic nie robią; po zamknięciu {@link #hasNext()} zwraca <code>false</code>.
+	 * </p>
+	 *
+	 * @since 1.1
+	 */
+	@Override
+	public void close() {
+		workspace = null;
+	}
+
+	/**
+	 * Zwraca strumień kolejnych wierzchołków
+	 * <p>
+	 * Strumień jest sekwencyjny i korzysta z tego samego stanu co iterator;
+	 * zamknięcie strumienia zamyka iterator.
+	 * </p>
+	 *
+	 * @return Strumień wierzchołków w kolejności ustalania
+	 * @since 1.0
+	 */
+	public @NotNull Stream<Settled> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false).onClose(this::close);
+	}
+
+	/**
+	 * Ustalony wierzchołek
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @since 1.0
+	 */
+	public static final class Settled {
+		/**
+		 * Identyfikator wierzchołka
+		 *
+		 * @since 1.0
+		 */
+		private final int id;
+		/**
+		 * Koszt dojścia do wierzchołka
+		 *
+		 * @since 1.0
+		 */
+		private final double cost;
+		/**
+		 * Identyfikator poprzedniego wierzchołka
+		 *
+		 * @since 1.0
+		 */
+		private final Integer previous;
+
+		/**
+		 * Konstruktor
+		 *
+		 * @param id       Identyfikator wierzchołka
+		 * @param cost     Koszt dojścia do wierzchołka
+		 * @param previous Identyfikator poprzedniego wierzchołka (<code>null</code> dla źródła)
+		 * @since 1.0
+		 */
+		private Settled(int id, double cost, Integer previous) {
+			this.id = id;
+			this.cost = cost;
+			this.previous = previous;
+		}
+
+		/**
+		 * Zwraca identyfikator wierzchołka
+		 *
+		 * @return Identyfikator wierzchołka
+		 * @since 1.0
+		 */
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * Zwraca koszt dojścia do wierzchołka
+		 *
+		 * @return Koszt dojścia
+		 * @since 1.0
+		 */
+		public double getCost() {
+			return cost;
+		}
+
+		/**
+		 * Zwraca poprzedni wierzchołek na najkrótszej ścieżce
+		 *
+		 * @return Identyfikator poprzedniego wierzchołka (<code>null</code> dla źródła)
+		 * @since 1.0
+		 */
+		public Integer getPrevious() {
+			return previous;
+		}
+
+		/**
+		 * Zwraca opis wierzchołka
+		 *
+		 * @return Identyfikator, koszt i poprzednik
+		 * @since 1.0
+		 */
+		@Override
+		public String toString() {
+			return String.format("%d (%s) <- %s", id, cost, previous);
+		}
+	}
+}
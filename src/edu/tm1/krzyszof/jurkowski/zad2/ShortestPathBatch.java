@@ -0,0 +1,151 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Wsadowe zapytania o odległości między parami wierzchołków
+ * <p>
+ * Pary są grupowane według wierzchołka początkowego, a dla każdej grupy wykonywane jest jedno wyszukiwanie,
+ * zatrzymywane po osiągnięciu wszystkich celów grupy.<br>
+ * Grupy są rozdzielane między wątki puli; każdy wątek ma własne tablice robocze
+ * i tylko czyta reprezentację sąsiedztwa, więc nie korzysta ze stanu obiektu {@link Dijkstra}.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.2
+ * @see Dijkstra#getDistances(int[], int[])
+ * @since 2.12
+ */
+public class ShortestPathBatch {
+	/**
+	 * Reprezentacja sąsiedztwa grafu
+	 *
+	 * @since 1.0
+	 */
+	private final Graph.Adjacency adjacency;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu (nie może się zmieniać w trakcie zapytań)
+	 * @since 1.0
+	 */
+	public ShortestPathBatch(@NotNull Graph.Adjacency adjacency) {
+		this.adjacency = adjacency;
+	}
+
+	/**
+	 * Odległości dla par wierzchołków
+	 *
+	 * @param sources Indeksy wierzchołków początkowych
+	 * @param targets Indeksy wierzchołków końcowych
+	 * @param pool    Pula wątków
+	 * @return Odległości w kolejności par (nieskończoność, jeśli ścieżka nie istnieje)
+	 * @throws IllegalArgumentException Tablice mają różne długości
+	 * @since 1.0
+	 */
+	public double @NotNull [] distances(int @NotNull [] sources, int @NotNull [] targets, @NotNull ForkJoinPool pool) {
+		if (sources.length != targets.length)
+			throw new IllegalArgumentException("Sources and targets must have the same length");
+		int q = sources.length;
+		double[] result = new double[q];
+		if (q == 0)
+			return result;
+
+		long[] keys = new long[q];
+		for (int i = 0; i < q; i++)
+			keys[i] = (long) sources[i] << 32 | i;
+		Arrays.parallelSort(keys);
+		int[] order = new int[q];
+		for (int i = 0; i < q; i++)
+			order[i] = (int) keys[i];
+		int[] starts = new int[q + 1];
+		int groups = 0;
+		for (int i = 0; i < q; i++)
+			if (i == 0 || sources[order[i]] != sources[order[i - 1]])
+				starts[groups++] = i;
+		starts[groups] = q;
+		int[] bounds = Arrays.copyOf(starts, groups + 1);
+		IntFunction<double[]> engine = IntStream.range(0, groups).anyMatch(g -> whole(bounds[g + 1] - bounds[g])) ? Dijkstra.engine(adjacency) : null;
+
+		pool.submit(() -> IntStream.range(0, bounds.length - 1).parallel().forEach(g -> {
+			int from = bounds[g];
+			group(sources[order[from]], order, from, bounds[g + 1], targets, result, engine);
+		})).join();
+		return result;
+	}
+
+	/**
+	 * Sprawdza, czy dla grupy opłaca się liczyć odległości do całego grafu
+	 *
+	 * @param size Liczba par w grupie
+	 * @return Czy grupa ma co najmniej 1/8 tylu celów, ile graf ma wierzchołków
+	 * @since 1.2
+	 */
+	private boolean whole(int size) {
+		return 8L * size >= adjacency.size();
+	}
+
+	/**
+	 * Wyszukiwanie dla jednej grupy par
+	 * <p>
+	 * Jeżeli grupa ma wiele celów, liczone są odległości do całego grafu
+	 * sposobem wybranym raz dla całego wsadu ({@link Dijkstra#engine(Graph.Adjacency)}, z kolejką kubełkową dla wag całkowitych),
+	 * w przeciwnym razie wyszukiwanie na tablicach roboczych wątku ({@link SearchWorkspace})
+	 * kończy się po osiągnięciu ostatniego celu.
+	 * </p>
+	 *
+	 * @param s       Indeks wierzchołka początkowego
+	 * @param order   Numery par uporządkowane według wierzchołka początkowego
+	 * @param from    Początek grupy w <code>order</code>
+	 * @param to      Koniec grupy w <code>order</code>
+	 * @param targets Indeksy wierzchołków końcowych
+	 * @param result  Odległości w kolejności par (uzupełniane dla par grupy)
+	 * @param engine  Sposób liczenia odległości do całego grafu (<code>null</code>, jeśli żadna grupa go nie potrzebuje)
+	 * @since 1.0
+	 */
+	private void group(int s, int @NotNull [] order, int from, int to, int @NotNull [] targets, double @NotNull [] result, IntFunction<double[]> engine) {
+		int n = adjacency.size();
+		if (whole(to - from)) {
+			double[] dist = engine.apply(s);
+			for (int i = from; i < to; i++)
+				result[order[i]] = dist[targets[order[i]]];
+			return;
+		}
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(n);
+		try {
+			int remaining = 0;
+			for (int i = from; i < to; i++)
+				if (workspace.mark(targets[order[i]]))
+					remaining++;
+			MinQueue queue = workspace.queue();
+			workspace.set(s, 0.0, -1);
+			queue.push(s, 0.0);
+			while (!queue.isEmpty()) {
+				int u = queue.poll();
+				double du = queue.key();
+				if (workspace.marked(u) && --remaining == 0)
+					break;
+				for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+					int v = adjacency.target(slot);
+					double alt = du + adjacency.weight(slot);
+					if (alt < workspace.distance(v)) {
+						workspace.set(v, alt, u);
+						queue.push(v, alt);
+					}
+				}
+			}
+			for (int i = from; i < to; i++)
+				result[order[i]] = workspace.distance(targets[order[i]]);
+		} finally {
+			workspace.release();
+		}
+	}
+}
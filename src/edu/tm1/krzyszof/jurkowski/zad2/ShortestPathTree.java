@@ -0,0 +1,453 @@
+package edu.tm1.krzyszof.jurkowski.zad2;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Drzewo najkrótszych ścieżek z naprawą po zmianach krawędzi
+ * <p>
+ * Przechowuje odległości i poprzedników według indeksu wierzchołka oraz listy dzieci każdego wierzchołka.<br>
+ * Po zmianie jednej krawędzi naprawiana jest tylko część drzewa, której zmiana dotyczy
+ * (w stylu algorytmu Ramalingama-Repsa):
+ * </p>
+ * <ul>
+ * <li>zmniejszenie wagi lub dodanie krawędzi - algorytm Dijkstry startujący z końca krawędzi, który się przybliżył,</li>
+ * <li>zwiększenie wagi lub usunięcie krawędzi drzewa - poddrzewo pod krawędzią jest odcinane
+ * i ponownie dołączane od jego brzegu.</li>
+ * </ul>
+ * <p>
+ * Poprzednicy są wyznaczani jedną regułą zależną tylko od odległości,
+ * więc wynik naprawy jest identyczny z pełnym przeliczeniem.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.1
+ * @see Dijkstra#setEdgeWeight(Integer, Integer, Double)
+ * @since 2.10
+ */
+public class ShortestPathTree {
+	/**
+	 * Indeks wierzchołka źródłowego
+	 *
+	 * @since 1.0
+	 */
+	private final int source;
+	/**
+	 * Odległości według indeksu wierzchołka
+	 *
+	 * @since 1.0
+	 */
+	private final double[] dist;
+	/**
+	 * Indeksy poprzednich wierzchołków (-1, jeśli brak)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] prev;
+	/**
+	 * Pierwsze dziecko wierzchołka (-1, jeśli brak)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] child;
+	/**
+	 * Następne rodzeństwo wierzchołka (-1, jeśli brak)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] next;
+	/**
+	 * Poprzednie rodzeństwo wierzchołka (-1, jeśli brak)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] back;
+	/**
+	 * Znaczniki odwiedzin przy naprawie
+	 *
+	 * @since 1.0
+	 */
+	private final int[] stamp;
+	/**
+	 * Bieżący znacznik odwiedzin
+	 *
+	 * @since 1.0
+	 */
+	private int generation;
+	/**
+	 * Czy któryś wierzchołek jest osiągalny tylko krawędziami o wadze 0 od wierzchołków w tej samej odległości
+	 * <p>
+	 * Poprzednicy takich wierzchołków zależą od całego grafu, więc są wtedy zawsze wyznaczani od nowa.
+	 * </p>
+	 *
+	 * @since 1.0
+	 */
+	private boolean plateaus;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param dist      Odległości według indeksu wierzchołka
+	 * @param source    Indeks wierzchołka źródłowego
+	 * @since 1.0
+	 */
+	public ShortestPathTree(@NotNull Graph.Adjacency adjacency, double @NotNull [] dist, int source) {
+		int n = adjacency.size();
+		this.source = source;
+		this.dist = dist;
+		prev = new int[n];
+		child = new int[n];
+		next = new int[n];
+		back = new int[n];
+		stamp = new int[n];
+		predecessors(adjacency);
+	}
+
+	/**
+	 * Zwraca odległość wierzchołka od źródła
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Odległość (nieskończoność, jeśli wierzchołek jest nieosiągalny)
+	 * @since 1.0
+	 */
+	public double cost(int v) {
+		return dist[v];
+	}
+
+	/**
+	 * Zwraca poprzedni wierzchołek
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Indeks poprzedniego wierzchołka (-1 dla źródła i wierzchołków nieosiągalnych)
+	 * @since 1.0
+	 */
+	public int previous(int v) {
+		return prev[v];
+	}
+
+	/**
+	 * Zwraca ścieżkę od źródła do wierzchołka
+	 * <p>
+	 * Czas O(długość ścieżki).
+	 * </p>
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Indeksy kolejnych wierzchołków ścieżki (pusta tablica, jeśli wierzchołek jest nieosiągalny)
+	 * @since 1.1
+	 */
+	public int @NotNull [] path(int v) {
+		if (dist[v] == Double.POSITIVE_INFINITY)
+			return new int[0];
+		int length = 1;
+		for (int u = v; prev[u] != -1; u = prev[u])
+			length++;
+		int[] path = new int[length];
+		for (int u = v, i = length - 1; i >= 0; u = prev[u], i--)
+			path[i] = u;
+		return path;
+	}
+
+	/**
+	 * Zwraca liczbę wierzchołków
+	 *
+	 * @return Liczba wierzchołków
+	 * @since 1.0
+	 */
+	public int size() {
+		return dist.length;
+	}
+
+	/**
+	 * Wyznacza wszystkich poprzedników od nowa
+	 * <p>
+	 * Poprzednikiem wierzchołka jest sąsiad o najmniejszym indeksie, który leży bliżej źródła
+	 * i przez którego prowadzi najkrótsza ścieżka.<br>
+	 * Wierzchołki osiągalne jedynie krawędziami o wadze 0 od wierzchołków w tej samej odległości
+	 * dostają poprzednika w przeszukiwaniu wszerz od wierzchołków już rozstrzygniętych.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @see #predecessor(Graph.Adjacency, int)
+	 * @since 1.0
+	 */
+	private void predecessors(@NotNull Graph.Adjacency adjacency) {
+		int n = dist.length;
+		plateaus = false;
+		for (int v = 0; v < n; v++) {
+			prev[v] = predecessor(adjacency, v);
+			plateaus |= unresolved(v);
+		}
+		if (plateaus) {
+			int[] queue = new int[n];
+			int head = 0, tail = 0;
+			for (int v = 0; v < n; v++)
+				if (v == source || prev[v] != -1)
+					queue[tail++] = v;
+			while (head < tail) {
+				int u = queue[head++];
+				for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+					int v = adjacency.target(slot);
+					if (unresolved(v) && dist[u] + adjacency.weight(slot) == dist[v]) {
+						prev[v] = u;
+						queue[tail++] = v;
+					}
+				}
+			}
+		}
+		Arrays.fill(child, -1);
+		for (int v = n - 1; v >= 0; v--) {
+			next[v] = back[v] = -1;
+			if (prev[v] != -1)
+				link(v);
+		}
+	}
+
+	/**
+	 * Poprzednik wierzchołka wyznaczony z odległości sąsiadów
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param v         Indeks wierzchołka
+	 * @return Indeks poprzednika (-1, jeśli żaden sąsiad nie leży bliżej źródła na najkrótszej ścieżce)
+	 * @since 1.0
+	 */
+	private int predecessor(@NotNull Graph.Adjacency adjacency, int v) {
+		int best = -1;
+		if (v == source || dist[v] == Double.POSITIVE_INFINITY)
+			return best;
+		for (int slot = adjacency.begin(v); slot < adjacency.end(v); slot++) {
+			int u = adjacency.target(slot);
+			if (dist[u] < dist[v] && dist[u] + adjacency.weight(slot) == dist[v] && (best == -1 || u < best))
+				best = u;
+		}
+		return best;
+	}
+
+	/**
+	 * Sprawdza, czy osiągalny wierzchołek nie ma jeszcze poprzednika
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Czy wierzchołek wymaga rozstrzygnięcia przeszukiwaniem wszerz
+	 * @since 1.0
+	 */
+	private boolean unresolved(int v) {
+		return v != source && prev[v] == -1 && dist[v] != Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Dołącza wierzchołek do listy dzieci jego poprzednika
+	 *
+	 * @param v Indeks wierzchołka
+	 * @since 1.0
+	 */
+	private void link(int v) {
+		int p = prev[v];
+		back[v] = -1;
+		next[v] = child[p];
+		if (child[p] != -1)
+			back[child[p]] = v;
+		child[p] = v;
+	}
+
+	/**
+	 * Odłącza wierzchołek od listy dzieci jego poprzednika
+	 *
+	 * @param v Indeks wierzchołka
+	 * @since 1.0
+	 */
+	private void unlink(int v) {
+		if (back[v] != -1)
+			next[back[v]] = next[v];
+		else
+			child[prev[v]] = next[v];
+		if (next[v] != -1)
+			back[next[v]] = back[v];
+		next[v] = back[v] = -1;
+	}
+
+	/**
+	 * Naprawa po zmniejszeniu wagi lub dodaniu krawędzi
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu (już po zmianie)
+	 * @param u         Indeks pierwszego wierzchołka krawędzi
+	 * @param v         Indeks drugiego wierzchołka krawędzi
+	 * @param weight    Nowa waga krawędzi
+	 * @return Indeksy wierzchołków, których odległość lub poprzednik mógł się zmienić (z możliwymi powtórzeniami)
+	 * @since 1.0
+	 */
+	public int @NotNull [] decrease(@NotNull Graph.Adjacency adjacency, int u, int v, double weight) {
+		int[] region = new int[]{u, v};
+		int size = 2;
+		mark();
+		visit(u);
+		visit(v);
+		PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(e -> e[0]));
+		if (dist[u] + weight < dist[v]) {
+			dist[v] = dist[u] + weight;
+			queue.add(new double[]{dist[v], v});
+		} else if (dist[v] + weight < dist[u]) {
+			dist[u] = dist[v] + weight;
+			queue.add(new double[]{dist[u], u});
+		}
+		while (!queue.isEmpty()) {
+			double[] top = queue.poll();
+			int x = (int) top[1];
+			if (top[0] > dist[x])
+				continue;
+			for (int slot = adjacency.begin(x); slot < adjacency.end(x); slot++) {
+				int y = adjacency.target(slot);
+				if (visit(y)) {
+					if (size == region.length)
+						region = Arrays.copyOf(region, 2 * size);
+					region[size++] = y;
+				}
+				double alt = dist[x] + adjacency.weight(slot);
+				if (alt < dist[y]) {
+					dist[y] = alt;
+					queue.add(new double[]{alt, y});
+				}
+			}
+		}
+		return repair(adjacency, Arrays.copyOf(region, size));
+	}
+
+	/**
+	 * Naprawa po zwiększeniu wagi lub usunięciu krawędzi
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu (już po zmianie)
+	 * @param u         Indeks pierwszego wierzchołka krawędzi
+	 * @param v         Indeks drugiego wierzchołka krawędzi
+	 * @return Indeksy wierzchołków, których odległość lub poprzednik mógł się zmienić (z możliwymi powtórzeniami)
+	 * @since 1.0
+	 */
+	public int @NotNull [] increase(@NotNull Graph.Adjacency adjacency, int u, int v) {
+		int root = prev[v] == u ? v : prev[u] == v ? u : -1;
+		if (root == -1)
+			return repair(adjacency, new int[]{u, v});
+
+		mark();
+		int[] subtree = new int[]{root};
+		int size = 1;
+		visit(root);
+		for (int i = 0; i < size; i++)
+			for (int c = child[subtree[i]]; c != -1; c = next[c]) {
+				if (size == subtree.length)
+					subtree = Arrays.copyOf(subtree, 2 * size);
+				subtree[size++] = c;
+				visit(c);
+			}
+		subtree = Arrays.copyOf(subtree, size);
+
+		PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(e -> e[0]));
+		for (int x: subtree) {
+			dist[x] = Double.POSITIVE_INFINITY;
+			for (int slot = adjacency.begin(x); slot < adjacency.end(x); slot++) {
+				int y = adjacency.target(slot);
+				if (stamp[y] != generation)
+					dist[x] = Math.min(dist[x], dist[y] + adjacency.weight(slot));
+			}
+			if (dist[x] != Double.POSITIVE_INFINITY)
+				queue.add(new double[]{dist[x], x});
+		}
+		while (!queue.isEmpty()) {
+			double[] top = queue.poll();
+			int x = (int) top[1];
+			if (top[0] > dist[x])
+				continue;
+			for (int slot = adjacency.begin(x); slot < adjacency.end(x); slot++) {
+				int y = adjacency.target(slot);
+				double alt = dist[x] + adjacency.weight(slot);
+				if (stamp[y] == generation && alt < dist[y]) {
+					dist[y] = alt;
+					queue.add(new double[]{alt, y});
+				}
+			}
+		}
+
+		int[] region = Arrays.copyOf(subtree, size + 2);
+		region[size++] = u;
+		region[size++] = v;
+		for (int x: subtree)
+			for (int slot = adjacency.begin(x); slot < adjacency.end(x); slot++) {
+				int y = adjacency.target(slot);
+				if (visit(y)) {
+					if (size == region.length)
+						region = Arrays.copyOf(region, 2 * size);
+					region[size++] = y;
+				}
+			}
+		return repair(adjacency, Arrays.copyOf(region, size));
+	}
+
+	/**
+	 * Wyznacza poprzedników w obszarze zmiany
+	 * <p>
+	 * Jeżeli w grafie są wierzchołki rozstrzygane przeszukiwaniem wszerz,
+	 * poprzednicy są wyznaczani od nowa dla całego grafu.
+	 * </p>
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @param region    Wierzchołki, których odległość lub odległość sąsiada mogła się zmienić (z możliwymi powtórzeniami)
+	 * @return Indeksy wierzchołków, których odległość lub poprzednik mógł się zmienić
+	 * @since 1.0
+	 */
+	private int @NotNull [] repair(@NotNull Graph.Adjacency adjacency, int @NotNull [] region) {
+		boolean full = plateaus;
+		if (!full)
+			for (int x: region) {
+				int p = predecessor(adjacency, x);
+				if (p != prev[x]) {
+					if (prev[x] != -1)
+						unlink(x);
+					prev[x] = p;
+					if (p != -1)
+						link(x);
+				}
+				full |= unresolved(x);
+			}
+		if (full) {
+			int[] old = prev.clone();
+			predecessors(adjacency);
+			int[] changed = region.clone();
+			int size = changed.length;
+			for (int x = 0; x < old.length; x++)
+				if (old[x] != prev[x]) {
+					if (size == changed.length)
+						changed = Arrays.copyOf(changed, 2 * size + 1);
+					changed[size++] = x;
+				}
+			return Arrays.copyOf(changed, size);
+		}
+		return region;
+	}
+
+	/**
+	 * Rozpoczyna nowe oznaczanie wierzchołków
+	 *
+	 * @since 1.0
+	 */
+	private void mark() {
+		if (++generation == 0) {
+			Arrays.fill(stamp, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Oznacza wierzchołek jako odwiedzony
+	 *
+	 * @param v Indeks wierzchołka
+	 * @return Czy wierzchołek nie był wcześniej oznaczony
+	 * @since 1.0
+	 */
+	private boolean visit(int v) {
+		if (stamp[v] == generation)
+			return false;
+		stamp[v] = generation;
+		return true;
+	}
+}
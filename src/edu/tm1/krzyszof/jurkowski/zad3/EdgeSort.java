@@ -0,0 +1,192 @@
+package edu.tm1.krzyszof.jurkowski.zad3;
+
+import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Sortowanie krawędzi według wag
+ * <p>
+ * Sortuje indeksy krawędzi, a nie obiekty krawędzi: wagi są zamieniane na 64-bitowe klucze,
+ * których kolejność bez znaku jest kolejnością liczb zmiennoprzecinkowych,
+ * i sortowane pozycyjnie (radix sort) po 8 bitów, z pominięciem cyfr równych dla wszystkich kluczy.<br>
+ * Sortowanie jest stabilne: krawędzie o równych wagach zachowują kolejność z listy krawędzi.
+ * </p>
+ * <p>
+ * Od {@link #PARALLEL_THRESHOLD} krawędzi klucze są najpierw rozdzielane według najstarszych 16 bitów,
+ * a powstałe kubełki są sortowane równolegle.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.0
+ * @see MinimalSpanningTree#kruskal()
+ * @since 3.6
+ */
+public final class EdgeSort {
+	/**
+	 * Najmniejsza liczba krawędzi sortowana równolegle
+	 *
+	 * @since 1.0
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 17;
+	/**
+	 * Długość fragmentu, poniżej której stosowane jest sortowanie przez wstawianie
+	 *
+	 * @since 1.0
+	 */
+	private static final int INSERTION = 48;
+
+	/**
+	 * Konstruktor prywatny (klasa narzędziowa)
+	 *
+	 * @since 1.0
+	 */
+	private EdgeSort() {
+	}
+
+	/**
+	 * Sortuje krawędzie grafu według wag
+	 *
+	 * @param adjacency Reprezentacja sąsiedztwa grafu
+	 * @return Indeksy krawędzi w kolejności niemalejących wag
+	 * @since 1.0
+	 */
+	public static int @NotNull [] order(@NotNull Graph.Adjacency adjacency) {
+		double[] weights = new double[adjacency.edgeCount()];
+		for (int e = 0; e < weights.length; e++)
+			weights[e] = adjacency.edgeWeight(e);
+		return order(weights, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Sortuje indeksy według wag
+	 *
+	 * @param weights Wagi (pozycja to indeks)
+	 * @param pool    Pula wątków dla dużych danych
+	 * @return Indeksy w kolejności niemalejących wag (równe wagi w kolejności indeksów)
+	 * @since 1.0
+	 */
+	public static int @NotNull [] order(double @NotNull [] weights, @NotNull ForkJoinPool pool) {
+		int m = weights.length;
+		long[] key = new long[m];
+		int[] index = new int[m];
+		for (int e = 0; e < m; e++) {
+			key[e] = key(weights[e]);
+			index[e] = e;
+		}
+		long[] keyBuffer = new long[m];
+		int[] indexBuffer = new int[m];
+		if (m < PARALLEL_THRESHOLD) {
+			sort(key, index, keyBuffer, indexBuffer, 0, m, 64);
+			return index;
+		}
+
+		int[] start = new int[(1 << 16) + 1];
+		for (long k: key)
+			start[(int) (k >>> 48) + 1]++;
+		for (int b = 0; b < 1 << 16; b++)
+			start[b + 1] += start[b];
+		int[] next = start.clone();
+		for (int e = 0; e < m; e++) {
+			int at = next[(int) (key[e] >>> 48)]++;
+			keyBuffer[at] = key[e];
+			indexBuffer[at] = index[e];
+		}
+		pool.submit(() -> IntStream.range(0, 1 << 16).parallel()
+				.filter(b -> start[b + 1] - start[b] > 1)
+				.forEach(b -> sort(keyBuffer, indexBuffer, key, index, start[b], start[b + 1], 48))).join();
+		return indexBuffer;
+	}
+
+	/**
+	 * Zamienia wagę na klucz porównywany bez znaku
+	 * <p>
+	 * Dla liczb nieujemnych ustawiany jest bit znaku, dla ujemnych odwracane są wszystkie bity.
+	 * </p>
+	 *
+	 * @param weight Waga
+	 * @return Klucz zachowujący kolejność wag
+	 * @since 1.0
+	 */
+	static long key(double weight) {
+		long bits = Double.doubleToLongBits(weight);
+		return bits ^ (bits >> 63 | Long.MIN_VALUE);
+	}
+
+	/**
+	 * Sortuje stabilnie fragment według najmłodszych bitów kluczy
+	 * <p>
+	 * Wynik trafia z powrotem do tablic <code>key</code> i <code>index</code>;
+	 * bufory muszą mieć co najmniej tę samą długość i są zmieniane tylko we fragmencie.
+	 * </p>
+	 *
+	 * @param key         Klucze
+	 * @param index       Indeksy
+	 * @param keyBuffer   Bufor kluczy
+	 * @param indexBuffer Bufor indeksów
+	 * @param from        Początek fragmentu
+	 * @param to          Koniec fragmentu (wyłącznie)
+	 * @param bits        Liczba sortowanych bitów (wielokrotność 8)
+	 * @since 1.0
+	 */
+	private static void sort(long[] key, int[] index, long[] keyBuffer, int[] indexBuffer, int from, int to, int bits) {
+		if (to - from <= INSERTION) {
+			insertion(key, index, from, to);
+			return;
+		}
+		long[] srcKey = key, dstKey = keyBuffer;
+		int[] srcIndex = index, dstIndex = indexBuffer;
+		int[] count = new int[257];
+		for (int shift = 0; shift < bits; shift += 8) {
+			Arrays.fill(count, 0);
+			for (int i = from; i < to; i++)
+				count[(int) (srcKey[i] >>> shift & 0xFF) + 1]++;
+			if (count[(int) (srcKey[from] >>> shift & 0xFF) + 1] == to - from)
+				continue;
+			count[0] = from;
+			for (int d = 0; d < 256; d++)
+				count[d + 1] += count[d];
+			for (int i = from; i < to; i++) {
+				int at = count[(int) (srcKey[i] >>> shift & 0xFF)]++;
+				dstKey[at] = srcKey[i];
+				dstIndex[at] = srcIndex[i];
+			}
+			long[] k = srcKey;
+			srcKey = dstKey;
+			dstKey = k;
+			int[] x = srcIndex;
+			srcIndex = dstIndex;
+			dstIndex = x;
+		}
+		if (srcKey != key) {
+			System.arraycopy(srcKey, from, key, from, to - from);
+			System.arraycopy(srcIndex, from, index, from, to - from);
+		}
+	}
+
+	/**
+	 * Sortuje stabilnie krótki fragment przez wstawianie
+	 *
+	 * @param key   Klucze
+	 * @param index Indeksy
+	 * @param from  Początek fragmentu
+	 * @param to    Koniec fragmentu (wyłącznie)
+	 * @since 1.0
+	 */
+	private static void insertion(long[] key, int[] index, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			long k = key[i];
+			int x = index[i];
+			int j = i - 1;
+			for (; j >= from && Long.compareUnsigned(key[j], k) > 0; j--) {
+				key[j + 1] = key[j];
+				index[j + 1] = index[j];
+			}
+			key[j + 1] = k;
+			index[j + 1] = x;
+		}
+	}
+}
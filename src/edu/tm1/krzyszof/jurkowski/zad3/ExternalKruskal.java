@@ -0,0 +1,830 @@
+package edu.tm1.krzyszof.jurkowski.zad3;
+
+import edu.tm1.krzyszof.jurkowski.zad1.DisjointSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimalny las rozpinający dla grafów, których krawędzie nie mieszczą się w pamięci
+ * <p>
+ * Krawędzie są czytane strumieniowo z pliku <code>.graph.mmd</code> albo z pliku binarnego
+ * i zbierane w serie po co najwyżej {@link #run} krawędzi.
+ * Każda seria jest sortowana w pamięci ({@link EdgeSort}) i zapisywana do pliku tymczasowego.
+ * Serie są scalane po co najwyżej {@link #FAN_IN} naraz (w razie potrzeby w kilku przebiegach),
+ * a ostatnie scalanie przekazuje krawędzie bezpośrednio do algorytmu Kruskala.<br>
+ * W pamięci pozostają tylko wierzchołki, zbiory rozłączne ({@link DisjointSet}) i wynik — O(V) — oraz bufor jednej serii.
+ * Jeżeli wszystkie krawędzie mieszczą się w jednej serii, pliki tymczasowe nie są tworzone.
+ * </p>
+ * <p>
+ * Plik binarny to ciąg rekordów <code>int v1, int v2, double weight</code> (big-endian, 16 bajtów),
+ * czyli zapis {@link DataOutputStream}; wierzchołkami są końce krawędzi.
+ * </p>
+ * <p>
+ * Sortowanie serii i scalanie są stabilne, więc krawędzie o równych wagach są rozpatrywane w kolejności z pliku,
+ * a wynik jest taki sam jak {@link MinimalSpanningTree#kruskal()} po wczytaniu całego grafu.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.2
+ * @see MinimalSpanningTree#external(Path)
+ * @since 3.12
+ */
+public final class ExternalKruskal {
+	/**
+	 * Domyślna liczba krawędzi w serii (ok. 160 MiB pamięci na sortowanie)
+	 *
+	 * @since 1.0
+	 */
+	public static final int RUN = 1 << 22;
+	/**
+	 * Największa liczba serii scalanych naraz
+	 *
+	 * @since 1.0
+	 */
+	public static final int FAN_IN = 256;
+	/**
+	 * Rozmiar rekordu krawędzi w pliku binarnym (w bajtach)
+	 *
+	 * @since 1.0
+	 */
+	public static final int RECORD = 16;
+	/**
+	 * Rozmiar bufora pliku (w bajtach)
+	 *
+	 * @since 1.0
+	 */
+	private static final int BUFFER = 1 << 16;
+	/**
+	 * Liczba krawędzi w serii
+	 *
+	 * @since 1.0
+	 */
+	private final int run;
+	/**
+	 * Katalog plików tymczasowych
+	 *
+	 * @since 1.0
+	 */
+	private final Path directory;
+
+	/**
+	 * Konstruktor z domyślną długością serii i katalogiem tymczasowym systemu
+	 *
+	 * @since 1.0
+	 */
+	public ExternalKruskal() {
+		this(RUN, Path.of(System.getProperty("java.io.tmpdir")));
+	}
+
+	/**
+	 * Konstruktor
+	 * <p>
+	 * Sortowanie serii potrzebuje ok. 40 bajtów pamięci na krawędź.
+	 * </p>
+	 *
+	 * @param run       Liczba krawędzi w serii
+	 * @param directory Katalog plików tymczasowych
+	 * @throws IllegalArgumentException Liczba krawędzi w serii nie jest dodatnia
+	 * @since 1.0
+	 */
+	public ExternalKruskal(int run, @NotNull Path directory) {
+		if (run < 1)
+			throw new IllegalArgumentException("Run length must be positive");
+		this.run = run;
+		this.directory = directory;
+	}
+
+	/**
+	 * Oblicza minimalny las rozpinający grafu z pliku
+	 * <p>
+	 * Pliki o nazwie kończącej się na <code>.graph.mmd</code> są czytane jako mermaid (UTF-16), pozostałe jako binarne.
+	 * </p>
+	 *
+	 * @param file ścieżka pliku
+	 * @return Minimalny las rozpinający
+	 * @throws IOException błąd odczytu lub zapisu plików tymczasowych, niepoprawny plik
+	 * @since 1.0
+	 */
+	public @NotNull Forest calculate(@NotNull Path file) throws IOException {
+		boolean mermaid = file.getFileName().toString().endsWith(".graph.mmd");
+		Runs runs = new Runs(mermaid ? 0 : Files.size(file) / RECORD);
+		try {
+			if (mermaid)
+				readMermaid(file, runs);
+			else
+				readBinary(file, runs);
+			return runs.kruskal();
+		} finally {
+			runs.close();
+		}
+	}
+
+	/**
+	 * Czyta graf w formacie mermaid
+	 * <p>
+	 * Krawędzie drzewa najkrótszych ścieżek (<code>===</code>) z plików {@link edu.tm1.krzyszof.jurkowski.zad2.Dijkstra}
+	 * są zwykłymi krawędziami grafu.
+	 * </p>
+	 *
+	 * @param file ścieżka pliku
+	 * @param runs Serie krawędzi
+	 * @throws IOException błąd odczytu lub linia krawędzi, której nie da się odczytać
+	 * @see MinimalSpanningTree#load(Path)
+	 * @since 1.0
+	 */
+	private void readMermaid(@NotNull Path file, @NotNull Runs runs) throws IOException {
+		Pattern vertex = Pattern.compile("(?<id>\\d+)\\(\"(?<name>.*)\"\\)");
+		Pattern edge = Pattern.compile("(?<v1>\\d+) (?:---|===)\\|(?<weight>[^|]+)\\| (?<v2>\\d+)");
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_16)) {
+			String line;
+			boolean graph = false;
+			while ((line = reader.readLine()) != null) {
+				line = line.strip();
+				if (!graph) {
+					graph = line.startsWith("graph");
+					continue;
+				}
+				if (line.isEmpty() || line.startsWith("%%") || line.equals("}"))
+					continue;
+				Matcher m = edge.matcher(line);
+				if (m.matches()) {
+					try {
+						runs.add(Integer.parseInt(m.group("v1")), Integer.parseInt(m.group("v2")), Double.parseDouble(m.group("weight").replace(',', '.')));
+					} catch (NumberFormatException e) {
+						throw new IOException(String.format("Invalid edge: %s", line), e);
+					}
+					continue;
+				}
+				m = vertex.matcher(line);
+				if (m.matches())
+					runs.vertex(Integer.parseInt(m.group("id")), m.group("name"));
+				else if (line.contains("|"))
+					throw new IOException(String.format("Invalid edge: %s", line));
+				else
+					System.err.printf("[ERR]Unknown line: %s\n", line);
+			}
+		}
+	}
+
+	/**
+	 * Czyta plik binarny krawędzi
+	 *
+	 * @param file ścieżka pliku
+	 * @param runs Serie krawędzi
+	 * @throws IOException błąd odczytu lub długość pliku nie jest wielokrotnością {@link #RECORD}
+	 * @since 1.0
+	 */
+	private void readBinary(@NotNull Path file, @NotNull Runs runs) throws IOException {
+		long size = Files.size(file);
+		if (size % RECORD != 0)
+			throw new IOException(String.format("Edge file length %d is not a multiple of %d", size, RECORD));
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER))) {
+			for (long e = size / RECORD; e > 0; e--)
+				runs.add(in.readInt(), in.readInt(), in.readDouble());
+		}
+	}
+
+	/**
+	 * Klasa zbierająca wierzchołki i serie posortowanych krawędzi
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.1
+	 * @since 1.0
+	 */
+	private final class Runs implements Closeable {
+		/**
+		 * Czy wierzchołek o danym identyfikatorze istnieje
+		 *
+		 * @since 1.0
+		 */
+		boolean[] present = new boolean[16];
+		/**
+		 * Nazwy wierzchołków według identyfikatorów (<code>null</code> — nazwa domyślna)
+		 *
+		 * @since 1.0
+		 */
+		String[] names = new String[16];
+		/**
+		 * Liczba wierzchołków
+		 *
+		 * @since 1.0
+		 */
+		int vertices;
+		/**
+		 * Pierwsze końce krawędzi bieżącej serii
+		 *
+		 * @since 1.0
+		 */
+		int[] first;
+		/**
+		 * Drugie końce krawędzi bieżącej serii
+		 *
+		 * @since 1.0
+		 */
+		int[] second;
+		/**
+		 * Wagi krawędzi bieżącej serii
+		 *
+		 * @since 1.0
+		 */
+		double[] weight;
+		/**
+		 * Liczba krawędzi bieżącej serii
+		 *
+		 * @since 1.0
+		 */
+		int count;
+		/**
+		 * Pliki zapisanych serii (w kolejności krawędzi w pliku wejściowym)
+		 *
+		 * @since 1.0
+		 */
+		final List<Path> files = new ArrayList<>();
+		/**
+		 * Pliki tymczasowe do usunięcia
+		 *
+		 * @since 1.0
+		 */
+		final List<Path> temporary = new ArrayList<>();
+
+		/**
+		 * Konstruktor
+		 * <p>
+		 * Bufor serii ma rozmiar wejścia (najwyżej {@link #run}); przy nieznanym rozmiarze rośnie dwukrotnie w miarę potrzeby.
+		 * </p>
+		 *
+		 * @param edges Przewidywana liczba krawędzi (0, jeśli nieznana)
+		 * @since 1.1
+		 */
+		Runs(long edges) {
+			int capacity = (int) Math.min(run, Math.max(edges, 1024));
+			first = new int[capacity];
+			second = new int[capacity];
+			weight = new double[capacity];
+		}
+
+		/**
+		 * Dodaje wierzchołek (ponowne dodanie zmienia tylko nazwę)
+		 *
+		 * @param id   Identyfikator wierzchołka
+		 * @param name Nazwa wierzchołka
+		 * @throws IOException Identyfikator jest ujemny
+		 * @since 1.0
+		 */
+		void vertex(int id, String name) throws IOException {
+			if (id < 0)
+				throw new IOException(String.format("Invalid vertex id %d", id));
+			if (id >= present.length) {
+				int length = Math.max(id + 1, present.length * 2);
+				present = Arrays.copyOf(present, length);
+				names = Arrays.copyOf(names, length);
+			}
+			if (!present[id]) {
+				present[id] = true;
+				vertices++;
+			}
+			if (name != null)
+				names[id] = name;
+		}
+
+		/**
+		 * Dodaje krawędź, zapisując serię, gdy bufor jest pełny
+		 * <p>
+		 * Pętle dodają tylko wierzchołek.
+		 * </p>
+		 *
+		 * @param v1     Identyfikator pierwszego wierzchołka
+		 * @param v2     Identyfikator drugiego wierzchołka
+		 * @param weight Waga krawędzi
+		 * @throws IOException błąd zapisu serii lub ujemny identyfikator
+		 * @since 1.0
+		 */
+		void add(int v1, int v2, double weight) throws IOException {
+			vertex(v1, null);
+			vertex(v2, null);
+			if (v1 == v2)
+				return;
+			if (count == run)
+				spill();
+			else if (count == this.weight.length) {
+				int capacity = (int) Math.min(run, 2L * count);
+				first = Arrays.copyOf(first, capacity);
+				second = Arrays.copyOf(second, capacity);
+				this.weight = Arrays.copyOf(this.weight, capacity);
+			}
+			first[count] = v1;
+			second[count] = v2;
+			this.weight[count++] = weight;
+		}
+
+		/**
+		 * Sortuje bieżącą serię
+		 *
+		 * @return Pozycje krawędzi serii w kolejności niemalejących wag
+		 * @see EdgeSort#order(double[], ForkJoinPool)
+		 * @since 1.0
+		 */
+		int @NotNull [] sort() {
+			return EdgeSort.order(count == weight.length ? weight : Arrays.copyOf(weight, count), ForkJoinPool.commonPool());
+		}
+
+		/**
+		 * Zapisuje posortowaną bieżącą serię do pliku tymczasowego
+		 *
+		 * @throws IOException błąd zapisu
+		 * @since 1.0
+		 */
+		void spill() throws IOException {
+			Path file = temporary();
+			try (DataOutputStream out = output(file)) {
+				for (int e: sort()) {
+					out.writeInt(first[e]);
+					out.writeInt(second[e]);
+					out.writeDouble(weight[e]);
+				}
+			}
+			files.add(file);
+			count = 0;
+		}
+
+		/**
+		 * Tworzy plik tymczasowy serii
+		 *
+		 * @return ścieżka pliku
+		 * @throws IOException błąd utworzenia
+		 * @since 1.0
+		 */
+		@NotNull Path temporary() throws IOException {
+			Path file = Files.createTempFile(directory, "mst", ".run");
+			temporary.add(file);
+			return file;
+		}
+
+		/**
+		 * Wykonuje algorytm Kruskala na scalonych seriach
+		 * <p>
+		 * Przeglądanie kończy się po wybraniu V-1 krawędzi.
+		 * </p>
+		 *
+		 * @return Minimalny las rozpinający
+		 * @throws IOException błąd odczytu lub zapisu serii
+		 * @since 1.0
+		 */
+		@NotNull Forest kruskal() throws IOException {
+			Forest forest = new Forest(present, names, vertices);
+			DisjointSet sets = new DisjointSet(present.length);
+			if (files.isEmpty()) {
+				for (int e: sort())
+					if (forest.size == vertices - 1)
+						break;
+					else if (sets.union(first[e], second[e]))
+						forest.add(first[e], second[e], weight[e]);
+				return forest;
+			}
+			if (count > 0)
+				spill();
+
+			while (files.size() > FAN_IN) {
+				List<Path> merged = new ArrayList<>();
+				for (int from = 0; from < files.size(); from += FAN_IN) {
+					List<Path> group = files.subList(from, Math.min(from + FAN_IN, files.size()));
+					if (group.size() == 1) {
+						merged.add(group.getFirst());
+						continue;
+					}
+					Path file = temporary();
+					try (Merge merge = new Merge(group); DataOutputStream out = output(file)) {
+						while (merge.next()) {
+							out.writeInt(merge.v1);
+							out.writeInt(merge.v2);
+							out.writeDouble(merge.weight);
+						}
+					}
+					for (Path done: group)
+						Files.deleteIfExists(done);
+					merged.add(file);
+				}
+				files.clear();
+				files.addAll(merged);
+			}
+
+			try (Merge merge = new Merge(files)) {
+				while (forest.size < vertices - 1 && merge.next())
+					if (sets.union(merge.v1, merge.v2))
+						forest.add(merge.v1, merge.v2, merge.weight);
+			}
+			return forest;
+		}
+
+		/**
+		 * Usuwa pliki tymczasowe
+		 *
+		 * @throws IOException błąd usuwania
+		 * @since 1.0
+		 */
+		@Override
+		public void close() throws IOException {
+			for (Path file: temporary)
+				Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Otwiera plik serii do zapisu
+	 *
+	 * @param file ścieżka pliku
+	 * @return Strumień rekordów krawędzi
+	 * @throws IOException błąd otwarcia
+	 * @since 1.0
+	 */
+	private static @NotNull DataOutputStream output(@NotNull Path file) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER));
+	}
+
+	/**
+	 * Klasa scalająca posortowane serie
+	 * <p>
+	 * Serie są w kopcu według wagi bieżącej krawędzi, a przy równych wagach według numeru serii,
+	 * więc scalanie zachowuje kolejność krawędzi z pliku wejściowego.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @since 1.0
+	 */
+	private static final class Merge implements Closeable {
+		/**
+		 * Serie w kolejności bieżących krawędzi
+		 *
+		 * @since 1.0
+		 */
+		final PriorityQueue<Run> heap = new PriorityQueue<>((a, b) -> {
+			int c = Double.compare(a.weight, b.weight);
+			return c != 0 ? c : Integer.compare(a.number, b.number);
+		});
+		/**
+		 * Otwarte serie
+		 *
+		 * @since 1.0
+		 */
+		final List<Run> runs = new ArrayList<>();
+		/**
+		 * Pierwszy koniec bieżącej krawędzi
+		 *
+		 * @since 1.0
+		 */
+		int v1;
+		/**
+		 * Drugi koniec bieżącej krawędzi
+		 *
+		 * @since 1.0
+		 */
+		int v2;
+		/**
+		 * Waga bieżącej krawędzi
+		 *
+		 * @since 1.0
+		 */
+		double weight;
+
+		/**
+		 * Konstruktor
+		 *
+		 * @param files Pliki serii w kolejności krawędzi w pliku wejściowym
+		 * @throws IOException błąd odczytu
+		 * @since 1.0
+		 */
+		Merge(@NotNull List<Path> files) throws IOException {
+			try {
+				for (Path file: files) {
+					Run run = new Run(file, runs.size());
+					runs.add(run);
+					if (run.next())
+						heap.add(run);
+				}
+			} catch (IOException e) {
+				close();
+				throw e;
+			}
+		}
+
+		/**
+		 * Przechodzi do następnej krawędzi
+		 *
+		 * @return Czy jest kolejna krawędź
+		 * @throws IOException błąd odczytu
+		 * @since 1.0
+		 */
+		boolean next() throws IOException {
+			Run run = heap.poll();
+			if (run == null)
+				return false;
+			v1 = run.v1;
+			v2 = run.v2;
+			weight = run.weight;
+			if (run.next())
+				heap.add(run);
+			return true;
+		}
+
+		/**
+		 * Zamyka pliki serii
+		 *
+		 * @throws IOException błąd zamknięcia
+		 * @since 1.0
+		 */
+		@Override
+		public void close() throws IOException {
+			for (Run run: runs)
+				run.in.close();
+		}
+
+		/**
+		 * Klasa czytająca jedną serię
+		 *
+		 * @author Krzysztof Jurkowski
+		 * @version 1.0
+		 * @since 1.0
+		 */
+		static final class Run {
+			/**
+			 * Strumień rekordów krawędzi
+			 *
+			 * @since 1.0
+			 */
+			final DataInputStream in;
+			/**
+			 * Numer serii
+			 *
+			 * @since 1.0
+			 */
+			final int number;
+			/**
+			 * Liczba nieprzeczytanych krawędzi
+			 *
+			 * @since 1.0
+			 */
+			long remaining;
+			/**
+			 * Pierwszy koniec bieżącej krawędzi
+			 *
+			 * @since 1.0
+			 */
+			int v1;
+			/**
+			 * Drugi koniec bieżącej krawędzi
+			 *
+			 * @since 1.0
+			 */
+			int v2;
+			/**
+			 * Waga bieżącej krawędzi
+			 *
+			 * @since 1.0
+			 */
+			double weight;
+
+			/**
+			 * Konstruktor
+			 *
+			 * @param file   ścieżka pliku serii
+			 * @param number Numer serii
+			 * @throws IOException błąd otwarcia
+			 * @since 1.0
+			 */
+			Run(@NotNull Path file, int number) throws IOException {
+				remaining = Files.size(file) / RECORD;
+				in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER));
+				this.number = number;
+			}
+
+			/**
+			 * Czyta następną krawędź
+			 *
+			 * @return Czy jest kolejna krawędź
+			 * @throws IOException błąd odczytu
+			 * @since 1.0
+			 */
+			boolean next() throws IOException {
+				if (remaining == 0)
+					return false;
+				remaining--;
+				v1 = in.readInt();
+				v2 = in.readInt();
+				weight = in.readDouble();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Klasa wyniku — minimalny las rozpinający
+	 * <p>
+	 * Krawędzie są w kolejności wyboru, czyli niemalejących wag.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.1
+	 * @since 1.0
+	 */
+	public static final class Forest {
+		/**
+		 * Identyfikatory wierzchołków (rosnąco)
+		 *
+		 * @since 1.0
+		 */
+		private final int[] ids;
+		/**
+		 * Nazwy wierzchołków według identyfikatorów (<code>null</code> — nazwa domyślna)
+		 *
+		 * @since 1.0
+		 */
+		private final String[] names;
+		/**
+		 * Pierwsze końce krawędzi
+		 *
+		 * @since 1.0
+		 */
+		private int[] first = new int[16];
+		/**
+		 * Drugie końce krawędzi
+		 *
+		 * @since 1.0
+		 */
+		private int[] second = new int[16];
+		/**
+		 * Wagi krawędzi
+		 *
+		 * @since 1.0
+		 */
+		private double[] weight = new double[16];
+		/**
+		 * Liczba krawędzi
+		 *
+		 * @see #getEdgeCount() getter
+		 * @since 1.0
+		 */
+		private int size;
+
+		/**
+		 * Konstruktor
+		 *
+		 * @param present  Czy wierzchołek o danym identyfikatorze istnieje
+		 * @param names    Nazwy wierzchołków według identyfikatorów
+		 * @param vertices Liczba wierzchołków
+		 * @since 1.0
+		 */
+		private Forest(boolean @NotNull [] present, String @NotNull [] names, int vertices) {
+			ids = new int[vertices];
+			for (int id = 0, i = 0; id < present.length; id++)
+				if (present[id])
+					ids[i++] = id;
+			this.names = names;
+		}
+
+		/**
+		 * Dodaje krawędź
+		 *
+		 * @param v1     Identyfikator pierwszego wierzchołka
+		 * @param v2     Identyfikator drugiego wierzchołka
+		 * @param weight Waga krawędzi
+		 * @since 1.0
+		 */
+		private void add(int v1, int v2, double weight) {
+			if (size == first.length) {
+				first = Arrays.copyOf(first, size * 2);
+				second = Arrays.copyOf(second, size * 2);
+				this.weight = Arrays.copyOf(this.weight, size * 2);
+			}
+			first[size] = v1;
+			second[size] = v2;
+			this.weight[size++] = weight;
+		}
+
+		/**
+		 * Zwraca identyfikatory wierzchołków
+		 *
+		 * @return Identyfikatory wierzchołków (rosnąco)
+		 * @since 1.0
+		 */
+		public int @NotNull [] getVertexIds() {
+			return ids.clone();
+		}
+
+		/**
+		 * Zwraca liczbę krawędzi
+		 *
+		 * @return Liczba krawędzi
+		 * @see #size
+		 * @since 1.0
+		 */
+		public int getEdgeCount() {
+			return size;
+		}
+
+		/**
+		 * Zwraca pierwszy koniec krawędzi
+		 *
+		 * @param e Numer krawędzi
+		 * @return Identyfikator wierzchołka
+		 * @since 1.0
+		 */
+		public int getV1(int e) {
+			return first[e];
+		}
+
+		/**
+		 * Zwraca drugi koniec krawędzi
+		 *
+		 * @param e Numer krawędzi
+		 * @return Identyfikator wierzchołka
+		 * @since 1.0
+		 */
+		public int getV2(int e) {
+			return second[e];
+		}
+
+		/**
+		 * Zwraca wagę krawędzi
+		 *
+		 * @param e Numer krawędzi
+		 * @return Waga krawędzi
+		 * @since 1.0
+		 */
+		public double getWeight(int e) {
+			return weight[e];
+		}
+
+		/**
+		 * Zwraca sumę wag krawędzi
+		 *
+		 * @return Suma wag
+		 * @since 1.0
+		 */
+		public double getTotalWeight() {
+			double sum = 0;
+			for (int e = 0; e < size; e++)
+				sum += weight[e];
+			return sum;
+		}
+
+		/**
+		 * Zwraca liczbę drzew
+		 *
+		 * @return Liczba drzew (liczba spójnych składowych grafu)
+		 * @see MinimalSpanningTree#getTreeCount()
+		 * @since 1.0
+		 */
+		public int getTreeCount() {
+			return ids.length - size;
+		}
+
+		/**
+		 * Zapis lasu do pliku
+		 * <p>
+		 * Las jest zapisywany jako graf w formacie {@link MinimalSpanningTree#save(String)}, wiersz po wierszu;
+		 * wczytany przez {@link MinimalSpanningTree#load(Path)} jest swoim własnym drzewem rozpinającym.
+		 * </p>
+		 *
+		 * @param name nazwa pliku
+		 * @throws IOException błąd zapisu
+		 * @since 1.0
+		 */
+		public void save(@NotNull String name) throws IOException {
+			Path file = Path.of(name + ".graph.mmd");
+			try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_16)) {
+				writer.write(String.format("""
+						---
+						title: %s
+						zad: 3
+						src: 0
+						mst: %s
+						---
+						graph
+						""", name, MinimalSpanningTree.METHOD.KRUSKAL));
+				for (int id: ids)
+					writer.write(String.format("\t%d(\"%s\")\n", id, names[id] == null ? Integer.toString(id) : names[id]));
+				for (int e = 0; e < size; e++)
+					writer.write(String.format("\t%d ---|%s| %d\n", first[e], weight[e], second[e]));
+			}
+		}
+	}
+}
@@ -0,0 +1,321 @@
+package edu.tm1.krzyszof.jurkowski.zad3;
+
+/**
+ * Drzewa link-cut (Sleator–Tarjan) z maksimum na ścieżce
+ * <p>
+ * Przechowuje las ukorzenionych drzew węzłów <code>0..capacity-1</code> z wartościami liczbowymi.
+ * Łączenie, rozcinanie, sprawdzanie spójności i wyszukiwanie węzła o największej wartości na ścieżce
+ * kosztują zamortyzowane O(log n).<br>
+ * Ścieżki preferowane są przechowywane w drzewach splay zapisanych w tablicach prymitywnych.
+ * </p>
+ * <p>
+ * Krawędź grafu z wagą zapisuje się jako osobny węzeł połączony z oboma końcami,
+ * a wierzchołkom nadaje się wartość minus nieskończoność — wtedy maksimum na ścieżce to najcięższa krawędź.
+ * </p>
+ *
+ * @author Krzysztof Jurkowski
+ * @version 1.0
+ * @see MinimalSpanningTree
+ * @since 3.10
+ */
+public final class LinkCutTree {
+	/**
+	 * Lewe dzieci w drzewach splay (-1, jeśli brak)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] left;
+	/**
+	 * Prawe dzieci w drzewach splay (-1, jeśli brak)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] right;
+	/**
+	 * Rodzice w drzewach splay lub wskaźniki ścieżek (-1, jeśli brak)
+	 *
+	 * @since 1.0
+	 */
+	private final int[] parent;
+	/**
+	 * Odwrócenia kolejności poddrzew splay do wykonania
+	 *
+	 * @since 1.0
+	 */
+	private final boolean[] flip;
+	/**
+	 * Wartości węzłów
+	 *
+	 * @since 1.0
+	 */
+	private final double[] value;
+	/**
+	 * Węzły o największej wartości w poddrzewach splay
+	 *
+	 * @since 1.0
+	 */
+	private final int[] best;
+	/**
+	 * Stos węzłów do wykonania zaległych odwróceń przed splay
+	 *
+	 * @since 1.0
+	 */
+	private final int[] stack;
+
+	/**
+	 * Konstruktor
+	 * <p>
+	 * Każdy węzeł tworzy osobne drzewo i ma wartość minus nieskończoność.
+	 * </p>
+	 *
+	 * @param capacity Liczba węzłów
+	 * @since 1.0
+	 */
+	public LinkCutTree(int capacity) {
+		left = new int[capacity];
+		right = new int[capacity];
+		parent = new int[capacity];
+		flip = new boolean[capacity];
+		value = new double[capacity];
+		best = new int[capacity];
+		stack = new int[capacity];
+		for (int x = 0; x < capacity; x++) {
+			left[x] = right[x] = parent[x] = -1;
+			value[x] = Double.NEGATIVE_INFINITY;
+			best[x] = x;
+		}
+	}
+
+	/**
+	 * Zwraca wartość węzła
+	 *
+	 * @param x Węzeł
+	 * @return Wartość
+	 * @since 1.0
+	 */
+	public double value(int x) {
+		return value[x];
+	}
+
+	/**
+	 * Ustawia wartość węzła
+	 *
+	 * @param x     Węzeł
+	 * @param value Nowa wartość
+	 * @since 1.0
+	 */
+	public void setValue(int x, double value) {
+		access(x);
+		this.value[x] = value;
+		pull(x);
+	}
+
+	/**
+	 * Sprawdza, czy węzły są w jednym drzewie
+	 *
+	 * @param a Pierwszy węzeł
+	 * @param b Drugi węzeł
+	 * @return Czy węzły są połączone
+	 * @since 1.0
+	 */
+	public boolean connected(int a, int b) {
+		return a == b || root(a) == root(b);
+	}
+
+	/**
+	 * Łączy drzewa krawędzią
+	 *
+	 * @param a Pierwszy węzeł
+	 * @param b Drugi węzeł
+	 * @throws IllegalArgumentException Węzły są już w jednym drzewie
+	 * @since 1.0
+	 */
+	public void link(int a, int b) {
+		if (connected(a, b))
+			throw new IllegalArgumentException(String.format("Nodes %d and %d are already connected", a, b));
+		evert(a);
+		parent[a] = b;
+	}
+
+	/**
+	 * Rozcina krawędź
+	 *
+	 * @param a Pierwszy węzeł
+	 * @param b Drugi węzeł
+	 * @throws IllegalArgumentException Węzły nie są połączone krawędzią
+	 * @since 1.0
+	 */
+	public void cut(int a, int b) {
+		evert(a);
+		access(b);
+		if (left[b] == a)
+			push(a);
+		if (left[b] != a || right[a] != -1)
+			throw new IllegalArgumentException(String.format("Nodes %d and %d are not adjacent", a, b));
+		left[b] = -1;
+		parent[a] = -1;
+		pull(b);
+	}
+
+	/**
+	 * Wyszukuje węzeł o największej wartości na ścieżce
+	 *
+	 * @param a Pierwszy koniec ścieżki
+	 * @param b Drugi koniec ścieżki
+	 * @return Węzeł o największej wartości (z końcami włącznie)
+	 * @throws IllegalArgumentException Węzły nie są połączone
+	 * @since 1.0
+	 */
+	public int max(int a, int b) {
+		if (!connected(a, b))
+			throw new IllegalArgumentException(String.format("Nodes %d and %d are not connected", a, b));
+		evert(a);
+		access(b);
+		return best[b];
+	}
+
+	/**
+	 * Sprawdza, czy węzeł jest korzeniem swojego drzewa splay
+	 *
+	 * @param x Węzeł
+	 * @return Czy rodzic jest tylko wskaźnikiem ścieżki
+	 * @since 1.0
+	 */
+	private boolean top(int x) {
+		int p = parent[x];
+		return p == -1 || left[p] != x && right[p] != x;
+	}
+
+	/**
+	 * Wykonuje zaległe odwrócenie poddrzewa
+	 *
+	 * @param x Węzeł
+	 * @since 1.0
+	 */
+	private void push(int x) {
+		if (!flip[x])
+			return;
+		int t = left[x];
+		left[x] = right[x];
+		right[x] = t;
+		if (left[x] != -1)
+			flip[left[x]] ^= true;
+		if (right[x] != -1)
+			flip[right[x]] ^= true;
+		flip[x] = false;
+	}
+
+	/**
+	 * Przelicza maksimum poddrzewa
+	 *
+	 * @param x Węzeł
+	 * @since 1.0
+	 */
+	private void pull(int x) {
+		int b = x;
+		if (left[x] != -1 && value[best[left[x]]] > value[b])
+			b = best[left[x]];
+		if (right[x] != -1 && value[best[right[x]]] > value[b])
+			b = best[right[x]];
+		best[x] = b;
+	}
+
+	/**
+	 * Obraca węzeł wokół rodzica
+	 *
+	 * @param x Węzeł
+	 * @since 1.0
+	 */
+	private void rotate(int x) {
+		int p = parent[x], g = parent[p];
+		if (!top(p)) {
+			if (left[g] == p)
+				left[g] = x;
+			else
+				right[g] = x;
+		}
+		parent[x] = g;
+		if (left[p] == x) {
+			left[p] = right[x];
+			if (right[x] != -1)
+				parent[right[x]] = p;
+			right[x] = p;
+		} else {
+			right[p] = left[x];
+			if (left[x] != -1)
+				parent[left[x]] = p;
+			left[x] = p;
+		}
+		parent[p] = x;
+		pull(p);
+		pull(x);
+	}
+
+	/**
+	 * Przenosi węzeł do korzenia jego drzewa splay
+	 *
+	 * @param x Węzeł
+	 * @since 1.0
+	 */
+	private void splay(int x) {
+		int depth = 0;
+		stack[depth++] = x;
+		for (int y = x; !top(y); y = parent[y])
+			stack[depth++] = parent[y];
+		while (depth > 0)
+			push(stack[--depth]);
+		while (!top(x)) {
+			int p = parent[x];
+			if (!top(p)) {
+				int g = parent[p];
+				rotate((left[g] == p) == (left[p] == x) ? p : x);
+			}
+			rotate(x);
+		}
+	}
+
+	/**
+	 * Tworzy ścieżkę preferowaną od korzenia drzewa do węzła
+	 *
+	 * @param x Węzeł (po wywołaniu korzeń swojego drzewa splay)
+	 * @since 1.0
+	 */
+	private void access(int x) {
+		for (int last = -1, y = x; y != -1; last = y, y = parent[y]) {
+			splay(y);
+			right[y] = last;
+			pull(y);
+		}
+		splay(x);
+	}
+
+	/**
+	 * Ustawia węzeł jako korzeń jego drzewa
+	 *
+	 * @param x Węzeł
+	 * @since 1.0
+	 */
+	private void evert(int x) {
+		access(x);
+		flip[x] ^= true;
+		push(x);
+	}
+
+	/**
+	 * Wyszukuje korzeń drzewa
+	 *
+	 * @param x Węzeł
+	 * @return Korzeń drzewa zawierającego węzeł
+	 * @since 1.0
+	 */
+	private int root(int x) {
+		access(x);
+		push(x);
+		while (left[x] != -1) {
+			x = left[x];
+			push(x);
+		}
+		splay(x);
+		return x;
+	}
+}
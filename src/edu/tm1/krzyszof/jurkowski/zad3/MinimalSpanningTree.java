@@ -1,7 +1,11 @@
 package edu.tm1.krzyszof.jurkowski.zad3;
 
+import edu.tm1.krzyszof.jurkowski.zad1.ConcurrentDisjointSet;
+import edu.tm1.krzyszof.jurkowski.zad1.DisjointSet;
 import edu.tm1.krzyszof.jurkowski.zad1.Graph;
+import edu.tm1.krzyszof.jurkowski.zad2.DenseKernels;
 import edu.tm1.krzyszof.jurkowski.zad2.Dijkstra;
+import edu.tm1.krzyszof.jurkowski.zad2.MinQueue;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
@@ -12,15 +16,31 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 /**
  * Klasa minimalnego drzewa rozpinającego
+ * <p>
+ * Dla grafu niespójnego wszystkie metody wyznaczają minimalny las rozpinający: po jednym drzewie w każdej spójnej składowej.
+ * </p>
+ * <p>
+ * Po obliczeniu dodanie krawędzi, usunięcie krawędzi i zmiana wagi nie wymagają ponownego obliczenia:
+ * drzewo jest poprawiane na miejscu ({@link Dynamic}). Zmiany wierzchołków unieważniają wynik.
+ * </p>
  *
  * @author Krzysztof Jurkowski
- * @version 3.2
+ * @version 3.16
  * @see Dijkstra
  * @since zad3
  */
@@ -38,6 +58,18 @@ public class MinimalSpanningTree extends Dijkstra {
 	 * @since 3.0
 	 */
 	private final @NotNull Prim prim = new Prim();
+	/**
+	 * Obiekt do obliczania minimalnego drzewa rozpinającego algorytmem Filter-Kruskal
+	 *
+	 * @since 3.7
+	 */
+	private final @NotNull FilterKruskal filterKruskal = new FilterKruskal();
+	/**
+	 * Obiekt do obliczania minimalnego drzewa rozpinającego algorytmem Borůvki
+	 *
+	 * @since 3.8
+	 */
+	private final @NotNull Boruvka boruvka = new Boruvka();
 	/**
 	 * Krawędzie minimalnego drzewa rozpinającego
 	 *
@@ -50,6 +82,20 @@ public class MinimalSpanningTree extends Dijkstra {
 	 * @since 3.0
 	 */
 	private @NotNull METHOD calculated;
+	/**
+	 * Drzewo utrzymywane przy zmianach krawędzi (<code>null</code>, dopóki graf nie został zmieniony po obliczeniu)
+	 *
+	 * @see Dynamic
+	 * @since 3.10
+	 */
+	private Dynamic dynamic;
+	/**
+	 * Krawędzie posortowane według wag (<code>null</code> przed pierwszym obliczeniem metodą Kruskala)
+	 *
+	 * @see SortedEdges
+	 * @since 3.11
+	 */
+	private SortedEdges sortedEdges;
 
 	/**
 	 * Konstruktor klasy minimalnego drzewa rozpinającego
@@ -180,9 +226,10 @@ public class MinimalSpanningTree extends Dijkstra {
 			}
 
 			class Match {
-				final Pattern yaml = Pattern.compile("(?<key>\\w): (?<value>.+)");
+				final Pattern yaml = Pattern.compile("(?<key>\\w+): (?<value>.+)");
 				final Pattern vertex = Pattern.compile("(?<id>\\d+)\\(\"(?<name>.*)\"\\)");
-				final Pattern edge = Pattern.compile("(?<v1>\\d+) ---\\|(?<weight>\\d+\\.?\\d*)\\| (?<v2>\\d+)");
+				final Pattern edge = Pattern.compile("(?<v1>\\d+) (?:---|===)\\|(?<weight>\\d+\\.?\\d*(?:E-?\\d+)?)\\| (?<v2>\\d+)");
+				final Pattern coordinates = Pattern.compile("%% xy (?<id>\\d+) (?<x>\\S+) (?<y>\\S+)");
 
 				void yaml(String line) {
 					Matcher m = yaml.matcher(line);
@@ -228,7 +275,19 @@ public class MinimalSpanningTree extends Dijkstra {
 					}
 					Integer id = Integer.parseInt(m.group("id"));
 					System.out.printf("\tVertex: %d(%s)\n", id, m.group("name"));
-					mst.vertices.vertices.add(mst.vertices.new Vertex(id, m.group("name")));
+					mst.vertices.add(mst.vertices.new Vertex(id, m.group("name")));
+				}
+
+				void coordinates(String line) {
+					Matcher m = coordinates.matcher(line);
+					if (!m.matches())
+						return;
+					Integer id = Integer.parseInt(m.group("id"));
+					if (!mst.vertices.exists(id)) {
+						System.err.printf("[ERR]Coordinates of unknown vertex: %s\n", line);
+						return;
+					}
+					mst.vertices.setCoordinates(id, Double.parseDouble(m.group("x")), Double.parseDouble(m.group("y")));
 				}
 
 				void edge(String line) {
@@ -251,6 +310,7 @@ public class MinimalSpanningTree extends Dijkstra {
 
 			System.out.println("Reading graph...\n");
 			while ((line = reader.readLine()) != null) {
+				line = line.strip();
 				switch (stage) {
 					case start -> {
 						if (line.startsWith("%% "))
@@ -283,20 +343,29 @@ public class MinimalSpanningTree extends Dijkstra {
 						System.err.printf("[ERR]Unknown line: %s\n", line);
 					}
 					case vertices -> {
-						if (line.startsWith("%% "))
+						if (line.isEmpty())
 							break;
+						if (line.startsWith("%% ")) {
+							match.coordinates(line);
+							break;
+						}
 
 						if (line.matches(match.edge.pattern())) {
 							stage = Stage.edges;
 							System.out.println("Vertices read!\n\nReading edges...");
-							continue;
+							match.edge(line);
+							break;
 						}
 
 						match.vertex(line);
 					}
 					case edges -> {
-						if (line.startsWith("%% "))
+						if (line.isEmpty() || line.equals("}"))
+							break;
+						if (line.startsWith("%% ")) {
+							match.coordinates(line);
 							break;
+						}
 
 						if (line.matches(match.vertex.pattern())) {
 							System.err.println("[WARN]Vertex found in edges section");
@@ -317,9 +386,26 @@ public class MinimalSpanningTree extends Dijkstra {
 				mst.calculateMST(tmp);
 			}
 		}
+		mst.loadAttachments(file);
 		return mst;
 	}
 
+	/**
+	 * Oblicza minimalny las rozpinający grafu z pliku bez wczytywania krawędzi do pamięci
+	 * <p>
+	 * Dla grafów, których krawędzie nie mieszczą się w pamięci (wierzchołki muszą się mieścić).
+	 * </p>
+	 *
+	 * @param file ścieżka pliku <code>.graph.mmd</code> lub binarnego pliku krawędzi
+	 * @return Minimalny las rozpinający
+	 * @throws IOException błąd odczytu lub zapisu plików tymczasowych
+	 * @see ExternalKruskal#calculate(Path)
+	 * @since 3.12
+	 */
+	public static @NotNull ExternalKruskal.Forest external(@NotNull Path file) throws IOException {
+		return new ExternalKruskal().calculate(file);
+	}
+
 	/**
 	 * Obliczanie minimalnego drzewa rozpinającego
 	 *
@@ -327,6 +413,8 @@ public class MinimalSpanningTree extends Dijkstra {
 	 * @see METHOD metody MSR
 	 * @see #kruskal()
 	 * @see #prim()
+	 * @see #filterKruskal()
+	 * @see #boruvka()
 	 * @since 3.0
 	 */
 	public void calculateMST(@NotNull METHOD method) {
@@ -335,6 +423,10 @@ public class MinimalSpanningTree extends Dijkstra {
 					kruskal();
 			case PRIM ->
 					prim();
+			case FILTER_KRUSKAL ->
+					filterKruskal();
+			case BORUVKA ->
+					boruvka();
 		}
 	}
 
@@ -358,6 +450,76 @@ public class MinimalSpanningTree extends Dijkstra {
 		prim.calculate();
 	}
 
+	/**
+	 * Obliczanie minimalnego drzewa rozpinającego metodą Filter-Kruskal
+	 *
+	 * @see FilterKruskal#calculate()
+	 * @since 3.7
+	 */
+	public void filterKruskal() {
+		filterKruskal.calculate();
+	}
+
+	/**
+	 * Obliczanie minimalnego drzewa rozpinającego równoległą metodą Borůvki
+	 *
+	 * @see Boruvka#calculate(ForkJoinPool)
+	 * @since 3.8
+	 */
+	public void boruvka() {
+		boruvka.calculate(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Obliczanie minimalnego drzewa rozpinającego równoległą metodą Borůvki w podanej puli wątków
+	 *
+	 * @param pool Pula wątków
+	 * @see Boruvka#calculate(ForkJoinPool)
+	 * @since 3.8
+	 */
+	public void boruvka(@NotNull ForkJoinPool pool) {
+		boruvka.calculate(pool);
+	}
+
+	/**
+	 * Zwraca liczbę drzew minimalnego lasu rozpinającego
+	 *
+	 * @return Liczba drzew (liczba spójnych składowych grafu, 1 dla grafu spójnego)
+	 * @throws IllegalStateException jeśli MDR nie zostało obliczone
+	 * @see Graph#getComponents()
+	 * @since 3.9
+	 */
+	public int getTreeCount() {
+		if (calculated == METHOD.NOT_CALCULATED)
+			throw new IllegalStateException("Minimal spanning tree not calculated, use calculate() method first or provide method");
+		if (dynamic != null)
+			dynamic.flush();
+		return vertices.getIds().size() - resultEdges.getEdges().size();
+	}
+
+	/**
+	 * Obliczanie minimalnego drzewa rozpinającego metodą Prima z wybraną kolejką priorytetową
+	 *
+	 * @param queue Rodzaj kolejki priorytetowej
+	 * @see Prim#calculate(MinQueue.TYPE)
+	 * @see MinQueue.TYPE rodzaje kolejek
+	 * @since 3.3
+	 */
+	public void prim(MinQueue.@NotNull TYPE queue) {
+		prim.calculate(queue);
+	}
+
+	/**
+	 * Obliczanie minimalnego drzewa rozpinającego metodą Prima w trybie gęstym
+	 *
+	 * @throws IllegalStateException Graf nie przechowuje macierzy wag
+	 * @see Prim#calculateDense()
+	 * @since 3.4
+	 */
+	public void primDense() {
+		prim.calculateDense();
+	}
+
 	/**
 	 * Zwraca MDR w formacie mermaid
 	 *
@@ -371,6 +533,8 @@ public class MinimalSpanningTree extends Dijkstra {
 	public @NotNull String mermaid() {
 		if (calculated == METHOD.NOT_CALCULATED)
 			throw new IllegalStateException("Minimal spanning tree not calculated, use calculate() method first or provide method");
+		if (dynamic != null)
+			dynamic.flush();
 		return String.format("graph\n%s\n%s}", vertices.mermaid(), resultEdges.mermaid());
 	}
 
@@ -483,6 +647,8 @@ public class MinimalSpanningTree extends Dijkstra {
 	@Override
 	public void removeVertex(@NotNull Integer id) {
 		calculated = METHOD.NOT_CALCULATED;
+		if (sortedEdges != null && vertices.exists(id))
+			sortedEdges.removeAll(id);
 		super.removeVertex(id);
 	}
 
@@ -496,6 +662,10 @@ public class MinimalSpanningTree extends Dijkstra {
 	@Override
 	public void removeVertex(@NotNull Integer @NotNull ... ids) {
 		calculated = METHOD.NOT_CALCULATED;
+		if (sortedEdges != null)
+			for (Integer id: ids)
+				if (vertices.exists(id))
+					sortedEdges.removeAll(id);
 		super.removeVertex(ids);
 	}
 
@@ -506,12 +676,16 @@ public class MinimalSpanningTree extends Dijkstra {
 	 * @param v2     Identyfikator wierzchołka 2
 	 * @param weight Waga krawędzi
 	 * @see Dijkstra#addEdge(Integer, Integer, Double)
+	 * @see Dynamic#insert(Integer, Integer, double)
 	 * @since 1.0
 	 */
 	@Override
 	public void addEdge(@NotNull Integer v1, @NotNull Integer v2, @NotNull Double weight) {
-		calculated = METHOD.NOT_CALCULATED;
 		super.addEdge(v1, v2, weight);
+		if (sortedEdges != null)
+			sortedEdges.add(edges.getEdges().getLast());
+		if (calculated != METHOD.NOT_CALCULATED)
+			dynamic().insert(v1, v2, weight);
 	}
 
 	/**
@@ -524,8 +698,37 @@ public class MinimalSpanningTree extends Dijkstra {
 	 */
 	@Override
 	public void removeEdge(@NotNull Integer v1, @NotNull Integer v2) {
-		calculated = METHOD.NOT_CALCULATED;
+		double old = getEdgeWeight(v1, v2);
+		if (sortedEdges != null && v1.equals(v2))
+			sortedEdges.removeAll(v1);
 		super.removeEdge(v1, v2);
+		if (sortedEdges != null && !v1.equals(v2))
+			sortedEdges.remove(v1, v2, old);
+		if (v1.equals(v2))
+			calculated = METHOD.NOT_CALCULATED;
+		else if (calculated != METHOD.NOT_CALCULATED)
+			dynamic().remove(v1, v2);
+	}
+
+	/**
+	 * Zmienia wagę krawędzi.
+	 * <p>
+	 * Krawędź jest usuwana i dodawana ponownie, więc wynik i {@link #sortedEdges} są poprawiane jak przy tych operacjach.
+	 * </p>
+	 *
+	 * @param v1     Identyfikator pierwszego wierzchołka
+	 * @param v2     Identyfikator drugiego wierzchołka
+	 * @param weight Nowa waga krawędzi
+	 * @see #removeEdge(Integer, Integer)
+	 * @see #addEdge(Integer, Integer, Double)
+	 * @since 3.11
+	 * @deprecated Od wersji 2.2 użyj {@link #setEdgeWeight(Integer, Integer, Double)}
+	 */
+	@Override
+	@Deprecated
+	public void editEdge(@NotNull Integer v1, @NotNull Integer v2, @NotNull Double weight) {
+		removeEdge(v1, v2);
+		addEdge(v1, v2, weight);
 	}
 
 	/**
@@ -538,6 +741,8 @@ public class MinimalSpanningTree extends Dijkstra {
 	@Override
 	public void removeAllEdges(@NotNull Integer id) {
 		calculated = METHOD.NOT_CALCULATED;
+		if (sortedEdges != null && vertices.exists(id))
+			sortedEdges.removeAll(id);
 		super.removeAllEdges(id);
 	}
 
@@ -551,6 +756,10 @@ public class MinimalSpanningTree extends Dijkstra {
 	@Override
 	public void removeAllEdges(@NotNull Integer @NotNull ... ids) {
 		calculated = METHOD.NOT_CALCULATED;
+		if (sortedEdges != null)
+			for (Integer id: ids)
+				if (vertices.exists(id))
+					sortedEdges.removeAll(id);
 		super.removeAllEdges(ids);
 	}
 
@@ -561,16 +770,54 @@ public class MinimalSpanningTree extends Dijkstra {
 	 * @param v2     Identyfikator drugiego wierzchołka
 	 * @param weight Nowa waga krawędzi
 	 * @see Dijkstra#setEdgeWeight(Integer, Integer, Double)
+	 * @see Dynamic#update(Integer, Integer, double, double)
 	 * @since 2.2
 	 */
 	@Override
 	public void setEdgeWeight(@NotNull Integer v1, @NotNull Integer v2, @NotNull Double weight) {
-		calculated = METHOD.NOT_CALCULATED;
+		double old = getEdgeWeight(v1, v2);
+		Edges.Edge edge = sortedEdges != null && v1.equals(v2) ? edges.getEdges().stream().filter(e -> e.connects(v1)).findFirst().orElseThrow() : null;
 		super.setEdgeWeight(v1, v2, weight);
+		if (edge != null)
+			sortedEdges.update(edge.getV1(), edge.getV2(), old, weight);
+		else if (sortedEdges != null)
+			sortedEdges.update(v1, v2, old, weight);
+		if (v1.equals(v2))
+			calculated = METHOD.NOT_CALCULATED;
+		else if (calculated != METHOD.NOT_CALCULATED)
+			dynamic().update(v1, v2, old, weight);
+	}
+
+	/**
+	 * Rozpoczyna nowe obliczenie MDR
+	 * <p>
+	 * Czyści wynik i porzuca drzewo utrzymywane przy zmianach.
+	 * </p>
+	 *
+	 * @since 3.10
+	 */
+	private void reset() {
+		resultEdges = new Edges();
+		dynamic = null;
+	}
+
+	/**
+	 * Zwraca drzewo utrzymywane przy zmianach, tworząc je z bieżącego wyniku przy pierwszej zmianie
+	 *
+	 * @return Drzewo utrzymywane przy zmianach
+	 * @since 3.10
+	 */
+	private @NotNull Dynamic dynamic() {
+		if (dynamic == null)
+			dynamic = new Dynamic();
+		return dynamic;
 	}
 
 	/**
 	 * Zapis grafu do pliku
+	 * <p>
+	 * Punkty orientacyjne, hierarchia skrótów i współrzędne wierzchołków są zapisywane jak w {@link Dijkstra#save(String)}.
+	 * </p>
 	 *
 	 * @param name nazwa pliku
 	 * @throws IOException błąd zapisu
@@ -580,9 +827,8 @@ public class MinimalSpanningTree extends Dijkstra {
 	@Override
 	public void save(@NotNull String name) throws IOException {
 		Path file = Path.of(name + ".graph.mmd");
+		String graph = mermaid(Graph.MERMAID.GRAPH);
 		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_16)) {
-			if (src == null)
-				src = 0;
 			String s = String.format("""
 					---
 					title: %s
@@ -591,11 +837,10 @@ public class MinimalSpanningTree extends Dijkstra {
 					mst: %s
 					---
 					%s
-					""", name, src, calculated, mermaid(Graph.MERMAID.GRAPH));
+					%s""", name, src == null ? 0 : src, calculated, graph, coordinates());
 			writer.write(s);
-			if (src == 0)
-				src = null;
 		}
+		saveAttachments(file, name);
 	}
 
 	/**
@@ -642,40 +887,56 @@ public class MinimalSpanningTree extends Dijkstra {
 
 	/**
 	 * Metody MDR
+	 * <p>
+	 * {@link #FILTER_KRUSKAL} daje to samo drzewo co {@link #KRUSKAL},
+	 * ale nie sortuje krawędzi, które łączą wierzchołki już połączone lżejszymi krawędziami.<br>
+	 * {@link #BORUVKA} liczy równolegle i również daje to samo drzewo co {@link #KRUSKAL}, z krawędziami w tej samej kolejności.
+	 * </p>
 	 *
 	 * @author Krzysztof Jurkowki
-	 * @version 1.0
+	 * @version 1.2
 	 * @since 3.0
 	 */
 	public enum METHOD {
-		KRUSKAL, PRIM, NOT_CALCULATED
+		KRUSKAL, PRIM, FILTER_KRUSKAL, BORUVKA, NOT_CALCULATED
 	}
 
 	/**
 	 * Klasa poświęcona metodzie Kruskala
 	 *
 	 * @author Krzysztof Jurkowski
-	 * @version 1.1
+	 * @version 1.4
 	 * @see #kruskal
 	 * @see #kruskal()
 	 * @since 3.0
 	 */
 	private class Kruskal {
 		/**
-		 * Kolejka krawędzi
+		 * Indeksy krawędzi w kolejności niemalejących wag
 		 *
-		 * @since 1.1
+		 * @see EdgeSort#order(Adjacency)
+		 * @since 1.3
 		 */
-		PriorityQueue<Edges.Edge> edgesQueue;
+		int[] order;
 		/**
-		 * Tablica rodziców
+		 * Zbiory wierzchołków połączonych wybranymi krawędziami (indeksy reprezentacji sąsiedztwa)
 		 *
-		 * @since 1.1
+		 * @see DisjointSet
+		 * @since 1.2
 		 */
-		Integer[] parent;
+		DisjointSet sets;
 
 		/**
 		 * Oblicz
+		 * <p>
+		 * Indeksy krawędzi są sortowane według wag ({@link EdgeSort}) i przeglądane liniowo od najlżejszej;
+		 * krawędź trafia do drzewa, jeżeli łączy dwa różne zbiory.
+		 * Przeglądanie kończy się, gdy wszystkie wierzchołki są w jednym zbiorze.
+		 * </p>
+		 * <p>
+		 * Kolejność z pierwszego obliczenia jest zapamiętywana w {@link SortedEdges} i poprawiana przy zmianach krawędzi,
+		 * więc kolejne obliczenia nie sortują krawędzi — O(E·α(V)).
+		 * </p>
 		 *
 		 * @since 3.0
 		 */
@@ -683,117 +944,1121 @@ public class MinimalSpanningTree extends Dijkstra {
 			if (calculated == METHOD.KRUSKAL)
 				return;
 
-			resultEdges = new Edges();
+			reset();
 
-			edgesQueue = new PriorityQueue<>(Comparator.comparingDouble(Edges.Edge::getWeight));
-			edgesQueue.addAll(edges.getEdges());
+			if (sortedEdges != null) {
+				calculateSorted();
+				return;
+			}
 
-			parent = new Integer[vertices.getIds().size()];
-			for (int i = 0; i < parent.length; i++)
-				parent[i] = i;
+			Adjacency adjacency = adjacency();
+			order = EdgeSort.order(adjacency);
+			sets = new DisjointSet(adjacency.size());
 
-			while (!edgesQueue.isEmpty()) {
-				Edges.Edge edge = edgesQueue.poll();
+			for (int i = 0; i < order.length && sets.count() > 1; i++) {
+				int e = order[i];
+				if (sets.union(adjacency.edgeU(e), adjacency.edgeV(e)))
+					resultEdges.getEdges().add(resultEdges.new Edge(edges.getEdges().get(e)));
+			}
 
-				int srcParent = find(edge.getV1());
-				int destParent = find(edge.getV2());
+			sortedEdges = new SortedEdges(order);
+			calculated = METHOD.KRUSKAL;
+		}
 
-				if (srcParent != destParent) {
-					resultEdges.create(edge.getV1(), edge.getV2(), edge.getWeight());
-					union(srcParent, destParent);
-				}
+		/**
+		 * Oblicz na zapamiętanej kolejności krawędzi
+		 *
+		 * @see #sortedEdges
+		 * @since 1.4
+		 */
+		private void calculateSorted() {
+			List<Integer> ids = vertices.getIds();
+			int[] index = new int[ids.stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+			for (int i = 0; i < ids.size(); i++)
+				index[ids.get(i)] = i;
+			sets = new DisjointSet(ids.size());
+
+			sortedEdges.compact();
+			for (Edges.Edge e: sortedEdges.edge) {
+				if (sets.count() <= 1)
+					break;
+				if (sets.union(index[e.getV1()], index[e.getV2()]))
+					resultEdges.getEdges().add(resultEdges.new Edge(e));
 			}
 
 			calculated = METHOD.KRUSKAL;
 		}
+	}
+
+	/**
+	 * Klasa poświęcona metodzie Filter-Kruskal
+	 * <p>
+	 * Krawędzie są dzielone jak w sortowaniu szybkim: na lżejsze lub równe wybranej wadze osiowej i cięższe.
+	 * Najpierw przetwarzana jest część lżejsza, a z części cięższej usuwane są krawędzie,
+	 * których końce są już w jednym zbiorze — dopiero pozostałe są dzielone dalej.
+	 * Krótkie części są sortowane {@link EdgeSort} i przeglądane jak w metodzie Kruskala.
+	 * </p>
+	 * <p>
+	 * Podział jest stabilny, więc krawędzie o równych wagach są rozpatrywane w tej samej kolejności co w {@link Kruskal}
+	 * i wynik jest identyczny. Duże części są dzielone równolegle.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @see #filterKruskal
+	 * @see #filterKruskal()
+	 * @since 3.7
+	 */
+	private class FilterKruskal {
+		/**
+		 * Długość części, od której jest sortowana zamiast dzielona
+		 *
+		 * @since 1.0
+		 */
+		static final int BASE = 1 << 12;
+		/**
+		 * Długość fragmentu przetwarzanego przez jeden wątek przy podziale równoległym
+		 *
+		 * @since 1.0
+		 */
+		static final int CHUNK = 1 << 14;
+		/**
+		 * Reprezentacja sąsiedztwa grafu
+		 *
+		 * @since 1.0
+		 */
+		Adjacency adjacency;
+		/**
+		 * Wagi krawędzi
+		 *
+		 * @since 1.0
+		 */
+		double[] weights;
+		/**
+		 * Indeksy krawędzi (kolejne części po podziale)
+		 *
+		 * @since 1.0
+		 */
+		int[] order;
+		/**
+		 * Bufor podziału
+		 *
+		 * @since 1.0
+		 */
+		int[] buffer;
+		/**
+		 * Zbiory wierzchołków połączonych wybranymi krawędziami
+		 *
+		 * @since 1.0
+		 */
+		DisjointSet sets;
+
+		/**
+		 * Oblicz
+		 *
+		 * @since 1.0
+		 */
+		public void calculate() {
+			if (calculated == METHOD.FILTER_KRUSKAL)
+				return;
+
+			reset();
+
+			adjacency = adjacency();
+			int m = adjacency.edgeCount();
+			weights = new double[m];
+			order = new int[m];
+			for (int e = 0; e < m; e++) {
+				weights[e] = adjacency.edgeWeight(e);
+				order[e] = e;
+			}
+			buffer = new int[m];
+			sets = new DisjointSet(adjacency.size());
+
+			filter(0, m);
+
+			weights = null;
+			order = null;
+			buffer = null;
+			calculated = METHOD.FILTER_KRUSKAL;
+		}
 
 		/**
-		 * Znajdź korzeń
+		 * Przetwarza część krawędzi
 		 *
-		 * @param vertex wierzchołek
-		 * @return korzeń
+		 * @param from Początek części
+		 * @param to   Koniec części (wyłącznie)
 		 * @since 1.0
 		 */
-		private int find(@NotNull Integer vertex) {
-			if (!parent[vertex].equals(vertex))
-				parent[vertex] = find(parent[vertex]);
-			return parent[vertex];
+		private void filter(int from, int to) {
+			while (to - from > BASE && sets.count() > 1) {
+				double pivot = pivot(from, to);
+				int split = partition(from, to, pivot);
+				if (split == to)
+					break;
+				filter(from, split);
+				from = split;
+				to = purge(from, to);
+			}
+			if (sets.count() > 1)
+				scan(from, to);
 		}
 
 		/**
-		 * Połącz
+		 * Wybiera wagę osiową (mediana trzech losowych wag części)
 		 *
-		 * @param src  źródło
-		 * @param dest cel
+		 * @param from Początek części
+		 * @param to   Koniec części (wyłącznie)
+		 * @return Waga osiowa
 		 * @since 1.0
 		 */
-		private void union(@NotNull Integer src, @NotNull Integer dest) {
-			int srcParent = find(src);
-			int destParent = find(dest);
-			parent[srcParent] = destParent;
+		private double pivot(int from, int to) {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			double a = weights[order[random.nextInt(from, to)]];
+			double b = weights[order[random.nextInt(from, to)]];
+			double c = weights[order[random.nextInt(from, to)]];
+			return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+		}
+
+		/**
+		 * Dzieli stabilnie część na krawędzie nie cięższe od wagi osiowej i cięższe
+		 * <p>
+		 * Duże części są dzielone równolegle we fragmentach {@link #CHUNK}:
+		 * każdy fragment liczy swoje krawędzie lżejsze, a po zsumowaniu przesunięć zapisuje je na swoje miejsca.
+		 * </p>
+		 *
+		 * @param from  Początek części
+		 * @param to    Koniec części (wyłącznie)
+		 * @param pivot Waga osiowa
+		 * @return Początek krawędzi cięższych
+		 * @since 1.0
+		 */
+		private int partition(int from, int to, double pivot) {
+			if (to - from < EdgeSort.PARALLEL_THRESHOLD) {
+				int light = from, heavy = from;
+				for (int i = from; i < to; i++) {
+					int e = order[i];
+					if (weights[e] <= pivot)
+						order[light++] = e;
+					else
+						buffer[heavy++] = e;
+				}
+				System.arraycopy(buffer, from, order, light, heavy - from);
+				return light;
+			}
+
+			int chunks = (to - from + CHUNK - 1) / CHUNK;
+			int[] lights = new int[chunks + 1];
+			ForkJoinPool pool = ForkJoinPool.commonPool();
+			pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(c -> {
+				int count = 0;
+				for (int i = from + c * CHUNK, end = Math.min(to, i + CHUNK); i < end; i++)
+					if (weights[order[i]] <= pivot)
+						count++;
+				lights[c + 1] = count;
+			})).join();
+			for (int c = 0; c < chunks; c++)
+				lights[c + 1] += lights[c];
+			int split = from + lights[chunks];
+			pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(c -> {
+				int start = from + c * CHUNK, end = Math.min(to, start + CHUNK);
+				int light = from + lights[c], heavy = split + (start - from) - lights[c];
+				for (int i = start; i < end; i++) {
+					int e = order[i];
+					if (weights[e] <= pivot)
+						buffer[light++] = e;
+					else
+						buffer[heavy++] = e;
+				}
+			})).join();
+			System.arraycopy(buffer, from, order, from, to - from);
+			return split;
+		}
+
+		/**
+		 * Usuwa z części krawędzie łączące wierzchołki jednego zbioru
+		 *
+		 * @param from Początek części
+		 * @param to   Koniec części (wyłącznie)
+		 * @return Nowy koniec części
+		 * @since 1.0
+		 */
+		private int purge(int from, int to) {
+			int kept = from;
+			for (int i = from; i < to; i++) {
+				int e = order[i];
+				if (!sets.connected(adjacency.edgeU(e), adjacency.edgeV(e)))
+					order[kept++] = e;
+			}
+			return kept;
+		}
+
+		/**
+		 * Sortuje część według wag i dodaje do drzewa krawędzie łączące różne zbiory
+		 *
+		 * @param from Początek części
+		 * @param to   Koniec części (wyłącznie)
+		 * @since 1.0
+		 */
+		private void scan(int from, int to) {
+			double[] part = new double[to - from];
+			for (int i = from; i < to; i++)
+				part[i - from] = weights[order[i]];
+			int[] sorted = EdgeSort.order(part, ForkJoinPool.commonPool());
+			for (int i = 0; i < sorted.length && sets.count() > 1; i++) {
+				int e = order[from + sorted[i]];
+				if (sets.union(adjacency.edgeU(e), adjacency.edgeV(e)))
+					resultEdges.getEdges().add(resultEdges.new Edge(edges.getEdges().get(e)));
+			}
 		}
 	}
 
 	/**
-	 * Klasa poświęcona metodzie Prima
+	 * Klasa poświęcona metodzie Borůvki
+	 * <p>
+	 * W każdej rundzie równolegle wyznaczana jest najlżejsza krawędź wychodząca z każdej składowej,
+	 * składowe są łączone tymi krawędziami we współbieżnych zbiorach rozłącznych,
+	 * a krawędzie wewnątrz nowych składowych są odrzucane (ściąganie). Liczba składowych co najmniej maleje o połowę,
+	 * więc rund jest O(log V), a każda kosztuje O(E/p) na p wątkach.
+	 * </p>
+	 * <p>
+	 * Krawędzie są porównywane według wagi, a przy równych wagach według indeksu.
+	 * Przy takim porządku minimalne drzewo jest jednoznaczne i równe wynikowi {@link Kruskal},
+	 * niezależnie od liczby wątków i kolejności ich wykonania. Wybrane krawędzie są na końcu porządkowane tak jak w {@link Kruskal}.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.0
+	 * @see #boruvka
+	 * @see #boruvka()
+	 * @since 3.8
+	 */
+	private class Boruvka {
+		/**
+		 * Reprezentacja sąsiedztwa grafu
+		 *
+		 * @since 1.0
+		 */
+		Adjacency adjacency;
+		/**
+		 * Zbiory wierzchołków połączonych wybranymi krawędziami
+		 *
+		 * @since 1.0
+		 */
+		ConcurrentDisjointSet sets;
+
+		/**
+		 * Oblicz
+		 *
+		 * @param pool Pula wątków
+		 * @since 1.0
+		 */
+		public void calculate(@NotNull ForkJoinPool pool) {
+			if (calculated == METHOD.BORUVKA)
+				return;
+
+			reset();
+
+			adjacency = adjacency();
+			int n = adjacency.size();
+			sets = new ConcurrentDisjointSet(n);
+			int[] label = IntStream.range(0, n).toArray();
+			AtomicIntegerArray best = new AtomicIntegerArray(n);
+			boolean[] selected = new boolean[adjacency.edgeCount()];
+
+			pool.submit(() -> {
+				int[] alive = IntStream.range(0, adjacency.edgeCount()).parallel()
+						.filter(e -> adjacency.edgeU(e) != adjacency.edgeV(e)).toArray();
+				while (alive.length > 0) {
+					int[] candidates = alive;
+					IntStream.range(0, n).parallel().forEach(v -> best.set(v, -1));
+					Arrays.stream(candidates).parallel().forEach(e -> {
+						offer(best, label[adjacency.edgeU(e)], e);
+						offer(best, label[adjacency.edgeV(e)], e);
+					});
+					IntStream.range(0, n).parallel().forEach(r -> {
+						int e = best.get(r);
+						if (e == -1)
+							return;
+						int other = label[adjacency.edgeU(e)] == r ? label[adjacency.edgeV(e)] : label[adjacency.edgeU(e)];
+						if (best.get(other) == e && other < r)
+							return;
+						selected[e] = true;
+						sets.union(adjacency.edgeU(e), adjacency.edgeV(e));
+					});
+					IntStream.range(0, n).parallel().forEach(v -> label[v] = sets.find(v));
+					alive = Arrays.stream(candidates).parallel()
+							.filter(e -> label[adjacency.edgeU(e)] != label[adjacency.edgeV(e)]).toArray();
+				}
+			}).join();
+
+			int[] tree = IntStream.range(0, selected.length).filter(e -> selected[e]).toArray();
+			double[] weights = new double[tree.length];
+			for (int i = 0; i < tree.length; i++)
+				weights[i] = adjacency.edgeWeight(tree[i]);
+			for (int i: EdgeSort.order(weights, pool))
+				resultEdges.getEdges().add(resultEdges.new Edge(edges.getEdges().get(tree[i])));
+
+			calculated = METHOD.BORUVKA;
+		}
+
+		/**
+		 * Zgłasza krawędź jako kandydata na najlżejszą krawędź składowej
+		 *
+		 * @param best Najlżejsze krawędzie składowych (-1, jeśli brak)
+		 * @param root Korzeń składowej
+		 * @param e    Indeks krawędzi
+		 * @since 1.0
+		 */
+		private void offer(@NotNull AtomicIntegerArray best, int root, int e) {
+			int current = best.get(root);
+			while (current == -1 || lighter(e, current)) {
+				if (best.compareAndSet(root, current, e))
+					return;
+				current = best.get(root);
+			}
+		}
+
+		/**
+		 * Porównuje krawędzie według wagi, a przy równych wagach według indeksu
+		 *
+		 * @param e Indeks pierwszej krawędzi
+		 * @param f Indeks drugiej krawędzi
+		 * @return Czy pierwsza krawędź jest lżejsza
+		 * @since 1.0
+		 */
+		private boolean lighter(int e, int f) {
+			int c = Double.compare(adjacency.edgeWeight(e), adjacency.edgeWeight(f));
+			return c < 0 || c == 0 && e < f;
+		}
+	}
+
+	/**
+	 * Klasa utrzymująca MDR przy zmianach krawędzi
+	 * <p>
+	 * Drzewa lasu są przechowywane w {@link LinkCutTree}, w którym każda krawędź drzewa jest osobnym węzłem z wagą.
+	 * </p>
+	 * <ul>
+	 *     <li>Nowa krawędź lub obniżenie wagi krawędzi spoza drzewa: jeżeli końce są w różnych drzewach, krawędź łączy je;
+	 *     w przeciwnym razie zastępuje najcięższą krawędź ścieżki między końcami, jeśli jest od niej lżejsza — O(log V).</li>
+	 *     <li>Obniżenie wagi krawędzi drzewa: drzewo pozostaje minimalne, zmienia się tylko waga — O(log V).</li>
+	 *     <li>Usunięcie lub podwyższenie wagi krawędzi drzewa: krawędź jest rozcinana, a najlżejsza krawędź łącząca
+	 *     obie części (być może ta sama) jest wyszukiwana w liście krawędzi — O(E log V).</li>
+	 *     <li>Zmiany krawędzi spoza drzewa, które jej nie obniżają, nie zmieniają drzewa.</li>
+	 * </ul>
+	 * <p>
+	 * Przy równych wagach wynik może różnić się od ponownego obliczenia wyborem krawędzi, ale ma tę samą wagę.
+	 * Nowe krawędzie drzewa są dopisywane na końcu wyniku.
+	 * </p>
 	 *
 	 * @author Krzysztof Jurkowski
 	 * @version 1.1
-	 * @see #prim
-	 * @see #prim()
-	 * @since 3.0
+	 * @see #dynamic
+	 * @since 3.10
 	 */
-	private class Prim {
+	private class Dynamic {
+		/**
+		 * Liczba wierzchołków (węzły <code>0..n-1</code> to wierzchołki, kolejne to krawędzie drzewa)
+		 *
+		 * @since 1.0
+		 */
+		final int n;
 		/**
-		 * Kolejka krawędzi
+		 * Indeksy wierzchołków według identyfikatorów (-1, jeśli brak)
 		 *
+		 * @since 1.0
+		 */
+		final int[] index;
+		/**
+		 * Las rozpinający
+		 *
+		 * @since 1.0
+		 */
+		final LinkCutTree forest;
+		/**
+		 * Pierwsze końce krawędzi drzewa według węzłów (węzeł <code>n + i</code> na pozycji <code>i</code>)
+		 *
+		 * @since 1.0
+		 */
+		final int[] first;
+		/**
+		 * Drugie końce krawędzi drzewa według węzłów
+		 *
+		 * @since 1.0
+		 */
+		final int[] second;
+		/**
+		 * Wolne pozycje węzłów krawędzi
+		 *
+		 * @since 1.0
+		 */
+		final int[] free;
+		/**
+		 * Liczba wolnych pozycji węzłów krawędzi
+		 *
+		 * @since 1.0
+		 */
+		int freeCount;
+		/**
+		 * Krawędzie drzewa według par indeksów końców
+		 *
+		 * @see #key(int, int)
+		 * @since 1.0
+		 */
+		final Map<Long, Edges.Edge> tree = new LinkedHashMap<>();
+		/**
+		 * Węzły krawędzi drzewa według par indeksów końców
+		 *
+		 * @since 1.0
+		 */
+		final Map<Long, Integer> nodes = new HashMap<>();
+		/**
+		 * Czy wynik trzeba odtworzyć z {@link #tree}
+		 *
+		 * @since 1.0
+		 */
+		boolean stale;
+
+		/**
+		 * Konstruktor
+		 * <p>
+		 * Buduje las z bieżącego wyniku.
+		 * </p>
+		 *
+		 * @since 1.0
+		 */
+		Dynamic() {
+			List<Integer> ids = vertices.getIds();
+			n = ids.size();
+			index = new int[ids.stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+			Arrays.fill(index, -1);
+			for (int i = 0; i < n; i++)
+				index[ids.get(i)] = i;
+			forest = new LinkCutTree(2 * n);
+			first = new int[n];
+			second = new int[n];
+			free = new int[n];
+			for (int i = 0; i < n; i++)
+				free[i] = n - 1 - i;
+			freeCount = n;
+			for (Edges.Edge e: resultEdges.getEdges())
+				attach(e);
+			stale = false;
+		}
+
+		/**
+		 * Klucz pary wierzchołków
+		 *
+		 * @param a Indeks pierwszego wierzchołka
+		 * @param b Indeks drugiego wierzchołka
+		 * @return Klucz niezależny od kolejności wierzchołków
+		 * @since 1.0
+		 */
+		long key(int a, int b) {
+			return (long) Math.min(a, b) << 32 | Math.max(a, b);
+		}
+
+		/**
+		 * Dodaje krawędź do drzewa
+		 *
+		 * @param e Krawędź (kopia w wyniku)
+		 * @since 1.0
+		 */
+		void attach(Edges.@NotNull Edge e) {
+			int a = index[e.getV1()], b = index[e.getV2()];
+			int slot = free[--freeCount];
+			int node = n + slot;
+			first[slot] = a;
+			second[slot] = b;
+			forest.setValue(node, e.getWeight());
+			forest.link(a, node);
+			forest.link(node, b);
+			tree.put(key(a, b), e);
+			nodes.put(key(a, b), node);
+			stale = true;
+		}
+
+		/**
+		 * Usuwa krawędź z drzewa
+		 *
+		 * @param key Klucz pary końców krawędzi drzewa
+		 * @since 1.0
+		 */
+		void detach(long key) {
+			int node = nodes.remove(key);
+			int slot = node - n;
+			tree.remove(key);
+			forest.cut(first[slot], node);
+			forest.cut(node, second[slot]);
+			forest.setValue(node, Double.NEGATIVE_INFINITY);
+			free[freeCount++] = slot;
+			stale = true;
+		}
+
+		/**
+		 * Uwzględnia nową lub lżejszą krawędź spoza drzewa
+		 * <p>
+		 * Krawędź jest opisana końcami i wagą, więc nie trzeba jej wyszukiwać w liście krawędzi grafu.
+		 * </p>
+		 *
+		 * @param v1     Identyfikator pierwszego wierzchołka
+		 * @param v2     Identyfikator drugiego wierzchołka
+		 * @param weight Waga krawędzi
+		 * @since 1.0
+		 */
+		void insert(@NotNull Integer v1, @NotNull Integer v2, double weight) {
+			int a = index[v1], b = index[v2];
+			if (a == b)
+				return;
+			if (forest.connected(a, b)) {
+				int heaviest = forest.max(a, b);
+				if (!(weight < forest.value(heaviest)))
+					return;
+				detach(key(first[heaviest - n], second[heaviest - n]));
+			}
+			attach(resultEdges.new Edge(v1, v2, weight));
+		}
+
+		/**
+		 * Uwzględnia zmianę wagi krawędzi
+		 *
+		 * @param v1     Identyfikator pierwszego wierzchołka
+		 * @param v2     Identyfikator drugiego wierzchołka
+		 * @param old    Poprzednia waga krawędzi
+		 * @param weight Nowa waga krawędzi
+		 * @since 1.0
+		 */
+		void update(@NotNull Integer v1, @NotNull Integer v2, double old, double weight) {
+			int a = index[v1], b = index[v2];
+			if (a == b)
+				return;
+			long key = key(a, b);
+			Edges.Edge e = tree.get(key);
+			if (e == null) {
+				if (weight < old)
+					insert(v1, v2, weight);
+				return;
+			}
+			e.setWeight(weight);
+			forest.setValue(nodes.get(key), weight);
+			if (weight > old) {
+				detach(key);
+				reconnect(a);
+			}
+		}
+
+		/**
+		 * Uwzględnia usunięcie krawędzi
+		 *
+		 * @param v1 Identyfikator pierwszego wierzchołka
+		 * @param v2 Identyfikator drugiego wierzchołka
+		 * @since 1.0
+		 */
+		void remove(@NotNull Integer v1, @NotNull Integer v2) {
+			int a = index[v1], b = index[v2];
+			long key = key(a, b);
+			if (!tree.containsKey(key))
+				return;
+			detach(key);
+			reconnect(a);
+		}
+
+		/**
+		 * Wyszukuje najlżejszą krawędź łączącą części rozciętego drzewa i dodaje ją do drzewa
+		 *
+		 * @param a Indeks wierzchołka jednej z części
+		 * @since 1.0
+		 */
+		void reconnect(int a) {
+			Edges.Edge best = null;
+			for (Edges.Edge e: edges.getEdges()) {
+				if (best != null && !(e.getWeight() < best.getWeight()))
+					continue;
+				int x = index[e.getV1()], y = index[e.getV2()];
+				if (x != y && forest.connected(x, a) != forest.connected(y, a))
+					best = e;
+			}
+			if (best != null)
+				attach(resultEdges.new Edge(best));
+		}
+
+		/**
+		 * Odtwarza wynik z krawędzi drzewa, jeżeli się zmieniły
+		 *
+		 * @since 1.0
+		 */
+		void flush() {
+			if (!stale)
+				return;
+			resultEdges = new Edges();
+			resultEdges.getEdges().addAll(tree.values());
+			stale = false;
+		}
+	}
+
+	/**
+	 * Klasa przechowująca krawędzie grafu posortowane według wag
+	 * <p>
+	 * Kolejność z pierwszego obliczenia metodą Kruskala jest trzymana w tablicach,
+	 * a późniejsze zmiany — w drzewie czerwono-czarnym ({@link TreeSet}):
+	 * usunięte krawędzie są w tablicach oznaczane, dodane i przeważone trafiają do drzewa.
+	 * Numer krawędzi jest odczytywany z mapy par końców, a pozycja — wyszukiwaniem binarnym po (wadze, numerze),
+	 * więc każda zmiana kosztuje O(log E) niezależnie od liczby krawędzi o tej samej wadze.<br>
+	 * Przed obliczeniem tablice i drzewo są scalane w O(E) ({@link #compact()}), bez sortowania.
+	 * </p>
+	 * <p>
+	 * Równe wagi są uporządkowane według numeru krawędzi w kolejności dodania — czyli jak na liście krawędzi,
+	 * tak samo jak w stabilnym {@link EdgeSort}. Pętle nie są przechowywane.
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.1
+	 * @see #sortedEdges
+	 * @see Kruskal#calculate()
+	 * @since 3.11
+	 */
+	private class SortedEdges {
+		/**
+		 * Krawędzie w kolejności niemalejących wag
+		 *
+		 * @since 1.0
+		 */
+		Edges.Edge[] edge;
+		/**
+		 * Wagi krawędzi z {@link #edge}
+		 *
+		 * @since 1.0
+		 */
+		double[] weight;
+		/**
+		 * Numery krawędzi z {@link #edge} (rozstrzygają równe wagi)
+		 *
+		 * @since 1.0
+		 */
+		long[] serial;
+		/**
+		 * Czy krawędź z {@link #edge} została usunięta lub przeważona
+		 *
+		 * @since 1.0
+		 */
+		boolean[] removed;
+		/**
+		 * Krawędzie dodane lub przeważone od ostatniego scalenia
+		 *
+		 * @see #compact()
+		 * @since 1.0
+		 */
+		final TreeSet<Entry> changes = new TreeSet<>(Comparator.comparingDouble((Entry e) -> e.weight).thenComparingLong(e -> e.serial));
+		/**
+		 * Numery krawędzi według par końców ({@link #pair(Integer, Integer)})
+		 * <p>
+		 * Budowane przy pierwszej zmianie, więc pierwsze obliczenie nie płaci za mapę.
+		 * </p>
+		 *
+		 * @since 1.1
+		 */
+		Map<Long, Long> serials;
+		/**
+		 * Numer następnej dodanej krawędzi
+		 *
+		 * @since 1.0
+		 */
+		long next;
+
+		/**
+		 * Konstruktor
+		 *
+		 * @param order Indeksy krawędzi grafu w kolejności niemalejących wag
+		 * @see EdgeSort#order(Adjacency)
+		 * @since 1.0
+		 */
+		SortedEdges(int @NotNull [] order) {
+			List<Edges.Edge> list = edges.getEdges();
+			int m = 0;
+			edge = new Edges.Edge[order.length];
+			weight = new double[order.length];
+			serial = new long[order.length];
+			for (int e: order) {
+				Edges.Edge x = list.get(e);
+				if (x.getV1().equals(x.getV2()))
+					continue;
+				edge[m] = x;
+				weight[m] = x.getWeight();
+				serial[m++] = e;
+			}
+			edge = Arrays.copyOf(edge, m);
+			weight = Arrays.copyOf(weight, m);
+			serial = Arrays.copyOf(serial, m);
+			removed = new boolean[m];
+			next = list.size();
+		}
+
+		/**
+		 * Dodaje nową krawędź (ostatnią na liście krawędzi)
+		 *
+		 * @param e Krawędź grafu
+		 * @since 1.0
+		 */
+		void add(Edges.@NotNull Edge e) {
+			if (e.getV1().equals(e.getV2()))
+				return;
+			if (serials != null)
+				serials.put(pair(e.getV1(), e.getV2()), next);
+			changes.add(new Entry(e, e.getWeight(), next++));
+		}
+
+		/**
+		 * Klucz pary końców krawędzi
+		 * <p>
+		 * Para jest mnożona przez nieparzystą stałą (bijekcja), więc klucze są różne,
+		 * a ich skróty równomiernie rozłożone.
+		 * </p>
+		 *
+		 * @param v1 Identyfikator pierwszego wierzchołka
+		 * @param v2 Identyfikator drugiego wierzchołka
+		 * @return Klucz niezależny od kolejności wierzchołków
 		 * @since 1.1
 		 */
-		PriorityQueue<Edges.Edge> edgesQueue;
+		long pair(@NotNull Integer v1, @NotNull Integer v2) {
+			long key = (long) Math.min(v1, v2) << 32 | Math.max(v1, v2) & 0xFFFFFFFFL;
+			return key * 0x9E3779B97F4A7C15L;
+		}
+
+		/**
+		 * Zwraca mapę numerów krawędzi, budując ją przy pierwszym użyciu
+		 *
+		 * @return Numery krawędzi według par końców
+		 * @see #serials
+		 * @since 1.1
+		 */
+		@NotNull Map<Long, Long> serials() {
+			if (serials == null) {
+				serials = new HashMap<>(2 * (edge.length + changes.size()));
+				for (int i = 0; i < edge.length; i++)
+					if (!removed[i])
+						serials.put(pair(edge[i].getV1(), edge[i].getV2()), serial[i]);
+				for (Entry entry: changes)
+					serials.put(pair(entry.edge.getV1(), entry.edge.getV2()), entry.serial);
+			}
+			return serials;
+		}
+
+		/**
+		 * Usuwa krawędź
+		 *
+		 * @param v1     Identyfikator pierwszego wierzchołka
+		 * @param v2     Identyfikator drugiego wierzchołka
+		 * @param weight Waga krawędzi
+		 * @return Usunięta pozycja (<code>null</code>, jeśli krawędź nie jest przechowywana)
+		 * @since 1.0
+		 */
+		Entry remove(@NotNull Integer v1, @NotNull Integer v2, double weight) {
+			Long number = serials().remove(pair(v1, v2));
+			if (number == null)
+				return null;
+			long serial = number;
+			int lo = 0, hi = this.weight.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				int c = Double.compare(this.weight[mid], weight);
+				if (c < 0 || c == 0 && this.serial[mid] < serial)
+					lo = mid + 1;
+				else
+					hi = mid;
+			}
+			if (lo < this.weight.length && !removed[lo] && this.serial[lo] == serial && Double.compare(this.weight[lo], weight) == 0) {
+				removed[lo] = true;
+				return new Entry(edge[lo], weight, serial);
+			}
+			Entry entry = changes.ceiling(new Entry(null, weight, serial));
+			if (entry == null || entry.serial != serial || Double.compare(entry.weight, weight) != 0)
+				return null;
+			changes.remove(entry);
+			return entry;
+		}
+
+		/**
+		 * Usuwa wszystkie krawędzie wierzchołka
+		 *
+		 * @param id Identyfikator wierzchołka
+		 * @since 1.0
+		 */
+		void removeAll(@NotNull Integer id) {
+			for (Edges.Edge e: edges.getEdges())
+				if (e.connects(id) && !e.getV1().equals(e.getV2()))
+					remove(e.getV1(), e.getV2(), e.getWeight());
+		}
+
+		/**
+		 * Przenosi krawędź po zmianie wagi (z tym samym numerem)
+		 *
+		 * @param v1     Identyfikator pierwszego wierzchołka
+		 * @param v2     Identyfikator drugiego wierzchołka
+		 * @param old    Poprzednia waga
+		 * @param weight Nowa waga
+		 * @since 1.0
+		 */
+		void update(@NotNull Integer v1, @NotNull Integer v2, double old, double weight) {
+			Entry entry = remove(v1, v2, old);
+			if (entry != null) {
+				serials.put(pair(v1, v2), entry.serial);
+				changes.add(new Entry(entry.edge, weight, entry.serial));
+			}
+		}
+
+		/**
+		 * Scala tablice ze zmianami
+		 * <p>
+		 * Po scaleniu {@link #edge} zawiera wszystkie krawędzie grafu (bez pętli) w kolejności niemalejących wag.
+		 * </p>
+		 *
+		 * @since 1.0
+		 */
+		void compact() {
+			int m = 0;
+			for (boolean r: removed)
+				if (!r)
+					m++;
+			m += changes.size();
+			Edges.Edge[] edge = new Edges.Edge[m];
+			double[] weight = new double[m];
+			long[] serial = new long[m];
+			Iterator<Entry> change = changes.iterator();
+			Entry next = change.hasNext() ? change.next() : null;
+			int i = 0;
+			for (int k = 0; k < m; k++) {
+				while (i < removed.length && removed[i])
+					i++;
+				if (next != null && (i == removed.length || Double.compare(next.weight, this.weight[i]) < 0
+						|| Double.compare(next.weight, this.weight[i]) == 0 && next.serial < this.serial[i])) {
+					edge[k] = next.edge;
+					weight[k] = next.weight;
+					serial[k] = next.serial;
+					next = change.hasNext() ? change.next() : null;
+				} else {
+					edge[k] = this.edge[i];
+					weight[k] = this.weight[i];
+					serial[k] = this.serial[i++];
+				}
+			}
+			this.edge = edge;
+			this.weight = weight;
+			this.serial = serial;
+			removed = new boolean[m];
+			changes.clear();
+		}
+
+		/**
+		 * Pozycja krawędzi w porządku
+		 *
+		 * @author Krzysztof Jurkowski
+		 * @version 1.0
+		 * @since 1.0
+		 */
+		final class Entry {
+			/**
+			 * Krawędź grafu
+			 *
+			 * @since 1.0
+			 */
+			final Edges.Edge edge;
+			/**
+			 * Waga krawędzi
+			 *
+			 * @since 1.0
+			 */
+			final double weight;
+			/**
+			 * Numer krawędzi
+			 *
+			 * @since 1.0
+			 */
+			final long serial;
+
+			/**
+			 * Konstruktor
+			 *
+			 * @param edge   Krawędź grafu
+			 * @param weight Waga krawędzi
+			 * @param serial Numer krawędzi
+			 * @since 1.0
+			 */
+			Entry(Edges.Edge edge, double weight, long serial) {
+				this.edge = edge;
+				this.weight = weight;
+				this.serial = serial;
+			}
+		}
+	}
+
+	/**
+	 * Klasa poświęcona metodzie Prima
+	 * <p>
+	 * Drzewo jest rozrastane od pierwszego wierzchołka; gdy nie da się go już powiększyć,
+	 * kolejne drzewo zaczyna się od pierwszego wierzchołka spoza drzew.
+	 * Wynikiem jest zawsze dokładnie V-C krawędzi, gdzie C to liczba spójnych składowych
+	 * (V-1 dla grafu spójnego, las rozpinający dla niespójnego).
+	 * </p>
+	 *
+	 * @author Krzysztof Jurkowski
+	 * @version 1.5
+	 * @see #prim
+	 * @see #prim()
+	 * @since 3.0
+	 */
+	private class Prim {
 		/**
 		 * Tablica kluczy
 		 *
 		 * @since 1.1
 		 */
-		Double[] key;
+		double[] key;
 
 		/**
 		 * Oblicz
+		 * <p>
+		 * Dla grafów prawie pełnych przechowujących macierz wag wybierany jest tryb gęsty,
+		 * w przeciwnym razie kolejka według gęstości grafu.
+		 * </p>
 		 *
+		 * @see #isDense()
+		 * @see MinQueue.TYPE#AUTO
 		 * @since 1.0
 		 */
 		public void calculate() {
+			if (isDense())
+				calculateDense();
+			else
+				calculate(MinQueue.TYPE.AUTO);
+		}
+
+		/**
+		 * Oblicz z wybraną kolejką priorytetową
+		 * <p>
+		 * Kolejka przechowuje wierzchołki spoza drzewa z kluczem równym najlżejszej krawędzi do drzewa,
+		 * sąsiedzi są przeglądani w reprezentacji sąsiedztwa, więc czas to O(E log V) zamiast O(V²).
+		 * </p>
+		 *
+		 * @param type Rodzaj kolejki priorytetowej
+		 * @since 1.2
+		 */
+		public void calculate(MinQueue.@NotNull TYPE type) {
 			if (calculated == METHOD.PRIM)
 				return;
 
-			resultEdges = new Edges();
-
-			edgesQueue = new PriorityQueue<>(Comparator.comparingDouble(Edges.Edge::getWeight));
-			boolean[] mstSet = new boolean[vertices.getIds().size()];
-
-			key = new Double[vertices.getIds().size()];
-			Arrays.fill(key, Double.MAX_VALUE);
-
-			key[0] = 0.0;
+			reset();
+
+			Adjacency adjacency = adjacency();
+			int n = adjacency.size();
+			key = new double[n];
+			Arrays.fill(key, Double.POSITIVE_INFINITY);
+			int[] via = new int[n];
+			Arrays.fill(via, -1);
+			boolean[] mstSet = new boolean[n];
+			MinQueue queue = type.create(n, adjacency.begin(n));
+
+			for (int root = 0; root < n; root++) {
+				if (mstSet[root])
+					continue;
+				key[root] = 0.0;
+				queue.push(root, 0.0);
+				grow(adjacency, queue, mstSet, via);
+			}
 
-			for (int count = 0; count < vertices.getIds().size() - 1; count++) {
-				int u = -1;
-				for (int i = 0; i < vertices.getIds().size(); i++)
-					if (!mstSet[i] && (u == -1 || key[i] < key[u]))
-						u = i;
+			calculated = METHOD.PRIM;
+		}
 
+		/**
+		 * Rozrasta drzewo do wyczerpania kolejki
+		 *
+		 * @param adjacency Reprezentacja sąsiedztwa grafu
+		 * @param queue     Kolejka priorytetowa z korzeniem drzewa
+		 * @param mstSet    Wierzchołki należące do drzew
+		 * @param via       Indeksy najlżejszych krawędzi do drzew (-1, jeśli brak)
+		 * @since 1.4
+		 */
+		private void grow(@NotNull Adjacency adjacency, @NotNull MinQueue queue, boolean @NotNull [] mstSet, int @NotNull [] via) {
+			while (!queue.isEmpty()) {
+				int u = queue.poll();
+				if (mstSet[u] || queue.key() > key[u])
+					continue;
 				mstSet[u] = true;
+				if (via[u] != -1)
+					resultEdges.getEdges().add(resultEdges.new Edge(edges.getEdges().get(via[u])));
 
-				for (int v = 0; v < vertices.getIds().size(); v++) {
-					Double weight = edges.getWeight(u, v);
+				for (int slot = adjacency.begin(u); slot < adjacency.end(u); slot++) {
+					int v = adjacency.target(slot);
+					double weight = adjacency.weight(slot);
 					if (!mstSet[v] && weight < key[v]) {
 						key[v] = weight;
-						resultEdges.create(u, v, weight);
+						via[v] = adjacency.edge(slot);
+						queue.push(v, weight);
 					}
 				}
 			}
+		}
+
+		/**
+		 * Oblicz w trybie gęstym
+		 * <p>
+		 * Klucze wszystkich wierzchołków są trzymane w tablicy indeksowanej identyfikatorami (NaN dla wierzchołków drzewa),
+		 * a każdy krok przegląda je w całości i relaksuje krawędzie wierzchołka z macierzy wag grafu: O(V²) bez kolejki,
+		 * z instrukcjami SIMD, jeżeli są dostępne.
+		 * </p>
+		 *
+		 * @throws IllegalStateException Graf nie przechowuje macierzy wag
+		 * @see Graph.STORAGE
+		 * @see DenseKernels
+		 * @since 1.3
+		 */
+		public void calculateDense() {
+			if (calculated == METHOD.PRIM)
+				return;
+
+			Adjacency adjacency = adjacency();
+			key = keys(adjacency);
+			reset();
+
+			double[] matrix = matrix();
+			int n = key.length;
+			double[] from = new double[n];
+			Arrays.fill(from, -1.0);
+
+			int root = 0;
+			while (true) {
+				int u = DenseKernels.argmin(key);
+				if (u == -1) {
+					while (root < n && Double.isNaN(key[root]))
+						root++;
+					if (root == n)
+						break;
+					u = root;
+				}
+				int p = (int) from[u];
+				if (p != -1)
+					resultEdges.getEdges().add(resultEdges.new Edge(edges.getEdges().get(edge(adjacency, adjacency.index(u), adjacency.index(p), key[u]))));
+				key[u] = Double.NaN;
+				DenseKernels.relax(key, matrix, u, 0.0, from, u);
+			}
 
 			calculated = METHOD.PRIM;
 		}
+
+		/**
+		 * Wyszukuje krawędź o podanej wadze między wierzchołkami
+		 *
+		 * @param adjacency Reprezentacja sąsiedztwa grafu
+		 * @param u         Indeks pierwszego wierzchołka
+		 * @param v         Indeks drugiego wierzchołka
+		 * @param weight    Waga krawędzi
+		 * @return Indeks krawędzi
+		 * @since 1.3
+		 */
+		private int edge(@NotNull Adjacency adjacency, int u, int v, double weight) {
+			int slot = adjacency.begin(u);
+			while (adjacency.target(slot) != v || adjacency.weight(slot) != weight)
+				slot++;
+			return adjacency.edge(slot);
+		}
 	}
 }